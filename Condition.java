@@ -1,5 +1,7 @@
 package com.au92.common.util.rule;
 
+import com.au92.common.util.rule.async.AsyncCondition;
+import com.au92.common.util.rule.async.AsyncEvaluator;
 import com.au92.common.util.rule.impl.AndCondition;
 import com.au92.common.util.rule.impl.BetweenCondition;
 import com.au92.common.util.rule.impl.ContainsCondition;
@@ -22,11 +24,17 @@ import com.au92.common.util.rule.impl.OrCondition;
 import com.au92.common.util.rule.impl.StartsWithCondition;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 规则引擎接口
  * <p>
  * 使用方法见{@link ConditionTest}
+ * <p>
+ * 内置条件在构建完成后可以被多个线程同时计算：求值不修改条件本身，运行时缓存（字段读取器、自适应顺序、多模式匹配的扫描状态）
+ * 为不可变快照、原子计数器或线程本地对象。计算期间修改条件的属性不是线程安全的。
  *
  * @author p_x_c
  */
@@ -63,4 +71,52 @@ public interface Condition<T> {
      * @return
      */
     boolean evaluate(T value);
+
+    /**
+     * 在求值上下文中计算规则，同一上下文中事实对象的每个字段最多读取一次。默认忽略上下文
+     *
+     * @param value   待计算的值
+     * @param context 求值上下文，可以为 null
+     * @return 计算结果
+     */
+    default boolean evaluate(T value, EvaluationContext context) {
+        return evaluate(value);
+    }
+
+    /**
+     * 异步计算规则，只有规则中包含 {@link AsyncCondition} 时才会真正异步，见 {@link AsyncEvaluator}
+     *
+     * @param value 待计算的值
+     * @return 计算结果
+     */
+    default CompletableFuture<Boolean> evaluateAsync(T value) {
+        return AsyncEvaluator.evaluate(this, value);
+    }
+
+    /**
+     * 批量规则计算
+     *
+     * @param values 待计算的值
+     * @return 满足条件的下标集合
+     */
+    default BitSet evaluateBatch(List<T> values) {
+        BitSet selection = new BitSet(values.size());
+        selection.set(0, values.size());
+        evaluateBatch(values, selection);
+        return selection;
+    }
+
+    /**
+     * 批量规则计算，只计算 selection 中被选中的下标，不满足条件的下标会从 selection 中清除
+     *
+     * @param values    待计算的值
+     * @param selection 参与计算的下标，同时作为结果输出
+     */
+    default void evaluateBatch(List<T> values, BitSet selection) {
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            if (!evaluate(values.get(i))) {
+                selection.clear(i);
+            }
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package com.au92.common.util.rule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link Condition#evaluateBatch(List)} 与逐个调用 {@link Condition#evaluate(Object)} 的结果相同
+ *
+ * @author p_x_c
+ */
+class ConditionBatchTest {
+    /**
+     * amount 为这个值时抛异常的叶子抛出异常
+     */
+    private static final int FAILING_AMOUNT = 13;
+    private static final String[] TAGS = {null, "", "vip", "vip-gold", "common"};
+
+    private final Random random = new Random(3);
+
+    @Test
+    void matchesPerFactEvaluation() {
+        int failed = 0;
+        for (int round = 0; round < 3000; round++) {
+            Condition<Item> condition = tree(3);
+            List<Item> items = items(random.nextInt(70));
+            BitSet expected = new BitSet();
+            RuntimeException error = null;
+            for (int i = 0; i < items.size(); i++) {
+                try {
+                    if (condition.evaluate(items.get(i))) {
+                        expected.set(i);
+                    }
+                } catch (IllegalStateException e) {
+                    error = e;
+                }
+            }
+            if (error == null) {
+                assertEquals(expected, condition.evaluateBatch(items), "round " + round);
+            } else {
+                // 逐个计算与批量计算调用的叶子相同，只是顺序不同，任一对象抛出异常时批量计算也抛出
+                failed++;
+                assertThrows(IllegalStateException.class, () -> condition.evaluateBatch(items), "round " + round);
+            }
+        }
+        assertTrue(failed > 0);
+    }
+
+    @Test
+    void evaluatesOnlySelectedIndexes() {
+        Condition<Item> condition = new AndCondition<>(List.of(new FieldNameCondition<>("tag", new IsNullCondition<>()), failing()));
+        List<Item> items = List.of(new Item(2, null, 0), new Item(FAILING_AMOUNT, null, 0), new Item(4, "vip", 0));
+        BitSet selection = new BitSet();
+        selection.set(0);
+        selection.set(2);
+        condition.evaluateBatch(items, selection);
+        BitSet expected = new BitSet();
+        expected.set(0);
+        assertEquals(expected, selection);
+    }
+
+    @Test
+    void emptyBatch() {
+        assertTrue(tree(3).evaluateBatch(List.of())
+                          .isEmpty());
+    }
+
+    private List<Item> items(int size) {
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(10) == 0) {
+                items.add(null);
+            } else {
+                int amount = random.nextInt(100) == 0 ? FAILING_AMOUNT : random.nextInt(10);
+                items.add(new Item(amount, TAGS[random.nextInt(TAGS.length)], random.nextInt(5) - 2.5));
+            }
+        }
+        return items;
+    }
+
+    private Condition<Item> tree(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(9) : random.nextInt(12);
+        return switch (kind) {
+            case 0, 1 -> {
+                List<Condition<Item>> children = new ArrayList<>();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    children.add(tree(depth - 1));
+                }
+                yield kind == 0 ? new AndCondition<>(children) : new OrCondition<>(children);
+            }
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            case 3 -> new FieldNameCondition<>("amount", new GreaterThanCondition<>(random.nextInt(10)));
+            case 4 -> new FieldNameCondition<>("amount", new BetweenCondition<>(random.nextInt(5), random.nextInt(10)));
+            case 5 -> new FieldNameCondition<>("amount", new EqualCondition<>(random.nextInt(10)));
+            // score 是基本类型，批量计算时按基本类型比较
+            case 6 -> new FieldNameCondition<>("score", new LessThanCondition<>(random.nextInt(5) - 2.0));
+            case 7 -> new FieldNameCondition<>("tag", new ContainsCondition("vip"));
+            case 8 -> new FieldNameCondition<>("tag", new NotCondition<>(new StartsWithCondition("vip")));
+            case 9 -> new FieldNameCondition<>("tag", new IsNullCondition<>());
+            case 10 -> new FieldCondition<>((Item item) -> item == null ? null : item.tag(), new EqualCondition<>("vip"));
+            default -> failing();
+        };
+    }
+
+    /**
+     * amount 为 {@link #FAILING_AMOUNT} 时抛出异常，否则判断奇偶
+     */
+    private static Condition<Item> failing() {
+        return new FieldNameCondition<>("amount", (Integer amount) -> {
+            if (amount == FAILING_AMOUNT) {
+                throw new IllegalStateException("amount " + amount);
+            }
+            return amount % 2 == 0;
+        });
+    }
+
+    public record Item(Integer amount, String tag, double score) {
+    }
+}
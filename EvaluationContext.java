@@ -0,0 +1,224 @@
+package com.au92.common.util.rule;
+
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一次求值的上下文，缓存事实对象的字段值，使同一次求值中每个字段最多读取一次。
+ * <p>
+ * 字段名在构建规则时（{@link FieldNameCondition} 设置字段名时）被分配一个全局槽位，不同规则中的同一字段得到同一个槽位，
+ * 因此多条规则共享一个上下文时（例如 {@link RuleSet}）每个字段也只读取一次。上下文用以槽位为键的开放寻址表保存字段值，
+ * 容量只与一次求值中读取的字段数有关，与全局已分配的槽位数无关；每个位置带有代数标记，开始新的求值只需递增代数，
+ * 不需要清空数组。只有作用于 {@link #getFact()} 本身的字段会被缓存。
+ * <p>
+ * 上下文不是线程安全的，{@link #open(Object)} 返回当前线程复用的实例，使用完毕后需要关闭：
+ * <pre>
+ * try (EvaluationContext context = EvaluationContext.open(user)) {
+ *     boolean vip = vipCondition.evaluate(user, context);
+ *     boolean banned = bannedCondition.evaluate(user, context);
+ * }
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public final class EvaluationContext implements AutoCloseable {
+    /**
+     * 字段名 -> 槽位
+     */
+    private static final ConcurrentHashMap<String, Integer> SLOTS = new ConcurrentHashMap<>();
+    /**
+     * 下一个槽位，不能用 SLOTS.size()：并发分配时不同字段名会看到相同的大小
+     */
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+    private static final ThreadLocal<EvaluationContext> CURRENT = ThreadLocal.withInitial(EvaluationContext::new);
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object fact;
+    /**
+     * 开放寻址表，keys[i] 只在 stamps[i] 等于当前代数时有效
+     */
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int[] stamps = new int[INITIAL_CAPACITY];
+    private int shift = Integer.SIZE - Integer.numberOfTrailingZeros(INITIAL_CAPACITY);
+    /**
+     * 当前代数，从 1 开始，0 表示空位置
+     */
+    private int generation = 1;
+    /**
+     * 本次求值写入的字段数
+     */
+    private int size;
+    private boolean open;
+
+    /**
+     * 获取字段名对应的槽位，同一字段名总是得到同一个槽位
+     *
+     * @param fieldName 字段名
+     * @return 槽位
+     */
+    public static int slot(String fieldName) {
+        Integer slot = SLOTS.get(fieldName);
+        return slot != null ? slot : SLOTS.computeIfAbsent(fieldName, k -> NEXT_SLOT.getAndIncrement());
+    }
+
+    /**
+     * 在新的上下文中计算规则
+     *
+     * @param condition 规则
+     * @param fact      事实对象
+     * @param <T>       规则适用的对象类型
+     * @return 计算结果
+     */
+    public static <T> boolean evaluate(Condition<T> condition, T fact) {
+        try (EvaluationContext context = open(fact)) {
+            return condition.evaluate(fact, context);
+        }
+    }
+
+    /**
+     * 为事实对象打开上下文，优先复用当前线程的实例；嵌套调用时返回新实例
+     *
+     * @param fact 事实对象
+     * @return 上下文
+     */
+    public static EvaluationContext open(Object fact) {
+        EvaluationContext context = CURRENT.get();
+        if (context.open) {
+            context = new EvaluationContext();
+        }
+        context.reset(fact);
+        context.open = true;
+        return context;
+    }
+
+    /**
+     * 切换到新的事实对象，之前缓存的字段值全部失效
+     *
+     * @param fact 事实对象
+     */
+    public void reset(Object fact) {
+        release();
+        this.fact = fact;
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    public Object getFact() {
+        return fact;
+    }
+
+    /**
+     * 槽位是否已有本次求值的字段值
+     */
+    public boolean contains(int slot) {
+        return find(slot) >= 0;
+    }
+
+    /**
+     * 读取槽位中的字段值，调用前需用 {@link #contains(int)} 判断
+     */
+    public Object get(int slot) {
+        int index = find(slot);
+        return index < 0 ? null : values[index];
+    }
+
+    /**
+     * 保存字段值
+     */
+    public void put(int slot, Object value) {
+        int index = find(slot);
+        if (index < 0) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            index = insertionIndex(slot);
+            keys[index] = slot;
+            stamps[index] = generation;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    @Override
+    public void close() {
+        release();
+        fact = null;
+        open = false;
+    }
+
+    /**
+     * 当前表的容量
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    private int find(int slot) {
+        int mask = keys.length - 1;
+        for (int i = hash(slot); ; i = (i + 1) & mask) {
+            if (stamps[i] != generation) {
+                return -1;
+            }
+            if (keys[i] == slot) {
+                return i;
+            }
+        }
+    }
+
+    private int insertionIndex(int slot) {
+        int mask = keys.length - 1;
+        int i = hash(slot);
+        while (stamps[i] == generation) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private int hash(int slot) {
+        return (slot * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * 容量翻倍，只保留本次求值的字段值
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldStamps = stamps;
+        int capacity = oldKeys.length * 2;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        stamps = new int[capacity];
+        shift--;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == generation) {
+                int index = insertionIndex(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                stamps[index] = generation;
+            }
+        }
+    }
+
+    /**
+     * 释放本次求值对字段值的引用
+     */
+    private void release() {
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < stamps.length; i++) {
+            if (stamps[i] == generation) {
+                values[i] = null;
+                stamps[i] = 0;
+            }
+        }
+        size = 0;
+    }
+}
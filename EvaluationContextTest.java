@@ -0,0 +1,99 @@
+package com.au92.common.util.rule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link EvaluationContext}
+ *
+ * @author p_x_c
+ */
+class EvaluationContextTest {
+
+    @Test
+    void concurrentSlotsAreDistinct() throws Exception {
+        // 槽位是全局的，测试中只分配少量字段名
+        int threads = 8;
+        int names = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int[] slots = new int[names];
+                    for (int i = 0; i < names; i++) {
+                        slots[i] = EvaluationContext.slot("concurrentSlot" + thread + "_" + i);
+                    }
+                    return slots;
+                }));
+            }
+            start.countDown();
+            Set<Integer> seen = new HashSet<>();
+            for (Future<int[]> future : futures) {
+                for (int slot : future.get()) {
+                    assertTrue(seen.add(slot), "duplicate slot " + slot);
+                }
+            }
+            assertEquals(threads * names, seen.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sameNameSameSlot() {
+        assertEquals(EvaluationContext.slot("sameNameSameSlot"), EvaluationContext.slot("sameNameSameSlot"));
+    }
+
+    @Test
+    void capacityFollowsFieldsTouched() {
+        try (EvaluationContext context = EvaluationContext.open("fact")) {
+            context.put(5_000_000, "far");
+            assertEquals(16, context.capacity());
+            for (int slot = 0; slot < 100; slot++) {
+                context.put(slot * 7919, slot);
+            }
+            assertTrue(context.contains(5_000_000));
+            assertEquals("far", context.get(5_000_000));
+            for (int slot = 0; slot < 100; slot++) {
+                assertEquals(slot, context.get(slot * 7919));
+            }
+            assertTrue(context.capacity() <= 256);
+
+            context.reset("next");
+            assertFalse(context.contains(5_000_000));
+            assertFalse(context.contains(7919));
+            context.put(7919, "again");
+            assertEquals("again", context.get(7919));
+        }
+    }
+
+    @Test
+    void contextMatchesPlainEvaluate() {
+        Fact fact = new Fact("active", "cn");
+        Condition<Fact> condition = new AndCondition<>(List.of(new FieldNameCondition<>("status", new EqualCondition<>("active")),
+                                                               new FieldNameCondition<>("region", new EqualCondition<>("cn"))));
+        assertTrue(EvaluationContext.evaluate(condition, fact));
+        assertFalse(EvaluationContext.evaluate(condition, new Fact("active", "us")));
+    }
+
+    public record Fact(String status, String region) {
+    }
+}
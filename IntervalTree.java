@@ -0,0 +1,228 @@
+package com.au92.common.util.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 区间树（中心点区间树），查找包含某个值的所有区间，用于 {@link RuleSet} 中同一字段上的范围条件。
+ * <p>
+ * 每个节点取其区间端点的中位数为中心点：完全在中心点左侧的区间进入左子树，完全在右侧的进入右子树，其余保存在节点中，
+ * 分别按下界升序、上界降序排列，并单独记录恰好包含中心点的区间。查找值 x 时：
+ * x 小于中心点时节点中区间的上界都满足，按下界顺序报告直到下界不满足，再查找左子树；大于时对称；等于时报告包含中心点的区间。
+ * 端点数每层至少减半，因此查找的开销为 O(log n + k)。
+ * <p>
+ * 端点按 {@link Comparable#compareTo(Object)} 比较，开闭与 &gt;、&gt;=、&lt;、&lt;=、BETWEEN 的实现一致；所有端点必须是同一类型，
+ * 查找值也必须是该类型。创建后不可变，可以被多个线程同时查找。
+ *
+ * @author p_x_c
+ */
+final class IntervalTree {
+    /**
+     * 下界：null（无下界）最小，值相同时闭区间在前，即越靠前的下界越宽
+     */
+    private static final Comparator<Interval> BY_LOWER = (a, b) -> {
+        if (a.lower == null || b.lower == null) {
+            return a.lower == null ? (b.lower == null ? 0 : -1) : 1;
+        }
+        int result = compare(a.lower, b.lower);
+        return result != 0 ? result : Boolean.compare(b.lowerInclusive, a.lowerInclusive);
+    };
+    /**
+     * 上界：null（无上界）在前，值大的在前，值相同时闭区间在前，即越靠前的上界越宽
+     */
+    private static final Comparator<Interval> BY_UPPER = (a, b) -> {
+        if (a.upper == null || b.upper == null) {
+            return a.upper == null ? (b.upper == null ? 0 : -1) : 1;
+        }
+        int result = compare(b.upper, a.upper);
+        return result != 0 ? result : Boolean.compare(b.upperInclusive, a.upperInclusive);
+    };
+
+    private final Class<?> type;
+    private final Node root;
+    private final int[] rules;
+
+    /**
+     * @param type      端点类型
+     * @param intervals 区间，端点为 null 表示该侧无界
+     */
+    IntervalTree(Class<?> type, List<Interval> intervals) {
+        this.type = type;
+        List<Interval> nonEmpty = new ArrayList<>(intervals.size());
+        for (Interval interval : intervals) {
+            if (!interval.isEmpty()) {
+                nonEmpty.add(interval);
+            }
+        }
+        this.root = build(nonEmpty);
+        this.rules = intervals.stream()
+                              .mapToInt(Interval::rule)
+                              .toArray();
+    }
+
+    /**
+     * 端点类型
+     *
+     * @return 类型
+     */
+    Class<?> type() {
+        return type;
+    }
+
+    /**
+     * 报告包含 value 的区间对应的规则
+     *
+     * @param value  查找值，类型必须是 {@link #type()}
+     * @param action 接收规则
+     */
+    void stab(Object value, IntConsumer action) {
+        Node node = root;
+        while (node != null) {
+            if (node.center == null) {
+                report(node.containing, action);
+                return;
+            }
+            int result = compare(value, node.center);
+            if (result < 0) {
+                for (Interval interval : node.byLower) {
+                    if (!interval.acceptsLower(value)) {
+                        break;
+                    }
+                    action.accept(interval.rule);
+                }
+                node = node.left;
+            } else if (result > 0) {
+                for (Interval interval : node.byUpper) {
+                    if (!interval.acceptsUpper(value)) {
+                        break;
+                    }
+                    action.accept(interval.rule);
+                }
+                node = node.right;
+            } else {
+                report(node.containing, action);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 报告所有区间对应的规则，查找值无法与端点比较时使用
+     *
+     * @param action 接收规则
+     */
+    void forEach(IntConsumer action) {
+        report(rules, action);
+    }
+
+    private static void report(int[] rules, IntConsumer action) {
+        for (int rule : rules) {
+            action.accept(rule);
+        }
+    }
+
+    private static Node build(List<Interval> intervals) {
+        if (intervals.isEmpty()) {
+            return null;
+        }
+        List<Object> endpoints = new ArrayList<>(intervals.size() * 2);
+        for (Interval interval : intervals) {
+            if (interval.lower != null) {
+                endpoints.add(interval.lower);
+            }
+            if (interval.upper != null) {
+                endpoints.add(interval.upper);
+            }
+        }
+        Node node = new Node();
+        if (endpoints.isEmpty()) {
+            // 只剩两侧都无界的区间
+            node.containing = intervals.stream()
+                                       .mapToInt(Interval::rule)
+                                       .toArray();
+            return node;
+        }
+        endpoints.sort(IntervalTree::compare);
+        Object center = endpoints.get(endpoints.size() / 2);
+        List<Interval> left = new ArrayList<>();
+        List<Interval> right = new ArrayList<>();
+        List<Interval> overlapping = new ArrayList<>();
+        for (Interval interval : intervals) {
+            if (interval.upper != null && compare(interval.upper, center) < 0) {
+                left.add(interval);
+            } else if (interval.lower != null && compare(interval.lower, center) > 0) {
+                right.add(interval);
+            } else {
+                overlapping.add(interval);
+            }
+        }
+        node.center = center;
+        node.byLower = overlapping.toArray(new Interval[0]);
+        Arrays.sort(node.byLower, BY_LOWER);
+        node.byUpper = overlapping.toArray(new Interval[0]);
+        Arrays.sort(node.byUpper, BY_UPPER);
+        node.containing = overlapping.stream()
+                                     .filter(interval -> interval.acceptsLower(center) && interval.acceptsUpper(center))
+                                     .mapToInt(Interval::rule)
+                                     .toArray();
+        node.left = build(left);
+        node.right = build(right);
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * 区间
+     *
+     * @param lower          下界，null 表示无下界
+     * @param lowerInclusive 是否包含下界
+     * @param upper          上界，null 表示无上界
+     * @param upperInclusive 是否包含上界
+     * @param rule           规则
+     */
+    record Interval(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive, int rule) {
+
+        boolean acceptsLower(Object value) {
+            if (lower == null) {
+                return true;
+            }
+            int result = compare(value, lower);
+            return lowerInclusive ? result >= 0 : result > 0;
+        }
+
+        boolean acceptsUpper(Object value) {
+            if (upper == null) {
+                return true;
+            }
+            int result = compare(value, upper);
+            return upperInclusive ? result <= 0 : result < 0;
+        }
+
+        /**
+         * 不包含任何值
+         */
+        boolean isEmpty() {
+            if (lower == null || upper == null) {
+                return false;
+            }
+            int result = compare(lower, upper);
+            return result > 0 || (result == 0 && !(lowerInclusive && upperInclusive));
+        }
+    }
+
+    private static final class Node {
+        private Object center;
+        private Interval[] byLower;
+        private Interval[] byUpper;
+        private int[] containing;
+        private Node left;
+        private Node right;
+    }
+}
@@ -80,6 +80,18 @@ public class RuleBuilder<T> {
         return finalConditions.size() == 1 ? finalConditions.getFirst() : new AndCondition<>(finalConditions);
     }
 
+    /**
+     * 构建最终的规则条件，并可选地交给 {@link RuleOptimizer} 化简。
+     *
+     * @param optimize 是否优化
+     * @return 构建的规则条件
+     * @throws IllegalStateException 如果逻辑块未正确结束或栈状态不平衡
+     */
+    public Condition<T> build(boolean optimize) {
+        Condition<T> condition = build();
+        return optimize ? RuleOptimizer.optimize(condition) : condition;
+    }
+
     /**
      * 添加一个字段条件到当前逻辑块。
      *
@@ -0,0 +1,394 @@
+package com.au92.common.util.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * 批量规则执行器，把一条规则并行应用到大量对象上。
+ * <p>
+ * 对象被划分为若干段交给 {@link ForkJoinPool} 计算，每段的大小按 "对象数 / (并行度 × 4)" 自适应，且不小于 {@link #MIN_CHUNK}，
+ * 对象数不超过一段时直接在调用线程上计算。每一段在同一个 {@link EvaluationContext} 中逐个计算，上下文按线程复用，不为每个对象分配。
+ * <p>
+ * {@link RandomAccess} 列表和数组按下标划分，计算结果先写入位图，再按顺序收集；{@link Spliterator} 通过 trySplit 划分，
+ * 各段的结果按划分顺序拼接。filter / partition 的结果始终保持输入的迭代顺序。
+ * <p>
+ * 内置条件在构建完成后可以被多个线程同时计算（见 {@link Condition}），计算期间不能修改规则树。
+ *
+ * <pre>
+ * RuleEngine engine = new RuleEngine(new ForkJoinPool(8));
+ * List&lt;User&gt; vip = engine.filter(vipCondition, users);
+ * long banned = engine.count(bannedCondition, users);
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class RuleEngine {
+    /**
+     * 每段的最少对象数，按下标划分时向上取整为 64 的倍数，使每段独占位图中的 long
+     */
+    public static final int MIN_CHUNK = 1024;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * 使用公共线程池
+     */
+    public RuleEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool 计算使用的线程池
+     */
+    public RuleEngine(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    /**
+     * 筛选满足条件的对象
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足条件的对象，保持原有顺序
+     */
+    public <T> List<T> filter(Condition<? super T> condition, List<T> values) {
+        if (!(values instanceof RandomAccess)) {
+            return filter(condition, values.spliterator());
+        }
+        long[] words = new long[wordCount(values.size())];
+        int count = (int) mark(condition, values::get, values.size(), words);
+        List<T> matched = new ArrayList<>(count);
+        forEachBit(words, true, values.size(), i -> matched.add(values.get(i)));
+        return matched;
+    }
+
+    /**
+     * 筛选满足条件的对象
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足条件的对象，保持原有顺序
+     */
+    public <T> T[] filter(Condition<? super T> condition, T[] values) {
+        long[] words = new long[wordCount(values.length)];
+        int count = (int) mark(condition, i -> values[i], values.length, words);
+        T[] matched = Arrays.copyOf(values, count);
+        int[] next = new int[1];
+        forEachBit(words, true, values.length, i -> matched[next[0]++] = values[i]);
+        return matched;
+    }
+
+    /**
+     * 筛选满足条件的对象
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足条件的对象，保持 spliterator 的迭代顺序
+     */
+    public <T> List<T> filter(Condition<? super T> condition, Spliterator<T> values) {
+        SplitTask<T> task = split(condition, values, Mode.FILTER);
+        List<T> matched = new ArrayList<>((int) Math.min(task.count, Integer.MAX_VALUE));
+        task.drain(matched, null);
+        return matched;
+    }
+
+    /**
+     * 按是否满足条件划分对象
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足与不满足条件的对象，各自保持原有顺序
+     */
+    public <T> Partition<T> partition(Condition<? super T> condition, List<T> values) {
+        if (!(values instanceof RandomAccess)) {
+            return partition(condition, values.spliterator());
+        }
+        return partition(condition, values::get, values.size());
+    }
+
+    /**
+     * 按是否满足条件划分对象
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足与不满足条件的对象，各自保持原有顺序
+     */
+    public <T> Partition<T> partition(Condition<? super T> condition, T[] values) {
+        return partition(condition, i -> values[i], values.length);
+    }
+
+    /**
+     * 按是否满足条件划分对象
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足与不满足条件的对象，各自保持 spliterator 的迭代顺序
+     */
+    public <T> Partition<T> partition(Condition<? super T> condition, Spliterator<T> values) {
+        SplitTask<T> task = split(condition, values, Mode.PARTITION);
+        List<T> matched = new ArrayList<>((int) Math.min(task.count, Integer.MAX_VALUE));
+        List<T> unmatched = new ArrayList<>();
+        task.drain(matched, unmatched);
+        return new Partition<>(matched, unmatched);
+    }
+
+    /**
+     * 统计满足条件的对象数
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足条件的对象数
+     */
+    public <T> long count(Condition<? super T> condition, List<T> values) {
+        if (!(values instanceof RandomAccess)) {
+            return count(condition, values.spliterator());
+        }
+        return mark(condition, values::get, values.size(), null);
+    }
+
+    /**
+     * 统计满足条件的对象数
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足条件的对象数
+     */
+    public <T> long count(Condition<? super T> condition, T[] values) {
+        return mark(condition, i -> values[i], values.length, null);
+    }
+
+    /**
+     * 统计满足条件的对象数
+     *
+     * @param condition 规则
+     * @param values    对象
+     * @param <T>       对象类型
+     * @return 满足条件的对象数
+     */
+    public <T> long count(Condition<? super T> condition, Spliterator<T> values) {
+        return split(condition, values, Mode.COUNT).count;
+    }
+
+    private <T> Partition<T> partition(Condition<? super T> condition, IntFunction<T> values, int size) {
+        long[] words = new long[wordCount(size)];
+        int count = (int) mark(condition, values, size, words);
+        List<T> matched = new ArrayList<>(count);
+        List<T> unmatched = new ArrayList<>(size - count);
+        forEachBit(words, true, size, i -> matched.add(values.apply(i)));
+        forEachBit(words, false, size, i -> unmatched.add(values.apply(i)));
+        return new Partition<>(matched, unmatched);
+    }
+
+    /**
+     * 计算所有对象，满足条件的下标写入 words（为 null 时只计数）
+     *
+     * @return 满足条件的对象数
+     */
+    private <T> long mark(Condition<? super T> condition, IntFunction<T> values, int size, long[] words) {
+        Objects.requireNonNull(condition, "condition");
+        long chunk = Math.max(MIN_CHUNK, size / ((long) pool.getParallelism() * 4));
+        int aligned = (int) Math.min(Integer.MAX_VALUE - 63, (chunk + 63) & ~63L);
+        MarkTask<T> task = new MarkTask<>(condition, values, words, 0, size, aligned);
+        return size <= aligned ? task.compute() : pool.invoke(task);
+    }
+
+    private <T> SplitTask<T> split(Condition<? super T> condition, Spliterator<T> values, Mode mode) {
+        Objects.requireNonNull(condition, "condition");
+        long size = values.estimateSize();
+        long threshold = Math.max(MIN_CHUNK, size / ((long) pool.getParallelism() * 4));
+        SplitTask<T> task = new SplitTask<>(condition, values, mode, threshold);
+        if (size <= threshold) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return task;
+    }
+
+    private static int wordCount(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * 按顺序访问位图中值为 set 的下标
+     */
+    private static void forEachBit(long[] words, boolean set, int size, IntConsumer action) {
+        for (int w = 0; w < words.length; w++) {
+            long word = set ? words[w] : ~words[w];
+            while (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (index >= size) {
+                    return;
+                }
+                action.accept(index);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * 满足与不满足条件的对象
+     *
+     * @param matched   满足条件的对象
+     * @param unmatched 不满足条件的对象
+     */
+    public record Partition<T>(List<T> matched, List<T> unmatched) {
+    }
+
+    private enum Mode {
+        COUNT,
+        FILTER,
+        PARTITION
+    }
+
+    /**
+     * 按下标二分的任务，分段边界对齐到 64，不同的段不会写入同一个 long
+     */
+    private static final class MarkTask<T> extends RecursiveTask<Long> {
+        private final Condition<? super T> condition;
+        private final IntFunction<T> values;
+        private final long[] words;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        MarkTask(Condition<? super T> condition, IntFunction<T> values, long[] words, int from, int to, int chunk) {
+            this.condition = condition;
+            this.values = values;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > chunk) {
+                int middle = (from + (to - from) / 2) & ~63;
+                if (middle > from) {
+                    MarkTask<T> left = new MarkTask<>(condition, values, words, from, middle, chunk);
+                    left.fork();
+                    long right = new MarkTask<>(condition, values, words, middle, to, chunk).compute();
+                    return left.join() + right;
+                }
+            }
+            long count = 0;
+            try (EvaluationContext context = EvaluationContext.open(null)) {
+                for (int i = from; i < to; i++) {
+                    T value = values.apply(i);
+                    context.reset(value);
+                    if (condition.evaluate(value, context)) {
+                        count++;
+                        if (words != null) {
+                            words[i >>> 6] |= 1L << i;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 通过 trySplit 划分的任务。
+     * <p>
+     * 每次划分出的前缀交给新任务，剩余部分继续在当前任务中划分，parts 按迭代顺序保存这些子任务，最后一段由当前任务自己计算。
+     */
+    private static final class SplitTask<T> extends RecursiveAction {
+        private final Condition<? super T> condition;
+        private final Mode mode;
+        private final long threshold;
+        private Spliterator<T> spliterator;
+        private List<SplitTask<T>> parts;
+        private List<T> matched;
+        private List<T> unmatched;
+        private long count;
+
+        SplitTask(Condition<? super T> condition, Spliterator<T> spliterator, Mode mode, long threshold) {
+            this.condition = condition;
+            this.spliterator = spliterator;
+            this.mode = mode;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<T> rest = spliterator;
+            spliterator = null;
+            Spliterator<T> prefix;
+            while (rest.estimateSize() > threshold && (prefix = rest.trySplit()) != null) {
+                SplitTask<T> part = new SplitTask<>(condition, prefix, mode, threshold);
+                part.fork();
+                if (parts == null) {
+                    parts = new ArrayList<>();
+                }
+                parts.add(part);
+            }
+            evaluate(rest);
+            if (parts != null) {
+                for (SplitTask<T> part : parts) {
+                    part.join();
+                    count += part.count;
+                }
+            }
+        }
+
+        private void evaluate(Spliterator<T> values) {
+            if (mode != Mode.COUNT) {
+                matched = new ArrayList<>();
+            }
+            if (mode == Mode.PARTITION) {
+                unmatched = new ArrayList<>();
+            }
+            try (EvaluationContext context = EvaluationContext.open(null)) {
+                values.forEachRemaining(value -> {
+                    context.reset(value);
+                    if (condition.evaluate(value, context)) {
+                        count++;
+                        if (matched != null) {
+                            matched.add(value);
+                        }
+                    } else if (unmatched != null) {
+                        unmatched.add(value);
+                    }
+                });
+            }
+        }
+
+        /**
+         * 按迭代顺序收集结果：先是划分出的各段，最后是当前任务自己计算的一段
+         */
+        void drain(List<T> matchedOut, List<T> unmatchedOut) {
+            if (parts != null) {
+                for (SplitTask<T> part : parts) {
+                    part.drain(matchedOut, unmatchedOut);
+                }
+            }
+            if (matched != null) {
+                matchedOut.addAll(matched);
+                matched = null;
+            }
+            if (unmatchedOut != null && unmatched != null) {
+                unmatchedOut.addAll(unmatched);
+                unmatched = null;
+            }
+        }
+    }
+}
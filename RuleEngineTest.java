@@ -0,0 +1,91 @@
+package com.au92.common.util.rule;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link RuleEngine} 的并行结果与逐个计算相同，并保持输入顺序
+ *
+ * @author p_x_c
+ */
+class RuleEngineTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(3);
+    private static final int[] SIZES = {0, 1, 63, 64, 65, RuleEngine.MIN_CHUNK - 1, RuleEngine.MIN_CHUNK, RuleEngine.MIN_CHUNK + 1,
+            RuleEngine.MIN_CHUNK * 2 + 63, 50_000};
+    private static final Condition<Integer> RULE = value -> Integer.bitCount(value * 0x9E3779B9) % 3 == 0;
+
+    private final RuleEngine engine = new RuleEngine(POOL);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void sameResultsAsSerialFilter() {
+        for (int size : SIZES) {
+            List<Integer> values = values(size);
+            List<Integer> matched = new ArrayList<>();
+            List<Integer> unmatched = new ArrayList<>();
+            for (Integer value : values) {
+                (RULE.evaluate(value) ? matched : unmatched).add(value);
+            }
+            String message = "size " + size;
+
+            assertEquals(matched, engine.filter(RULE, values), message);
+            assertEquals(matched, engine.filter(RULE, new LinkedList<>(values)), message);
+            assertArrayEquals(matched.toArray(new Integer[0]), engine.filter(RULE, values.toArray(new Integer[0])), message);
+            assertEquals(matched, engine.filter(RULE, unsized(values)), message);
+
+            RuleEngine.Partition<Integer> expected = new RuleEngine.Partition<>(matched, unmatched);
+            assertEquals(expected, engine.partition(RULE, values), message);
+            assertEquals(expected, engine.partition(RULE, values.toArray(new Integer[0])), message);
+            assertEquals(expected, engine.partition(RULE, unsized(values)), message);
+
+            assertEquals(matched.size(), engine.count(RULE, values), message);
+            assertEquals(matched.size(), engine.count(RULE, values.toArray(new Integer[0])), message);
+            assertEquals(matched.size(), engine.count(RULE, unsized(values)), message);
+        }
+    }
+
+    @Test
+    void exceptionPropagates() {
+        Condition<Integer> failing = value -> {
+            if (value == 40_000) {
+                throw new IllegalStateException("bad value");
+            }
+            return true;
+        };
+        List<Integer> values = values(50_000);
+        assertThrows(IllegalStateException.class, () -> engine.filter(failing, values));
+        assertThrows(IllegalStateException.class, () -> engine.count(failing, values.toArray(new Integer[0])));
+        assertThrows(IllegalStateException.class, () -> engine.partition(failing, unsized(values)));
+        // 只有一段时在调用线程上计算
+        assertThrows(IllegalStateException.class, () -> engine.filter(failing, List.of(40_000)));
+    }
+
+    private static List<Integer> values(int size) {
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    /**
+     * 大小未知的 spliterator，按迭代器分批划分
+     */
+    private static Spliterator<Integer> unsized(List<Integer> values) {
+        return Spliterators.spliteratorUnknownSize(values.iterator(), Spliterator.ORDERED);
+    }
+}
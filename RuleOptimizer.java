@@ -0,0 +1,540 @@
+package com.au92.common.util.rule;
+
+import com.au92.common.util.json.JsonUtils;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 规则优化器，在求值前化简规则树：
+ * <ul>
+ *     <li>展开嵌套的 AND / OR，去掉只有一个子条件的 AND / OR</li>
+ *     <li>按德摩根定律把 NOT 下推到叶子，能直接取反的叶子替换为对应的否定条件（如 == 与 !=、&gt; 与 &lt;=）</li>
+ *     <li>去掉重复的子条件，同一 AND / OR 中同一字段的多个 {@link FieldNameCondition} 合并为一个，字段只读取一次</li>
+ *     <li>同一字段上的范围条件取交集，上下界都是闭区间时合并为 {@link BetweenCondition}</li>
+ *     <li>识别恒为 true / false 的子树（如空区间、x AND NOT x、a == 1 AND a == 2）并折叠</li>
+ * </ul>
+ * 常量 true 用空的 {@link AndCondition} 表示，常量 false 用空的 {@link OrCondition} 表示。
+ * <p>
+ * 优化假定条件没有副作用：子条件的求值顺序可能改变；原规则在字段值为 null 时因比较而抛出异常的部分，被判定为恒 false 后不再抛出。
+ * 由于 {@link FieldNameCondition} 在对象为 null 时返回 false，NOT 不会被下推到其内部。原规则不会被修改。
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class RuleOptimizer {
+
+    /**
+     * 优化规则
+     *
+     * @param condition 规则
+     * @param <T>       规则适用的对象类型
+     * @return 优化后的规则
+     */
+    public static <T> Condition<T> optimize(Condition<T> condition) {
+        return simplify(condition);
+    }
+
+    /**
+     * 从 JSON 加载规则并优化
+     *
+     * @param json 规则 JSON
+     * @param <T>  规则适用的对象类型
+     * @return 优化后的规则
+     */
+    public static <T> Condition<T> fromJson(String json) {
+        return optimize((Condition<T>) JsonUtils.toObject(json, Condition.class));
+    }
+
+    private static Condition simplify(Condition node) {
+        if (node == null) {
+            return null;
+        }
+        Class<?> type = node.getClass();
+        if (type == AndCondition.class && ((AndCondition) node).getConditions() != null) {
+            AndCondition and = (AndCondition) node;
+            return combine(simplify((List<Condition>) and.getConditions()), true, and.isAdaptive());
+        }
+        if (type == OrCondition.class && ((OrCondition) node).getConditions() != null) {
+            OrCondition or = (OrCondition) node;
+            return combine(simplify((List<Condition>) or.getConditions()), false, or.isAdaptive());
+        }
+        if (type == NotCondition.class && ((NotCondition) node).getCondition() != null) {
+            return negate(simplify(((NotCondition) node).getCondition()));
+        }
+        if (type == FieldNameCondition.class && ((FieldNameCondition) node).getInnerCondition() != null) {
+            FieldNameCondition field = (FieldNameCondition) node;
+            Condition inner = simplify(field.getInnerCondition());
+            if (isFalse(inner)) {
+                return constant(false);
+            }
+            return inner == field.getInnerCondition() ? node : new FieldNameCondition(field.getFieldName(), inner);
+        }
+        if (type == FieldCondition.class && ((FieldCondition) node).getCondition() != null) {
+            FieldCondition field = (FieldCondition) node;
+            Condition inner = simplify(field.getCondition());
+            return inner == field.getCondition() ? node : new FieldCondition(field.getGetter(), inner);
+        }
+        return node;
+    }
+
+    private static List<Condition> simplify(List<Condition> children) {
+        List<Condition> simplified = new ArrayList<>(children.size());
+        for (Condition child : children) {
+            simplified.add(simplify(child));
+        }
+        return simplified;
+    }
+
+    /**
+     * 对已化简的条件取反
+     */
+    private static Condition negate(Condition node) {
+        if (isTrue(node)) {
+            return constant(false);
+        }
+        if (isFalse(node)) {
+            return constant(true);
+        }
+        Class<?> type = node == null ? null : node.getClass();
+        if (type == NotCondition.class && ((NotCondition) node).getCondition() != null) {
+            return ((NotCondition) node).getCondition();
+        }
+        if (type == AndCondition.class && ((AndCondition) node).getConditions() != null) {
+            AndCondition and = (AndCondition) node;
+            return combine(negate((List<Condition>) and.getConditions()), false, and.isAdaptive());
+        }
+        if (type == OrCondition.class && ((OrCondition) node).getConditions() != null) {
+            OrCondition or = (OrCondition) node;
+            return combine(negate((List<Condition>) or.getConditions()), true, or.isAdaptive());
+        }
+        if (type == FieldCondition.class && ((FieldCondition) node).getCondition() != null) {
+            // getter 的结果直接交给内部条件，取反可以下推
+            FieldCondition field = (FieldCondition) node;
+            return new FieldCondition(field.getGetter(), negate(field.getCondition()));
+        }
+        Condition complement = complement(node);
+        return complement != null ? complement : new NotCondition(node);
+    }
+
+    private static List<Condition> negate(List<Condition> children) {
+        List<Condition> negated = new ArrayList<>(children.size());
+        for (Condition child : children) {
+            negated.add(negate(child));
+        }
+        return negated;
+    }
+
+    /**
+     * 叶子条件的否定形式，没有时返回 null
+     */
+    private static Condition complement(Condition node) {
+        Class<?> type = node == null ? null : node.getClass();
+        if (type == EqualCondition.class) {
+            return new NotEqualCondition(((EqualCondition) node).getTarget());
+        } else if (type == NotEqualCondition.class) {
+            return new EqualCondition(((NotEqualCondition) node).getTarget());
+        } else if (type == GreaterThanCondition.class) {
+            return new LessThanOrEqualCondition(((GreaterThanCondition) node).getThreshold());
+        } else if (type == GreaterThanOrEqualCondition.class) {
+            return new LessThanCondition(((GreaterThanOrEqualCondition) node).getThreshold());
+        } else if (type == LessThanCondition.class) {
+            return new GreaterThanOrEqualCondition(((LessThanCondition) node).getThreshold());
+        } else if (type == LessThanOrEqualCondition.class) {
+            return new GreaterThanCondition(((LessThanOrEqualCondition) node).getThreshold());
+        } else if (type == ContainsCondition.class) {
+            return new NotContainsCondition(((ContainsCondition) node).getKeyword());
+        } else if (type == NotContainsCondition.class) {
+            return new ContainsCondition(((NotContainsCondition) node).getKeyword());
+        } else if (type == StartsWithCondition.class) {
+            return new NotStartsWithCondition(((StartsWithCondition) node).getPrefix());
+        } else if (type == NotStartsWithCondition.class) {
+            return new StartsWithCondition(((NotStartsWithCondition) node).getPrefix());
+        } else if (type == EndsWithCondition.class) {
+            return new NotEndsWithCondition(((EndsWithCondition) node).getSuffix());
+        } else if (type == NotEndsWithCondition.class) {
+            return new EndsWithCondition(((NotEndsWithCondition) node).getSuffix());
+        } else if (type == IsNullCondition.class) {
+            return new IsNotNullCondition();
+        } else if (type == IsNotNullCondition.class) {
+            return new IsNullCondition();
+        }
+        return null;
+    }
+
+    /**
+     * 组合已化简的子条件，isAnd 为 true 时组合为 AND，否则为 OR
+     */
+    private static Condition combine(List<Condition> children, boolean isAnd, boolean adaptive) {
+        // AND 中 true 可以忽略、false 决定结果，OR 相反
+        List<Condition> flat = new ArrayList<>();
+        if (!flatten(children, isAnd, adaptive, flat)) {
+            return constant(!isAnd);
+        }
+
+        List<Condition> merged = mergeFields(flat, isAnd);
+        if (merged == null) {
+            return constant(!isAnd);
+        }
+        if (isAnd && !intersect(merged)) {
+            return constant(false);
+        }
+
+        // 去重，同时检查是否同时包含 x 与 NOT x
+        List<Condition> result = new ArrayList<>(merged.size());
+        Set<Object> keys = new HashSet<>();
+        for (Condition child : merged) {
+            Object key = key(child);
+            if (key == null || keys.add(key)) {
+                result.add(child);
+            }
+        }
+        for (Condition child : result) {
+            Object negated = key(negate(child));
+            if (negated != null && keys.contains(negated)) {
+                return constant(!isAnd);
+            }
+        }
+
+        if (result.size() == 1) {
+            return result.get(0);
+        }
+        if (result.isEmpty()) {
+            return constant(isAnd);
+        }
+        if (isAnd) {
+            AndCondition and = new AndCondition(result);
+            and.setAdaptive(adaptive);
+            return and;
+        }
+        OrCondition or = new OrCondition(result);
+        or.setAdaptive(adaptive);
+        return or;
+    }
+
+    /**
+     * 展开同类组合并去掉单位元常量，遇到零元常量时返回 false
+     */
+    private static boolean flatten(List<Condition> children, boolean isAnd, boolean adaptive, List<Condition> out) {
+        for (Condition child : children) {
+            if (isAnd ? isTrue(child) : isFalse(child)) {
+                continue;
+            }
+            if (isAnd ? isFalse(child) : isTrue(child)) {
+                return false;
+            }
+            Class<?> type = child == null ? null : child.getClass();
+            if (isAnd && type == AndCondition.class && ((AndCondition) child).getConditions() != null
+                    && ((AndCondition) child).isAdaptive() == adaptive) {
+                if (!flatten(((AndCondition) child).getConditions(), true, adaptive, out)) {
+                    return false;
+                }
+            } else if (!isAnd && type == OrCondition.class && ((OrCondition) child).getConditions() != null
+                    && ((OrCondition) child).isAdaptive() == adaptive) {
+                if (!flatten(((OrCondition) child).getConditions(), false, adaptive, out)) {
+                    return false;
+                }
+            } else {
+                out.add(child);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 同一字段的多个 {@link FieldNameCondition} 合并为一个，内部条件按同样的方式组合；
+     * 对象为 null 时两种写法都为 false，因此结果不变。合并结果为零元常量时返回 null
+     */
+    private static List<Condition> mergeFields(List<Condition> children, boolean isAnd) {
+        Map<String, List<Condition>> fields = new LinkedHashMap<>();
+        for (Condition child : children) {
+            if (child != null && child.getClass() == FieldNameCondition.class
+                    && ((FieldNameCondition) child).getFieldName() != null
+                    && ((FieldNameCondition) child).getInnerCondition() != null) {
+                fields.computeIfAbsent(((FieldNameCondition) child).getFieldName(), k -> new ArrayList<>())
+                      .add(((FieldNameCondition) child).getInnerCondition());
+            }
+        }
+        if (fields.values()
+                  .stream()
+                  .allMatch(inners -> inners.size() == 1)) {
+            return children;
+        }
+        List<Condition> merged = new ArrayList<>(children.size());
+        for (Condition child : children) {
+            if (child == null || child.getClass() != FieldNameCondition.class) {
+                merged.add(child);
+                continue;
+            }
+            String fieldName = ((FieldNameCondition) child).getFieldName();
+            List<Condition> inners = fields.remove(fieldName);
+            if (inners == null) {
+                // 已合并到该字段第一次出现的位置
+                continue;
+            }
+            if (inners.size() == 1) {
+                merged.add(child);
+                continue;
+            }
+            Condition inner = combine(inners, isAnd, false);
+            if (isFalse(inner)) {
+                if (isAnd) {
+                    return null;
+                }
+                continue;
+            }
+            merged.add(new FieldNameCondition(fieldName, inner));
+        }
+        return merged;
+    }
+
+    /**
+     * AND 中同一值上的范围与等值条件取交集，原地替换为最紧的边界；结果恒为 false 时返回 false
+     */
+    private static boolean intersect(List<Condition> children) {
+        Class<?> boundType = null;
+        Comparable lower = null;
+        boolean lowerInclusive = false;
+        Comparable upper = null;
+        boolean upperInclusive = false;
+        int first = -1;
+        int count = 0;
+        Object equal = null;
+        boolean hasEqual = false;
+        boolean isNull = false;
+        boolean isNotNull = false;
+        for (int i = 0; i < children.size(); i++) {
+            Condition child = children.get(i);
+            Class<?> type = child == null ? null : child.getClass();
+            if (type == EqualCondition.class) {
+                Object target = ((EqualCondition) child).getTarget();
+                if (hasEqual && !Objects.equals(equal, target)) {
+                    return false;
+                }
+                hasEqual = true;
+                equal = target;
+                continue;
+            }
+            isNull |= type == IsNullCondition.class;
+            isNotNull |= type == IsNotNullCondition.class;
+            Bound bound = Bound.of(child);
+            if (bound == null || (boundType != null && bound.type() != boundType)) {
+                continue;
+            }
+            boundType = bound.type();
+            if (bound.lower() != null) {
+                int c = lower == null ? 1 : bound.lower()
+                                                 .compareTo(lower);
+                if (c > 0 || (c == 0 && !bound.lowerInclusive())) {
+                    lower = bound.lower();
+                    lowerInclusive = bound.lowerInclusive();
+                }
+            }
+            if (bound.upper() != null) {
+                int c = upper == null ? -1 : bound.upper()
+                                                  .compareTo(upper);
+                if (c < 0 || (c == 0 && !bound.upperInclusive())) {
+                    upper = bound.upper();
+                    upperInclusive = bound.upperInclusive();
+                }
+            }
+            first = first < 0 ? i : first;
+            count++;
+        }
+        if ((isNull && isNotNull) || (hasEqual && (equal == null ? isNotNull : isNull))) {
+            return false;
+        }
+        if (lower != null && upper != null) {
+            int c = lower.compareTo(upper);
+            if (c > 0 || (c == 0 && !(lowerInclusive && upperInclusive))) {
+                return false;
+            }
+        }
+        if (hasEqual && equal != null && equal.getClass() == boundType) {
+            Comparable value = (Comparable) equal;
+            if ((lower != null && (lowerInclusive ? value.compareTo(lower) < 0 : value.compareTo(lower) <= 0))
+                    || (upper != null && (upperInclusive ? value.compareTo(upper) > 0 : value.compareTo(upper) >= 0))) {
+                return false;
+            }
+        }
+        if (count < 2) {
+            return true;
+        }
+
+        List<Condition> bounds = new ArrayList<>(2);
+        if (lower != null && upper != null && lowerInclusive && upperInclusive) {
+            bounds.add(new BetweenCondition(lower, upper));
+        } else {
+            if (lower != null) {
+                bounds.add(lowerInclusive ? new GreaterThanOrEqualCondition(lower) : new GreaterThanCondition(lower));
+            }
+            if (upper != null) {
+                bounds.add(upperInclusive ? new LessThanOrEqualCondition(upper) : new LessThanCondition(upper));
+            }
+        }
+        List<Condition> rewritten = new ArrayList<>(children.size());
+        for (int i = 0; i < children.size(); i++) {
+            Bound bound = Bound.of(children.get(i));
+            if (i == first) {
+                rewritten.addAll(bounds);
+            } else if (bound == null || bound.type() != boundType) {
+                rewritten.add(children.get(i));
+            }
+        }
+        children.clear();
+        children.addAll(rewritten);
+        return true;
+    }
+
+    /**
+     * 结构化的比较键，结构相同的条件键相等；无法比较的条件返回 null
+     */
+    private static Object key(Condition node) {
+        Class<?> type = node == null ? null : node.getClass();
+        if (type == AndCondition.class || type == OrCondition.class) {
+            List<Condition> children = type == AndCondition.class ? ((AndCondition) node).getConditions() : ((OrCondition) node).getConditions();
+            if (children == null) {
+                return null;
+            }
+            List<Object> keys = new ArrayList<>(children.size() + 1);
+            keys.add(type);
+            for (Condition child : children) {
+                Object key = key(child);
+                if (key == null) {
+                    return null;
+                }
+                keys.add(key);
+            }
+            return keys;
+        }
+        if (type == NotCondition.class) {
+            Object key = key(((NotCondition) node).getCondition());
+            return key == null ? null : Arrays.asList(type, key);
+        }
+        if (type == FieldNameCondition.class) {
+            Object key = key(((FieldNameCondition) node).getInnerCondition());
+            return key == null ? null : Arrays.asList(type, ((FieldNameCondition) node).getFieldName(), key);
+        }
+        if (type == FieldCondition.class) {
+            Object key = key(((FieldCondition) node).getCondition());
+            return key == null ? null : Arrays.asList(type, ((FieldCondition) node).getGetter(), key);
+        }
+        if (type == BetweenCondition.class) {
+            return Arrays.asList(type, ((BetweenCondition) node).getMin(), ((BetweenCondition) node).getMax());
+        }
+        if (type == IsNullCondition.class || type == IsNotNullCondition.class) {
+            return List.of(type);
+        }
+        Object operand = operand(node);
+        return operand == null && complement(node) == null ? null : Arrays.asList(type, operand);
+    }
+
+    /**
+     * 单参数叶子条件的参数
+     */
+    private static Object operand(Condition node) {
+        Class<?> type = node.getClass();
+        if (type == EqualCondition.class) {
+            return ((EqualCondition) node).getTarget();
+        } else if (type == NotEqualCondition.class) {
+            return ((NotEqualCondition) node).getTarget();
+        } else if (type == GreaterThanCondition.class) {
+            return ((GreaterThanCondition) node).getThreshold();
+        } else if (type == GreaterThanOrEqualCondition.class) {
+            return ((GreaterThanOrEqualCondition) node).getThreshold();
+        } else if (type == LessThanCondition.class) {
+            return ((LessThanCondition) node).getThreshold();
+        } else if (type == LessThanOrEqualCondition.class) {
+            return ((LessThanOrEqualCondition) node).getThreshold();
+        } else if (type == ContainsCondition.class) {
+            return ((ContainsCondition) node).getKeyword();
+        } else if (type == NotContainsCondition.class) {
+            return ((NotContainsCondition) node).getKeyword();
+        } else if (type == StartsWithCondition.class) {
+            return ((StartsWithCondition) node).getPrefix();
+        } else if (type == NotStartsWithCondition.class) {
+            return ((NotStartsWithCondition) node).getPrefix();
+        } else if (type == EndsWithCondition.class) {
+            return ((EndsWithCondition) node).getSuffix();
+        } else if (type == NotEndsWithCondition.class) {
+            return ((NotEndsWithCondition) node).getSuffix();
+        }
+        return null;
+    }
+
+    private static Condition constant(boolean value) {
+        return value ? new AndCondition<>(new ArrayList<>()) : new OrCondition<>(new ArrayList<>());
+    }
+
+    private static boolean isTrue(Condition node) {
+        return node != null && node.getClass() == AndCondition.class && ((AndCondition) node).getConditions() != null
+                && ((AndCondition) node).getConditions()
+                                        .isEmpty();
+    }
+
+    private static boolean isFalse(Condition node) {
+        return node != null && node.getClass() == OrCondition.class && ((OrCondition) node).getConditions() != null
+                && ((OrCondition) node).getConditions()
+                                       .isEmpty();
+    }
+
+    /**
+     * 范围条件的上下界，null 表示无界；type 为边界值的类型，只有同一类型的边界之间才会比较
+     */
+    private record Bound(Class<?> type, Comparable lower, boolean lowerInclusive, Comparable upper, boolean upperInclusive) {
+        static Bound of(Condition node) {
+            Class<?> type = node == null ? null : node.getClass();
+            if (type == GreaterThanCondition.class) {
+                return single(((GreaterThanCondition) node).getThreshold(), true, false);
+            } else if (type == GreaterThanOrEqualCondition.class) {
+                return single(((GreaterThanOrEqualCondition) node).getThreshold(), true, true);
+            } else if (type == LessThanCondition.class) {
+                return single(((LessThanCondition) node).getThreshold(), false, false);
+            } else if (type == LessThanOrEqualCondition.class) {
+                return single(((LessThanOrEqualCondition) node).getThreshold(), false, true);
+            } else if (type == BetweenCondition.class) {
+                Comparable min = ((BetweenCondition) node).getMin();
+                Comparable max = ((BetweenCondition) node).getMax();
+                if (min != null && max != null && min.getClass() == max.getClass()) {
+                    return new Bound(min.getClass(), min, true, max, true);
+                }
+            }
+            return null;
+        }
+
+        private static Bound single(Comparable threshold, boolean isLower, boolean inclusive) {
+            if (threshold == null) {
+                return null;
+            }
+            return isLower ? new Bound(threshold.getClass(), threshold, inclusive, null, false)
+                    : new Bound(threshold.getClass(), null, false, threshold, inclusive);
+        }
+    }
+}
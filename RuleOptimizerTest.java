@@ -0,0 +1,122 @@
+package com.au92.common.util.rule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link RuleOptimizer} 优化后的规则与原规则的结果相同
+ *
+ * @author p_x_c
+ */
+class RuleOptimizerTest {
+    private static final Object[] SCORES = {0.0, -0.0, 5.0, 7.5, 10.0, Double.NaN, 5};
+    private final Random random = new Random(7);
+
+    @Test
+    void sameResultsAsOriginal() {
+        List<Profile> profiles = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            profiles.add(profile());
+        }
+        profiles.add(null);
+        for (int round = 0; round < 1000; round++) {
+            Condition<Profile> condition = tree(3);
+            Condition<Profile> optimized = RuleOptimizer.optimize(condition);
+            for (Profile profile : profiles) {
+                boolean expected;
+                try {
+                    expected = condition.evaluate(profile);
+                } catch (RuntimeException e) {
+                    // 原规则抛出异常的部分可能被折叠为常量
+                    continue;
+                }
+                assertEquals(expected, optimized.evaluate(profile), condition + " " + profile);
+            }
+        }
+    }
+
+    @Test
+    void foldsContradictions() {
+        Condition<Profile> contradiction = new AndCondition<>(List.of(field("age", new EqualCondition<>(1)), field("age", new EqualCondition<>(2))));
+        Condition<Profile> emptyRange = field("score", new AndCondition<>(List.of(new GreaterThanCondition<>(10.0), new LessThanCondition<>(5.0))));
+        Condition<Profile> tautology = new OrCondition<>(List.of(field("name", new IsNullCondition<>()), new NotCondition<>(field("name", new IsNullCondition<>()))));
+        assertEquals(OrCondition.class, RuleOptimizer.optimize(contradiction)
+                                                     .getClass());
+        assertEquals(OrCondition.class, RuleOptimizer.optimize(emptyRange)
+                                                     .getClass());
+        assertTrue(((OrCondition<Profile>) RuleOptimizer.optimize(emptyRange)).getConditions()
+                                                                             .isEmpty());
+        Condition<Profile> constant = RuleOptimizer.optimize(tautology);
+        assertEquals(AndCondition.class, constant.getClass());
+        assertTrue(((AndCondition<Profile>) constant).getConditions()
+                                                     .isEmpty());
+    }
+
+    private Profile profile() {
+        Integer[] ages = {null, 0, 17, 18, 30, 65};
+        String[] names = {null, "", "alice", "bob", "alice smith"};
+        return new Profile(ages[random.nextInt(ages.length)], (double) SCORES[random.nextInt(SCORES.length - 1)], names[random.nextInt(names.length)]);
+    }
+
+    private Condition<Profile> tree(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(5) : random.nextInt(8);
+        return switch (kind) {
+            case 0 -> new AndCondition<>(children(depth));
+            case 1 -> new OrCondition<>(children(depth));
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            case 3 -> field("age", random.nextBoolean() ? comparison(new Object[]{0, 18, 65}) : new IsNotNullCondition<>());
+            case 4 -> field("age", random.nextBoolean() ? new EqualCondition<>(18) : new NotEqualCondition<>(30));
+            case 5 -> field("score", random.nextInt(3) == 0 ? new AndCondition<>(List.of(comparison(SCORES), comparison(SCORES)))
+                    : comparison(SCORES));
+            case 6 -> field("name", random.nextBoolean() ? new ContainsCondition("alice") : new EqualCondition<>("bob"));
+            default -> field("name", random.nextBoolean() ? new IsNullCondition<>() : new NotCondition<>(new EqualCondition<>("")));
+        };
+    }
+
+    private List<Condition<Profile>> children(int depth) {
+        List<Condition<Profile>> children = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            children.add(tree(depth - 1));
+        }
+        return children;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<Object> comparison(Object[] thresholds) {
+        Comparable value = (Comparable) thresholds[random.nextInt(thresholds.length)];
+        return switch (random.nextInt(5)) {
+            case 0 -> new GreaterThanCondition(value);
+            case 1 -> new GreaterThanOrEqualCondition(value);
+            case 2 -> new LessThanCondition(value);
+            case 3 -> new LessThanOrEqualCondition(value);
+            default -> new BetweenCondition((Comparable) thresholds[random.nextInt(thresholds.length)], value);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Condition<Profile> field(String name, Condition<?> inner) {
+        return new FieldNameCondition(name, inner);
+    }
+
+    public record Profile(Integer age, double score, String name) {
+    }
+}
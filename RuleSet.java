@@ -0,0 +1,426 @@
+package com.au92.common.util.rule;
+
+import com.au92.common.util.rule.accessor.FieldAccessor;
+import com.au92.common.util.rule.accessor.FieldAccessors;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.metrics.InstrumentedCondition;
+import com.au92.common.util.rule.pattern.StringPatternOptimizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 规则集，用于一个事实对象同时匹配大量规则。
+ * <p>
+ * 添加规则时从规则树中提取 {@link FieldNameCondition} + {@link EqualCondition} 形式的等值条件，以及
+ * {@link FieldNameCondition} + &gt;、&gt;=、&lt;、&lt;=、BETWEEN 形式的范围条件（包括字段内部的 AND / OR），按字段建立索引：
+ * 等值条件使用哈希索引，范围条件按端点类型建立 {@link IntervalTree}，一次查找 O(log n + k) 得到范围包含字段值的规则。
+ * <ul>
+ *     <li>AND 节点只要任一子条件可索引即可索引，同一字段上的多个范围先求交集，再取候选键最少的子条件，数量相同时优先等值条件</li>
+ *     <li>OR 节点要求所有子条件都可索引，取全部子条件的候选键</li>
+ * </ul>
+ * 范围按 {@link Comparable#compareTo(Object)} 比较，与条件的实现一致；字段值为 null 或与端点类型不同时，该类型的所有范围规则都作为候选。
+ * 匹配时只对索引命中的候选规则和无法索引的规则执行完整计算，因此开销随候选数量增长，而不是随规则总数增长。
+ * 一次匹配中所有规则共享同一个 {@link EvaluationContext}，每个字段只读取一次。
+ * <p>
+ * 添加规则不是线程安全的，全部添加完成后可以被多个线程并发匹配。
+ *
+ * <pre>
+ * RuleSet&lt;User&gt; ruleSet = new RuleSet&lt;User&gt;()
+ *     .add("vip", vipCondition)
+ *     .add("banned", bannedCondition);
+ * List&lt;String&gt; matched = ruleSet.match(user);
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class RuleSet<T> {
+    private final List<String> ids = new ArrayList<>();
+    private final List<Condition<T>> conditions = new ArrayList<>();
+    /**
+     * 字段名 -> 等值与范围索引
+     */
+    private final Map<String, FieldIndex> indexes = new LinkedHashMap<>();
+    /**
+     * 无法索引、每次都需要计算的规则
+     */
+    private final IntList residual = new IntList();
+
+    /**
+     * 添加规则
+     *
+     * @param id        规则 ID
+     * @param condition 规则
+     * @return 当前规则集
+     */
+    public RuleSet<T> add(String id, Condition<T> condition) {
+        Objects.requireNonNull(condition, "condition");
+        int rule = conditions.size();
+        ids.add(id);
+        conditions.add(condition);
+        List<Key> keys = keys(condition);
+        if (keys == null) {
+            residual.add(rule);
+            return this;
+        }
+        for (Key key : keys) {
+            FieldIndex index = indexes.computeIfAbsent(key.fieldName(), FieldIndex::new);
+            if (key instanceof EqualKey equal) {
+                index.add(equal.value(), rule);
+            } else {
+                index.add((RangeKey) key, rule);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 为所有规则中同一字段上的字符串条件构建共享的多模式自动机，匹配时每个字段只扫描一次
+     *
+     * @return 当前规则集
+     * @see StringPatternOptimizer
+     */
+    public RuleSet<T> optimizeStringPatterns() {
+        List<Condition<T>> optimized = StringPatternOptimizer.optimize(conditions);
+        conditions.clear();
+        conditions.addAll(optimized);
+        return this;
+    }
+
+    /**
+     * 规则数量
+     *
+     * @return 规则数量
+     */
+    public int size() {
+        return conditions.size();
+    }
+
+    /**
+     * 匹配事实对象
+     *
+     * @param fact 事实对象
+     * @return 满足条件的规则 ID，按添加顺序排列
+     */
+    public List<String> match(T fact) {
+        try (EvaluationContext context = EvaluationContext.open(fact)) {
+            IntList candidates = new IntList();
+            // 可索引的规则都要求对象不为 null
+            if (fact != null) {
+                for (FieldIndex index : indexes.values()) {
+                    index.collect(fact, candidates, context);
+                }
+            }
+            candidates.addAll(residual);
+            candidates.sortDistinct();
+
+            List<String> matched = new ArrayList<>();
+            for (int i = 0; i < candidates.size; i++) {
+                int rule = candidates.values[i];
+                if (conditions.get(rule)
+                              .evaluate(fact, context)) {
+                    matched.add(ids.get(rule));
+                }
+            }
+            return matched;
+        }
+    }
+
+    /**
+     * 提取规则成立的必要条件：规则成立时对象至少满足其中一个等值键或范围键，无法提取时返回 null
+     */
+    private static List<Key> keys(Condition<?> condition) {
+        return keys(condition, null);
+    }
+
+    /**
+     * fieldName 为 null 时 condition 作用于对象本身，否则作用于该字段的值
+     */
+    private static List<Key> keys(Condition<?> condition, String fieldName) {
+        if (condition == null) {
+            return null;
+        }
+        Class<?> type = condition.getClass();
+        if (type == InstrumentedCondition.class) {
+            // 包装后的规则与原规则结果相同
+            return keys(((InstrumentedCondition<?>) condition).getOriginal(), fieldName);
+        } else if (type == FieldNameCondition.class && fieldName == null) {
+            FieldNameCondition<?, ?> field = (FieldNameCondition<?, ?>) condition;
+            return field.getFieldName() == null ? null : keys(field.getInnerCondition(), field.getFieldName());
+        } else if (type == EqualCondition.class && fieldName != null) {
+            return List.of(new EqualKey(fieldName, ((EqualCondition<?>) condition).getTarget()));
+        } else if (type == AndCondition.class && ((AndCondition<?>) condition).getConditions() != null) {
+            List<List<Key>> candidates = new ArrayList<>();
+            for (Condition<?> child : ((AndCondition<?>) condition).getConditions()) {
+                List<Key> keys = keys(child, fieldName);
+                if (keys != null) {
+                    candidates.add(keys);
+                }
+            }
+            intersectRanges(candidates);
+            List<Key> best = null;
+            for (List<Key> keys : candidates) {
+                if (best == null || keys.size() < best.size() || (keys.size() == best.size() && isEquality(keys) && !isEquality(best))) {
+                    best = keys;
+                }
+            }
+            return best;
+        } else if (type == OrCondition.class && ((OrCondition<?>) condition).getConditions() != null) {
+            // 空 OR 恒为 false，没有任何候选键
+            List<Key> all = new ArrayList<>();
+            for (Condition<?> child : ((OrCondition<?>) condition).getConditions()) {
+                List<Key> keys = keys(child, fieldName);
+                if (keys == null) {
+                    return null;
+                }
+                all.addAll(keys);
+            }
+            return all;
+        } else if (fieldName != null) {
+            RangeKey range = RangeKey.of(fieldName, condition);
+            return range == null ? null : List.of(range);
+        }
+        return null;
+    }
+
+    /**
+     * 把 AND 中同一字段、同一端点类型的单个范围键合并为它们的交集
+     */
+    private static void intersectRanges(List<List<Key>> candidates) {
+        Map<List<Object>, Integer> merged = new HashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            List<Key> keys = candidates.get(i);
+            if (keys.size() != 1 || !(keys.get(0) instanceof RangeKey range)) {
+                continue;
+            }
+            List<Object> group = List.of(range.fieldName(), range.type());
+            Integer previous = merged.putIfAbsent(group, i);
+            if (previous != null) {
+                RangeKey other = (RangeKey) candidates.get(previous)
+                                                      .get(0);
+                candidates.set(previous, List.of(other.intersect(range)));
+                candidates.remove(i--);
+            }
+        }
+    }
+
+    private static boolean isEquality(List<Key> keys) {
+        for (Key key : keys) {
+            if (!(key instanceof EqualKey)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface Key {
+        String fieldName();
+    }
+
+    private record EqualKey(String fieldName, Object value) implements Key {
+    }
+
+    /**
+     * 字段值的范围，端点为 null 表示该侧无界，两个端点不为 null 时类型相同
+     */
+    private record RangeKey(String fieldName, Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) implements Key {
+
+        /**
+         * 从 &gt;、&gt;=、&lt;、&lt;=、BETWEEN 中提取范围，其他条件或端点为 null 时返回 null
+         */
+        static RangeKey of(String fieldName, Condition<?> condition) {
+            Class<?> type = condition.getClass();
+            Object lower = null;
+            boolean lowerInclusive = false;
+            Object upper = null;
+            boolean upperInclusive = false;
+            if (type == GreaterThanCondition.class) {
+                lower = ((GreaterThanCondition<?>) condition).getThreshold();
+            } else if (type == GreaterThanOrEqualCondition.class) {
+                lower = ((GreaterThanOrEqualCondition<?>) condition).getThreshold();
+                lowerInclusive = true;
+            } else if (type == LessThanCondition.class) {
+                upper = ((LessThanCondition<?>) condition).getThreshold();
+            } else if (type == LessThanOrEqualCondition.class) {
+                upper = ((LessThanOrEqualCondition<?>) condition).getThreshold();
+                upperInclusive = true;
+            } else if (type == BetweenCondition.class) {
+                lower = ((BetweenCondition<?>) condition).getMin();
+                upper = ((BetweenCondition<?>) condition).getMax();
+                lowerInclusive = true;
+                upperInclusive = true;
+                if (lower == null || upper == null || lower.getClass() != upper.getClass()) {
+                    return null;
+                }
+            }
+            return lower == null && upper == null ? null : new RangeKey(fieldName, lower, lowerInclusive, upper, upperInclusive);
+        }
+
+        Class<?> type() {
+            return (lower != null ? lower : upper).getClass();
+        }
+
+        /**
+         * 交集：每一侧取更严格的端点，值相同时开区间更严格，要求端点类型相同
+         */
+        RangeKey intersect(RangeKey other) {
+            Object newLower = lower;
+            boolean newLowerInclusive = lowerInclusive;
+            int result = lower == null ? -1 : other.lower == null ? 1 : compare(lower, other.lower);
+            if (result < 0) {
+                newLower = other.lower;
+                newLowerInclusive = other.lowerInclusive;
+            } else if (result == 0) {
+                newLowerInclusive = lowerInclusive && other.lowerInclusive;
+            }
+            Object newUpper = upper;
+            boolean newUpperInclusive = upperInclusive;
+            result = upper == null ? 1 : other.upper == null ? -1 : compare(upper, other.upper);
+            if (result > 0) {
+                newUpper = other.upper;
+                newUpperInclusive = other.upperInclusive;
+            } else if (result == 0) {
+                newUpperInclusive = upperInclusive && other.upperInclusive;
+            }
+            return new RangeKey(fieldName, newLower, newLowerInclusive, newUpper, newUpperInclusive);
+        }
+
+        IntervalTree.Interval interval(int rule) {
+            return new IntervalTree.Interval(lower, lowerInclusive, upper, upperInclusive, rule);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * 单个字段的等值索引与范围索引
+     */
+    private static final class FieldIndex {
+        private final String fieldName;
+        private final int slot;
+        private final Map<Object, IntList> rules = new HashMap<>();
+        /**
+         * 端点类型 -> 范围
+         */
+        private final Map<Class<?>, List<IntervalTree.Interval>> ranges = new LinkedHashMap<>();
+        /**
+         * 由 ranges 在第一次匹配时构建，添加范围后重新构建
+         */
+        private volatile IntervalTree[] trees;
+        /**
+         * 最近一次使用的类型及其读取器
+         */
+        private Binding binding;
+
+        FieldIndex(String fieldName) {
+            this.fieldName = fieldName;
+            this.slot = EvaluationContext.slot(fieldName);
+        }
+
+        void add(Object value, int rule) {
+            rules.computeIfAbsent(value, v -> new IntList())
+                 .add(rule);
+        }
+
+        void add(RangeKey range, int rule) {
+            ranges.computeIfAbsent(range.type(), type -> new ArrayList<>())
+                  .add(range.interval(rule));
+            trees = null;
+        }
+
+        void collect(Object fact, IntList candidates, EvaluationContext context) {
+            Object value = accessor(fact.getClass()).get(fact);
+            context.put(slot, value);
+            IntList matched = rules.get(value);
+            if (matched != null) {
+                candidates.addAll(matched);
+            }
+            for (IntervalTree tree : trees()) {
+                // 无法与端点比较的值交给条件自身处理，全部作为候选
+                if (value != null && value.getClass() == tree.type()) {
+                    tree.stab(value, candidates::add);
+                } else {
+                    tree.forEach(candidates::add);
+                }
+            }
+        }
+
+        private IntervalTree[] trees() {
+            IntervalTree[] current = trees;
+            if (current == null) {
+                synchronized (this) {
+                    current = trees;
+                    if (current == null) {
+                        current = ranges.entrySet()
+                                        .stream()
+                                        .map(entry -> new IntervalTree(entry.getKey(), entry.getValue()))
+                                        .toArray(IntervalTree[]::new);
+                        trees = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        private FieldAccessor accessor(Class<?> type) {
+            Binding current = binding;
+            if (current == null || current.type != type) {
+                current = new Binding(type, FieldAccessors.of(type, fieldName));
+                binding = current;
+            }
+            return current.accessor;
+        }
+    }
+
+    private record Binding(Class<?> type, FieldAccessor accessor) {
+    }
+
+    /**
+     * 可增长的 int 数组
+     */
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        void sortDistinct() {
+            Arrays.sort(values, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || values[distinct - 1] != values[i]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            size = distinct;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.au92.common.util.rule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import com.au92.common.util.rule.metrics.InstrumentedCondition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link RuleSet} 使用索引匹配的结果与逐条计算相同
+ *
+ * @author p_x_c
+ */
+class RuleSetTest {
+    private static final Object[] DOUBLES = {0.0, -0.0, 1.5, 10.0, Double.NaN, 10};
+    private static final String[] KINDS = {"click", "view", "buy", "batch-buy"};
+    private final Random random = new Random(4);
+
+    @Test
+    void equalityIndexMatchesLinearScan() {
+        check(this::equality);
+    }
+
+    @Test
+    void rangeIndexMatchesLinearScan() {
+        check(this::range);
+    }
+
+    private void check(Generator generator) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            events.add(event());
+        }
+        for (int round = 0; round < 20; round++) {
+            RuleSet<Event> ruleSet = new RuleSet<>();
+            List<Condition<Event>> rules = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Condition<Event> rule = generator.rule(2);
+                if (random.nextInt(4) == 0) {
+                    rule = InstrumentedCondition.instrument(rule);
+                }
+                rules.add(rule);
+                ruleSet.add("r" + i, rule);
+            }
+            for (Event event : events) {
+                List<String> expected = new ArrayList<>();
+                for (int i = 0; i < rules.size(); i++) {
+                    if (rules.get(i)
+                             .evaluate(event)) {
+                        expected.add("r" + i);
+                    }
+                }
+                assertEquals(expected, ruleSet.match(event), event.toString());
+            }
+        }
+    }
+
+    private Event event() {
+        double[] scores = {0.0, -0.0, 1.5, 10.0, 10.5, Double.NaN, -3};
+        return new Event(random.nextInt(12) - 1, scores[random.nextInt(scores.length)], random.nextInt(5) * 100L,
+                         KINDS[random.nextInt(KINDS.length)]);
+    }
+
+    /**
+     * 等值条件及其 AND / OR / NOT 组合
+     */
+    private Condition<Event> equality(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(4) : random.nextInt(7);
+        return switch (kind) {
+            case 0 -> new AndCondition<>(List.of(equality(depth - 1), equality(depth - 1)));
+            case 1 -> new OrCondition<>(List.of(equality(depth - 1), equality(depth - 1)));
+            case 2 -> new NotCondition<>(equality(depth - 1));
+            case 3 -> field("level", new EqualCondition<>(random.nextInt(12) - 1));
+            case 4 -> field("score", new EqualCondition<>(DOUBLES[random.nextInt(DOUBLES.length)]));
+            case 5 -> field("kind", new EqualCondition<>(KINDS[random.nextInt(KINDS.length)]));
+            default -> field("kind", new StartsWithCondition("b"));
+        };
+    }
+
+    /**
+     * 范围条件及其组合，包括同一字段上的多个范围和与字段类型不同的端点
+     */
+    private Condition<Event> range(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(4) : random.nextInt(7);
+        return switch (kind) {
+            case 0 -> new AndCondition<>(List.of(range(depth - 1), range(depth - 1)));
+            case 1 -> new OrCondition<>(List.of(range(depth - 1), range(depth - 1)));
+            case 2 -> field("score", new AndCondition<>(List.of(comparison(DOUBLES), comparison(DOUBLES))));
+            case 3 -> field("level", comparison(new Object[]{0, 3, 5, 10, 2.5, (short) 4}));
+            case 4 -> field("score", comparison(DOUBLES));
+            case 5 -> field("size", comparison(new Object[]{0L, 150L, 400L, 200}));
+            default -> equality(0);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<Object> comparison(Object[] thresholds) {
+        Comparable value = (Comparable) thresholds[random.nextInt(thresholds.length)];
+        return switch (random.nextInt(5)) {
+            case 0 -> new GreaterThanCondition(value);
+            case 1 -> new GreaterThanOrEqualCondition(value);
+            case 2 -> new LessThanCondition(value);
+            case 3 -> new LessThanOrEqualCondition(value);
+            default -> new BetweenCondition((Comparable) thresholds[random.nextInt(thresholds.length)], value);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Condition<Event> field(String name, Condition<?> inner) {
+        return new FieldNameCondition(name, inner);
+    }
+
+    private interface Generator {
+        Condition<Event> rule(int depth);
+    }
+
+    public record Event(int level, double score, long size, String kind) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.au92.common.util.rule.accessor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.math.BigInteger;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Map 与 JsonNode 事实对象的字段值转换。
+ * <p>
+ * Map 中的值已经是 Java 对象，保持原样，与 POJO 中相同类型的字段比较结果相同；JsonNode 中的值转换为 Jackson 把 JSON 绑定为 Map 的结果：
+ * <ul>
+ *     <li>整数取能容纳它的最小类型：Integer、Long、BigInteger</li>
+ *     <li>浮点数为 Double（Float 按十进制文本转换），BigDecimal 保持不变</li>
+ *     <li>文本、布尔值转换为 String、Boolean，null 与缺失的字段为 null，对象与数组保持为 JsonNode</li>
+ * </ul>
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+public class FactValues {
+
+    /**
+     * 转换字段值，只转换 JsonNode，其他值原样返回
+     *
+     * @param value 原始值
+     * @return 转换后的值
+     */
+    public static Object normalize(Object value) {
+        return value instanceof JsonNode node ? fromJson(node) : value;
+    }
+
+    /**
+     * 转换从 JSON 中读取的数值
+     *
+     * @param value 数值
+     * @return 转换后的值
+     */
+    public static Object jsonNumber(Number value) {
+        if (value instanceof Long number) {
+            if (number == number.intValue()) {
+                return number.intValue();
+            }
+            return number;
+        }
+        if (value instanceof Short || value instanceof Byte) {
+            return value.intValue();
+        }
+        if (value instanceof Float number) {
+            return Double.valueOf(number.toString());
+        }
+        if (value instanceof BigInteger number) {
+            if (number.bitLength() < Integer.SIZE) {
+                return number.intValue();
+            }
+            if (number.bitLength() < Long.SIZE) {
+                return number.longValue();
+            }
+        }
+        return value;
+    }
+
+    private static Object fromJson(JsonNode node) {
+        if (node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.textValue();
+        }
+        if (node.isNumber()) {
+            return jsonNumber(node.numberValue());
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        return node;
+    }
+}
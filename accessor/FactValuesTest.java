@@ -0,0 +1,71 @@
+package com.au92.common.util.rule.accessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import java.math.BigInteger;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link FactValues}
+ *
+ * @author p_x_c
+ */
+class FactValuesTest {
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    @Test
+    void jsonIntegersUseSmallestType() {
+        assertEquals(Integer.class, FactValues.normalize(NODES.numberNode(5L))
+                                              .getClass());
+        assertEquals(Long.class, FactValues.normalize(NODES.numberNode(1L << 40))
+                                           .getClass());
+        assertEquals(Integer.class, FactValues.normalize(NODES.numberNode(BigInteger.TEN))
+                                              .getClass());
+        assertEquals(Long.class, FactValues.normalize(NODES.numberNode(BigInteger.ONE.shiftLeft(40)))
+                                           .getClass());
+        assertEquals(Integer.class, FactValues.normalize(NODES.numberNode((short) 3))
+                                              .getClass());
+        assertEquals(1.5, FactValues.normalize(NODES.numberNode(1.5f)));
+    }
+
+    @Test
+    void jsonScalars() throws Exception {
+        JsonNode node = new ObjectMapper().readTree("{\"name\":\"a\",\"flag\":true,\"empty\":null,\"list\":[1]}");
+        assertEquals("a", FactValues.normalize(node.get("name")));
+        assertEquals(Boolean.TRUE, FactValues.normalize(node.get("flag")));
+        assertNull(FactValues.normalize(node.get("empty")));
+        assertSame(node.get("list"), FactValues.normalize(node.get("list")));
+    }
+
+    @Test
+    void javaValuesAreUnchanged() {
+        Float value = 1.5f;
+        assertSame(value, FactValues.normalize(value));
+        Long count = 5L;
+        assertSame(count, FactValues.normalize(count));
+    }
+
+    @Test
+    void mapFieldsCompareLikePojoFields() {
+        Map<String, Object> fact = Map.of("ratio", 1.5f, "count", 5L);
+        Condition<Map<String, Object>> ratio = new FieldNameCondition<>("ratio", new EqualCondition<>(1.5f));
+        Condition<Map<String, Object>> larger = new FieldNameCondition<>("ratio", new GreaterThanCondition<>(1.25f));
+        Condition<Map<String, Object>> count = new FieldNameCondition<>("count", new EqualCondition<>(5L));
+        assertTrue(ratio.evaluate(fact));
+        assertTrue(larger.evaluate(fact));
+        assertTrue(count.evaluate(fact));
+        assertFalse(new FieldNameCondition<Map<String, Object>, Integer>("count", new EqualCondition<>(5)).evaluate(fact));
+    }
+}
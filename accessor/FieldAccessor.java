@@ -0,0 +1,44 @@
+package com.au92.common.util.rule.accessor;
+
+/**
+ * 字段读取器，由 {@link FieldAccessors} 按类型和字段名创建并缓存
+ *
+ * @author p_x_c
+ */
+public interface FieldAccessor {
+
+    /**
+     * 读取字段值，基本类型会被装箱
+     *
+     * @param target 目标对象，不能为 null
+     * @return 字段值
+     */
+    Object get(Object target);
+
+    /**
+     * 读取 int、long、short、byte 类型的字段值，生成的读取器不装箱
+     *
+     * @param target 目标对象，不能为 null
+     * @return 字段值
+     */
+    default long getLong(Object target) {
+        return ((Number) get(target)).longValue();
+    }
+
+    /**
+     * 读取数值类型的字段值，生成的读取器不装箱
+     *
+     * @param target 目标对象，不能为 null
+     * @return 字段值
+     */
+    default double getDouble(Object target) {
+        return ((Number) get(target)).doubleValue();
+    }
+
+    /**
+     * 字段的声明类型
+     *
+     * @return 字段类型
+     */
+    Class<?> getType();
+}
@@ -0,0 +1,19 @@
+package com.au92.common.util.rule.accessor;
+
+/**
+ * 字段读取器的提供者，用于支持 POJO 之外的事实对象类型，通过 {@link FieldAccessors#register(FieldAccessorProvider)} 注册
+ *
+ * @author p_x_c
+ */
+@FunctionalInterface
+public interface FieldAccessorProvider {
+
+    /**
+     * 为类型创建字段读取器
+     *
+     * @param type      事实对象的类型
+     * @param fieldName 字段名
+     * @return 字段读取器，不支持该类型时返回 null
+     */
+    FieldAccessor create(Class<?> type, String fieldName);
+}
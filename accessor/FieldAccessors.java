@@ -0,0 +1,311 @@
+package com.au92.common.util.rule.accessor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 字段读取器工厂
+ * <p>
+ * 先依次询问已注册的 {@link FieldAccessorProvider}，内置支持 {@link Map} 与 {@link JsonNode}，字段值按 {@link FactValues} 转换；
+ * 其余类型的查找顺序为 record 访问器、public getter、字段本身（包括父类）。getter 通过 {@link LambdaMetafactory} 生成
+ * {@link Function}，字段通过 {@link MethodHandle} 读取，无法获得私有访问权限时退化为反射。
+ * 数值基本类型的 getter 和字段另外生成 {@link ToLongFunction} / {@link ToDoubleFunction} 或对应签名的 {@link MethodHandle}，
+ * {@link FieldAccessor#getLong(Object)} 与 {@link FieldAccessor#getDouble(Object)} 读取时不装箱。
+ * 结果按类型缓存在 {@link ClassValue} 中，类卸载时一并回收。
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+public class FieldAccessors {
+    /**
+     * 统一的读取签名 (Object)Object
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType LONG_GETTER_TYPE = MethodType.methodType(long.class, Object.class);
+    private static final MethodType DOUBLE_GETTER_TYPE = MethodType.methodType(double.class, Object.class);
+
+    /**
+     * 后注册的优先
+     */
+    private static final List<FieldAccessorProvider> PROVIDERS = new CopyOnWriteArrayList<>(List.of(
+            (type, fieldName) -> JsonNode.class.isAssignableFrom(type) ? new JsonNodeAccessor(fieldName) : null,
+            (type, fieldName) -> Map.class.isAssignableFrom(type) ? new MapAccessor(fieldName) : null));
+
+    private static final ClassValue<Map<String, FieldAccessor>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * 获取字段读取器
+     *
+     * @param type      目标类型
+     * @param fieldName 字段名
+     * @return 字段读取器
+     * @throws IllegalArgumentException 字段不存在
+     */
+    public static FieldAccessor of(Class<?> type, String fieldName) {
+        return CACHE.get(type)
+                    .computeIfAbsent(fieldName, name -> create(type, name));
+    }
+
+    /**
+     * 注册字段读取器提供者，优先于已注册的提供者与内置规则。读取器创建后会被缓存，应在求值之前注册
+     *
+     * @param provider 提供者
+     */
+    public static void register(FieldAccessorProvider provider) {
+        PROVIDERS.add(0, provider);
+    }
+
+    private static FieldAccessor create(Class<?> type, String fieldName) {
+        for (FieldAccessorProvider provider : PROVIDERS) {
+            FieldAccessor accessor = provider.create(type, fieldName);
+            if (accessor != null) {
+                return accessor;
+            }
+        }
+        Method getter = findGetter(type, fieldName);
+        if (getter != null) {
+            return getterAccessor(getter);
+        }
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                return fieldAccessor(current.getDeclaredField(fieldName));
+            } catch (NoSuchFieldException ignored) {
+            }
+        }
+        throw new IllegalArgumentException("Field not found: " + fieldName);
+    }
+
+    private static Method findGetter(Class<?> type, String fieldName) {
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                if (component.getName()
+                             .equals(fieldName)) {
+                    return component.getAccessor();
+                }
+            }
+        }
+        if (fieldName.isEmpty()) {
+            return null;
+        }
+        String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        Method getter = publicMethod(type, "get" + capitalized);
+        if (getter == null) {
+            getter = publicMethod(type, "is" + capitalized);
+            if (getter != null && getter.getReturnType() != boolean.class) {
+                getter = null;
+            }
+        }
+        return getter;
+    }
+
+    private static Method publicMethod(Class<?> type, String name) {
+        try {
+            Method method = type.getMethod(name);
+            if (Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class) {
+                return null;
+            }
+            return method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldAccessor getterAccessor(Method getter) {
+        Class<?> type = getter.getReturnType();
+        MethodHandles.Lookup lookup;
+        MethodHandle handle;
+        try {
+            lookup = MethodHandles.privateLookupIn(getter.getDeclaringClass(), MethodHandles.lookup());
+            handle = lookup.unreflect(getter);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // 模块未开放等情况退化为反射
+            getter.trySetAccessible();
+            return new ReflectiveAccessor(getter, null, type);
+        }
+        try {
+            Function<Object, Object> function = (Function<Object, Object>) lambda(lookup, handle, Function.class, "apply",
+                                                                                   GETTER_TYPE, handle.type()
+                                                                                                      .wrap());
+            ToLongFunction<Object> longFunction = isIntegral(type) ? (ToLongFunction<Object>) lambda(
+                    lookup, handle, ToLongFunction.class, "applyAsLong", LONG_GETTER_TYPE, handle.type()
+                                                                                             .changeReturnType(long.class)) : null;
+            ToDoubleFunction<Object> doubleFunction = isNumeric(type) ? (ToDoubleFunction<Object>) lambda(
+                    lookup, handle, ToDoubleFunction.class, "applyAsDouble", DOUBLE_GETTER_TYPE, handle.type()
+                                                                                                   .changeReturnType(double.class)) : null;
+            return new FunctionAccessor(function, longFunction, doubleFunction, type);
+        } catch (Throwable e) {
+            return handleAccessor(handle, type);
+        }
+    }
+
+    private static Object lambda(MethodHandles.Lookup lookup, MethodHandle handle, Class<?> interfaceType, String name,
+                                 MethodType erasedType, MethodType instantiatedType) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(lookup, name, MethodType.methodType(interfaceType), erasedType,
+                                                      handle, instantiatedType);
+        return site.getTarget()
+                   .invoke();
+    }
+
+    /**
+     * 按整数读取时不丢失精度的类型
+     */
+    private static boolean isIntegral(Class<?> type) {
+        return type == int.class || type == long.class || type == short.class || type == byte.class;
+    }
+
+    private static boolean isNumeric(Class<?> type) {
+        return isIntegral(type) || type == double.class || type == float.class;
+    }
+
+    private static FieldAccessor handleAccessor(MethodHandle handle, Class<?> type) {
+        return new HandleAccessor(handle.asType(GETTER_TYPE),
+                                  isIntegral(type) ? handle.asType(LONG_GETTER_TYPE) : null,
+                                  isNumeric(type) ? handle.asType(DOUBLE_GETTER_TYPE) : null, type);
+    }
+
+    private static FieldAccessor fieldAccessor(Field field) {
+        try {
+            MethodHandle handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                                               .unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handleAccessor(handle, field.getType());
+        } catch (IllegalAccessException | RuntimeException e) {
+            field.trySetAccessible();
+            return new ReflectiveAccessor(null, field, field.getType());
+        }
+    }
+
+    private record MapAccessor(String fieldName) implements FieldAccessor {
+        @Override
+        public Object get(Object target) {
+            return FactValues.normalize(((Map<?, ?>) target).get(fieldName));
+        }
+
+        @Override
+        public Class<?> getType() {
+            return Object.class;
+        }
+    }
+
+    private record JsonNodeAccessor(String fieldName) implements FieldAccessor {
+        @Override
+        public Object get(Object target) {
+            return FactValues.normalize(((JsonNode) target).get(fieldName));
+        }
+
+        @Override
+        public Class<?> getType() {
+            return Object.class;
+        }
+    }
+
+    private record FunctionAccessor(Function<Object, Object> function, ToLongFunction<Object> longFunction,
+                                    ToDoubleFunction<Object> doubleFunction, Class<?> type) implements FieldAccessor {
+        @Override
+        public Object get(Object target) {
+            return function.apply(target);
+        }
+
+        @Override
+        public long getLong(Object target) {
+            return longFunction != null ? longFunction.applyAsLong(target) : FieldAccessor.super.getLong(target);
+        }
+
+        @Override
+        public double getDouble(Object target) {
+            return doubleFunction != null ? doubleFunction.applyAsDouble(target) : FieldAccessor.super.getDouble(target);
+        }
+
+        @Override
+        public Class<?> getType() {
+            return type;
+        }
+    }
+
+    private record HandleAccessor(MethodHandle handle, MethodHandle longHandle, MethodHandle doubleHandle,
+                                  Class<?> type) implements FieldAccessor {
+        @Override
+        public Object get(Object target) {
+            try {
+                return handle.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public long getLong(Object target) {
+            if (longHandle == null) {
+                return FieldAccessor.super.getLong(target);
+            }
+            try {
+                return (long) longHandle.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public double getDouble(Object target) {
+            if (doubleHandle == null) {
+                return FieldAccessor.super.getDouble(target);
+            }
+            try {
+                return (double) doubleHandle.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Class<?> getType() {
+            return type;
+        }
+    }
+
+    private record ReflectiveAccessor(Method method, Field field, Class<?> type) implements FieldAccessor {
+        @Override
+        public Object get(Object target) {
+            try {
+                return method != null ? method.invoke(target) : field.get(target);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to read " + (method != null ? method : field), e);
+            }
+        }
+
+        @Override
+        public Class<?> getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.au92.common.util.rule.async;
+
+import com.au92.common.util.rule.Condition;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 需要异步获取数据的条件。
+ * <p>
+ * 通过 {@link Condition#evaluateAsync(Object)} 计算规则时，这类条件在同一 AND / OR 中的同步条件之后计算，
+ * 并且只在结果仍未确定时才会发起查询；直接调用 {@link #evaluate(Object)} 时阻塞等待结果。
+ *
+ * @author p_x_c
+ */
+public interface AsyncCondition<T> extends Condition<T> {
+
+    /**
+     * 异步计算
+     *
+     * @param value 待计算的值
+     * @return 计算结果
+     */
+    @Override
+    CompletableFuture<Boolean> evaluateAsync(T value);
+
+    @Override
+    default boolean evaluate(T value) {
+        return evaluateAsync(value).join();
+    }
+}
@@ -0,0 +1,130 @@
+package com.au92.common.util.rule.async;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 异步计算规则树，{@link Condition#evaluateAsync(Object)} 的实现。
+ * <p>
+ * 不包含 {@link AsyncCondition} 的子树直接同步计算。AND / OR 中先按顺序计算同步的子条件，结果已经确定时不再发起任何查询；
+ * 否则依次计算包含异步条件的子条件，每个子条件完成后再决定是否需要下一个，因此只查询短路后仍然需要的数据。
+ * 同时计算的多个对象发起的查询由 {@link BatchLoader} 合并为批次。
+ * <p>
+ * 调整顺序要求子条件没有副作用；同步条件抛出的异常以失败的 {@link CompletableFuture} 返回。
+ * 编译、插桩等包装后的规则不会被展开，其中的异步条件在 {@link AsyncCondition#evaluate(Object)} 中阻塞等待。
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+public class AsyncEvaluator {
+    /**
+     * 异步计算规则
+     *
+     * @param condition 规则
+     * @param value     待计算的值
+     * @param <T>       规则适用的对象类型
+     * @return 计算结果
+     */
+    public static <T> CompletableFuture<Boolean> evaluate(Condition<T> condition, T value) {
+        try {
+            return evaluateNode(condition, value);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<Boolean> evaluateNode(Condition<T> condition, T value) {
+        if (!isAsync(condition)) {
+            return result(condition.evaluate(value));
+        }
+        if (condition instanceof AsyncCondition<T> async) {
+            return async.evaluateAsync(value);
+        }
+        Class<?> type = condition.getClass();
+        if (type == AndCondition.class) {
+            return junction(((AndCondition<T>) condition).getConditions(), true, value);
+        } else if (type == OrCondition.class) {
+            return junction(((OrCondition<T>) condition).getConditions(), false, value);
+        } else if (type == NotCondition.class) {
+            return evaluate(((NotCondition<T>) condition).getCondition(), value).thenApply(result -> !result);
+        }
+        FieldNameCondition<T, Object> field = (FieldNameCondition<T, Object>) condition;
+        if (value == null) {
+            return result(false);
+        }
+        Object fieldValue = field.accessor(value.getClass())
+                                 .get(value);
+        return evaluate(field.getInnerCondition(), fieldValue);
+    }
+
+    /**
+     * isAnd 为 true 时任一子条件为 false 即可决定结果，反之为 true
+     */
+    private static <T> CompletableFuture<Boolean> junction(List<Condition<T>> children, boolean isAnd, T value) {
+        List<Condition<T>> deferred = new ArrayList<>();
+        for (Condition<T> child : children) {
+            if (isAsync(child)) {
+                deferred.add(child);
+            } else if (child.evaluate(value) != isAnd) {
+                return result(!isAnd);
+            }
+        }
+        return chain(deferred, 0, isAnd, value);
+    }
+
+    private static <T> CompletableFuture<Boolean> chain(List<Condition<T>> children, int index, boolean isAnd, T value) {
+        if (index == children.size()) {
+            return result(isAnd);
+        }
+        return evaluate(children.get(index), value).thenCompose(result -> result != isAnd ? result(!isAnd)
+                : chain(children, index + 1, isAnd, value));
+    }
+
+    /**
+     * 子树中是否有需要异步计算的条件
+     */
+    private static boolean isAsync(Condition<?> condition) {
+        if (condition == null) {
+            return false;
+        }
+        if (condition instanceof AsyncCondition) {
+            return true;
+        }
+        Class<?> type = condition.getClass();
+        if (type == AndCondition.class) {
+            return anyAsync(((AndCondition<?>) condition).getConditions());
+        } else if (type == OrCondition.class) {
+            return anyAsync(((OrCondition<?>) condition).getConditions());
+        } else if (type == NotCondition.class) {
+            return isAsync(((NotCondition<?>) condition).getCondition());
+        } else if (type == FieldNameCondition.class) {
+            FieldNameCondition<?, ?> field = (FieldNameCondition<?, ?>) condition;
+            return field.getFieldName() != null && isAsync(field.getInnerCondition());
+        }
+        return false;
+    }
+
+    private static boolean anyAsync(List<? extends Condition<?>> conditions) {
+        if (conditions == null) {
+            return false;
+        }
+        for (Condition<?> condition : conditions) {
+            if (isAsync(condition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CompletableFuture<Boolean> result(boolean value) {
+        return CompletableFuture.completedFuture(value);
+    }
+}
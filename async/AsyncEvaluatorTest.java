@@ -0,0 +1,156 @@
+package com.au92.common.util.rule.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link AsyncEvaluator} 只在同步条件无法确定结果时才查询，结果与在查询后的数据上同步计算相同
+ *
+ * @author p_x_c
+ */
+class AsyncEvaluatorTest {
+    private static final int USERS = 200;
+
+    private final Random random = new Random(17);
+    /**
+     * 用户 ID -> 风险分。每个用户都有风险分：异步条件被推迟到同步条件之后，抛出的异常可能与按声明顺序计算时不同，只比较结果
+     */
+    private final Map<Long, Integer> scores = new HashMap<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger keys = new AtomicInteger();
+
+    AsyncEvaluatorTest() {
+        for (long id = 0; id < USERS; id++) {
+            scores.put(id, random.nextInt(100));
+        }
+    }
+
+    @Test
+    void syncSiblingDecidesWithoutQuery() {
+        try (BatchLoader<Long, Integer> loader = loader()) {
+            Condition<User> risky = new AsyncFieldCondition<>(User::id, loader, new GreaterThanCondition<>(50));
+            Condition<User> adult = new FieldNameCondition<>("age", new GreaterThanCondition<>(17));
+            Condition<User> vip = new FieldNameCondition<>("tag", new EqualCondition<>("vip"));
+            User child = new User(1, 10, "vip");
+
+            // 异步条件在前也先计算同步条件
+            assertFalse(AsyncEvaluator.evaluate(new AndCondition<>(List.of(risky, adult)), child)
+                                      .join());
+            assertTrue(AsyncEvaluator.evaluate(new OrCondition<>(List.of(risky, vip)), child)
+                                     .join());
+            assertTrue(AsyncEvaluator.evaluate(new NotCondition<>(new AndCondition<>(List.of(new OrCondition<>(List.of(risky, vip)), adult))), child)
+                                     .join());
+            assertEquals(0, calls.get());
+
+            assertEquals(scores.get(1L) > 50, AsyncEvaluator.evaluate(new OrCondition<>(List.of(risky, adult)), child)
+                                                              .join());
+            assertEquals(1, calls.get());
+        }
+    }
+
+    @Test
+    void matchesSyncEvaluationOnResolvedFacts() {
+        try (BatchLoader<Long, Integer> loader = loader()) {
+            for (int round = 0; round < 50; round++) {
+                List<Condition<User>> pair = tree(3, loader);
+                List<User> users = new ArrayList<>();
+                List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+                for (long id = 0; id < USERS; id++) {
+                    User user = new User(id, random.nextInt(40), random.nextBoolean() ? "vip" : "common");
+                    users.add(user);
+                    futures.add(AsyncEvaluator.evaluate(pair.get(0), user));
+                }
+                for (int i = 0; i < users.size(); i++) {
+                    assertEquals(pair.get(1)
+                                     .evaluate(users.get(i)), futures.get(i)
+                                                                     .join(), "round " + round + " user " + i);
+                }
+            }
+            // 同时计算的对象合并查询，每批不重复
+            assertTrue(keys.get() <= 50 * USERS);
+            assertTrue(calls.get() < keys.get());
+        }
+    }
+
+    @Test
+    void syncExceptionFailsFuture() {
+        try (BatchLoader<Long, Integer> loader = loader()) {
+            Condition<User> failing = user -> {
+                throw new IllegalStateException("sync");
+            };
+            Condition<User> risky = new AsyncFieldCondition<>(User::id, loader, new GreaterThanCondition<>(50));
+            CompletableFuture<Boolean> future = AsyncEvaluator.evaluate(new AndCondition<>(List.of(risky, failing)), new User(1, 20, "vip"));
+            CompletionException error = assertThrows(CompletionException.class, future::join);
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+            assertEquals(0, calls.get());
+        }
+    }
+
+    /**
+     * 计数的内存查询，窗口很短以免拖慢测试
+     */
+    private BatchLoader<Long, Integer> loader() {
+        return new BatchLoader<>(batch -> {
+            calls.incrementAndGet();
+            keys.addAndGet(batch.size());
+            Map<Long, Integer> result = new HashMap<>();
+            for (Long key : batch) {
+                result.put(key, scores.get(key));
+            }
+            return result;
+        }, 64, Duration.ofMillis(1));
+    }
+
+    /**
+     * 第一个元素为包含异步条件的规则，第二个元素为用已知风险分同步计算的等价规则
+     */
+    private List<Condition<User>> tree(int depth, BatchLoader<Long, Integer> loader) {
+        int kind = depth == 0 ? 3 + random.nextInt(3) : random.nextInt(6);
+        if (kind < 3) {
+            List<Condition<User>> async = new ArrayList<>();
+            List<Condition<User>> sync = new ArrayList<>();
+            for (int i = 1 + random.nextInt(3); i > 0; i--) {
+                List<Condition<User>> child = tree(depth - 1, loader);
+                async.add(child.get(0));
+                sync.add(child.get(1));
+            }
+            return switch (kind) {
+                case 0 -> List.of(new AndCondition<>(async), new AndCondition<>(sync));
+                case 1 -> List.of(new OrCondition<>(async), new OrCondition<>(sync));
+                default -> List.of(new NotCondition<>(async.get(0)), new NotCondition<>(sync.get(0)));
+            };
+        }
+        if (kind == 3) {
+            Condition<Integer> score = random.nextBoolean() ? new GreaterThanCondition<>(random.nextInt(100)) : new LessThanCondition<>(random.nextInt(100));
+            return List.of(new AsyncFieldCondition<>(User::id, loader, score), user -> score.evaluate(scores.get(user.id())));
+        }
+        Condition<User> leaf = kind == 4 ? new FieldNameCondition<>("age", new GreaterThanCondition<>(random.nextInt(40)))
+                : new FieldNameCondition<>("tag", new EqualCondition<>("vip"));
+        return List.of(leaf, leaf);
+    }
+
+    public record User(long id, int age, String tag) {
+    }
+}
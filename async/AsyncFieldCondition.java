@@ -0,0 +1,43 @@
+package com.au92.common.util.rule.async;
+
+import com.au92.common.util.rule.Condition;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import lombok.Getter;
+
+/**
+ * 对外部数据应用内部条件：从对象中取出键，通过 {@link BatchLoader} 查询值，再用内部条件计算。
+ * <p>
+ * 与 {@link com.au92.common.util.rule.impl.FieldCondition} 一样持有函数，不支持 JSON 序列化。键为 null 时不查询，直接以 null 计算内部条件。
+ *
+ * @author p_x_c
+ */
+public class AsyncFieldCondition<T, K, V> implements AsyncCondition<T> {
+    @Getter
+    private final Function<T, K> key;
+    @Getter
+    private final BatchLoader<K, V> loader;
+    @Getter
+    private final Condition<V> condition;
+
+    /**
+     * @param key       从对象中取出查询的键
+     * @param loader    批量查询
+     * @param condition 作用于查询结果的条件
+     */
+    public AsyncFieldCondition(Function<T, K> key, BatchLoader<K, V> loader, Condition<V> condition) {
+        this.key = key;
+        this.loader = loader;
+        this.condition = condition;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> evaluateAsync(T value) {
+        K k = key.apply(value);
+        if (k == null) {
+            return AsyncEvaluator.evaluate(condition, null);
+        }
+        return loader.load(k)
+                     .thenCompose(result -> AsyncEvaluator.evaluate(condition, result));
+    }
+}
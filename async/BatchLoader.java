@@ -0,0 +1,198 @@
+package com.au92.common.util.rule.async;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并并批量执行查询，类似 DataLoader。
+ * <p>
+ * {@link #load(Object)} 不立即查询，而是把键加入当前批次：第一个键加入后等待 {@code window}，
+ * 或批次达到 {@code maxBatchSize} 个键时，在虚拟线程上调用一次 {@link BatchResolver}。
+ * 正在等待或正在查询的键再次被请求时直接返回同一个 {@link CompletableFuture}，查询完成后不再缓存结果。
+ *
+ * <pre>
+ * BatchLoader&lt;Long, Integer&gt; riskScores = new BatchLoader&lt;&gt;(riskStore::findScores);
+ * Condition&lt;User&gt; risky = new AsyncFieldCondition&lt;&gt;(User::getId, riskScores, new GreaterThanCondition&lt;&gt;(80));
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class BatchLoader<K, V> implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(1);
+
+    private final BatchResolver<K, V> resolver;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * 尚未完成的查询，包括等待中的批次和正在执行的批次
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> futures = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    /**
+     * 等待发送的批次，只在持有 lock 时访问
+     */
+    private List<K> batch = new ArrayList<>();
+    /**
+     * 是否已关闭，只在持有 lock 时访问
+     */
+    private boolean closed;
+
+    /**
+     * @param resolver 批量查询
+     */
+    public BatchLoader(BatchResolver<K, V> resolver) {
+        this(resolver, DEFAULT_MAX_BATCH_SIZE, DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param resolver     批量查询
+     * @param maxBatchSize 每批最多的键数
+     * @param window       第一个键加入后等待更多键的时间
+     */
+    public BatchLoader(BatchResolver<K, V> resolver, int maxBatchSize, Duration window) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.resolver = Objects.requireNonNull(resolver, "resolver");
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * 请求一个键的值
+     *
+     * @param key 键
+     * @return 值，键不存在时为 null；加载器已关闭时以 {@link IllegalStateException} 结束
+     */
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future = futures.get(key);
+        if (future != null) {
+            return future;
+        }
+        List<K> full = null;
+        List<K> scheduled = null;
+        synchronized (lock) {
+            future = futures.get(key);
+            if (future != null) {
+                return future;
+            }
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("BatchLoader is closed"));
+            }
+            future = new CompletableFuture<>();
+            futures.put(key, future);
+            batch.add(key);
+            if (batch.size() >= maxBatchSize) {
+                full = batch;
+                batch = new ArrayList<>();
+            } else if (batch.size() == 1) {
+                scheduled = batch;
+            }
+        }
+        if (full != null) {
+            List<K> keys = full;
+            execute(keys, () -> resolve(keys));
+        } else if (scheduled != null) {
+            List<K> keys = scheduled;
+            execute(keys, () -> {
+                sleep();
+                dispatch(keys);
+            });
+        }
+        return future;
+    }
+
+    /**
+     * 立即发送当前批次，不再等待
+     */
+    public void dispatch() {
+        List<K> keys;
+        synchronized (lock) {
+            keys = batch;
+        }
+        dispatch(keys);
+    }
+
+    /**
+     * 停止接受新的键，发送当前批次并等待已发送的批次完成
+     */
+    @Override
+    public void close() {
+        List<K> keys;
+        synchronized (lock) {
+            closed = true;
+            keys = batch;
+        }
+        dispatch(keys);
+        executor.close();
+    }
+
+    /**
+     * 当前批次仍然是 keys 时发送，已经因为数量达到上限而发送时忽略
+     */
+    private void dispatch(List<K> keys) {
+        synchronized (lock) {
+            if (batch != keys || keys.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>();
+        }
+        execute(keys, () -> resolve(keys));
+    }
+
+    /**
+     * 提交批次的任务，执行器已关闭时以异常结束这些键的查询
+     */
+    private void execute(List<K> keys, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            fail(keys, e);
+        }
+    }
+
+    private void resolve(List<K> keys) {
+        Map<K, V> values;
+        try {
+            values = resolver.resolve(keys);
+        } catch (Throwable e) {
+            fail(keys, e);
+            return;
+        }
+        for (K key : keys) {
+            CompletableFuture<V> future = futures.remove(key);
+            if (future != null) {
+                future.complete(values == null ? null : values.get(key));
+            }
+        }
+    }
+
+    private void fail(List<K> keys, Throwable e) {
+        for (K key : keys) {
+            CompletableFuture<V> future = futures.remove(key);
+            if (future != null) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(windowNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.au92.common.util.rule.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link BatchLoader}
+ *
+ * @author p_x_c
+ */
+class BatchLoaderTest {
+
+    @Test
+    void mergesKeysIntoOneBatch() throws Exception {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        try (BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            batches.add(List.copyOf(keys));
+            return keys.stream()
+                       .collect(Collectors.toMap(Function.identity(), String::valueOf));
+        }, 10, Duration.ofMillis(50))) {
+            CompletableFuture<String> one = loader.load(1);
+            assertSame(one, loader.load(1));
+            CompletableFuture<String> two = loader.load(2);
+            assertEquals("1", one.get());
+            assertEquals("2", two.get());
+        }
+        assertEquals(List.of(List.of(1, 2)), batches);
+    }
+
+    @Test
+    void loadAfterCloseFails() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Map.of());
+        loader.close();
+        CompletableFuture<String> first = loader.load(1);
+        assertTrue(first.isCompletedExceptionally());
+        ExecutionException error = assertThrows(ExecutionException.class, first::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        // 失败的 future 不会留在加载器中
+        CompletableFuture<String> second = loader.load(1);
+        assertNotSame(first, second);
+        assertTrue(second.isCompletedExceptionally());
+    }
+
+    @Test
+    void closeSendsPendingBatch() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Map.of(1, "one"), 10, Duration.ofMillis(200));
+        CompletableFuture<String> future = loader.load(1);
+        loader.close();
+        assertEquals("one", future.get());
+    }
+}
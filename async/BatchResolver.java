@@ -0,0 +1,22 @@
+package com.au92.common.util.rule.async;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量查询外部数据，例如从存储中按用户 ID 查询风险分
+ *
+ * @author p_x_c
+ */
+@FunctionalInterface
+public interface BatchResolver<K, V> {
+
+    /**
+     * 批量查询，在虚拟线程上调用，可以阻塞
+     *
+     * @param keys 不重复的键
+     * @return 键 -> 值，缺少的键按 null 处理
+     * @throws Exception 查询失败，本批次所有键的结果都以该异常结束
+     */
+    Map<K, V> resolve(List<K> keys) throws Exception;
+}
@@ -0,0 +1,144 @@
+package com.au92.common.util.rule.benchmark;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 检查内置条件在稳定状态下的 {@link Condition#evaluate(Object)} 不分配对象。
+ * <p>
+ * 每种条件先预热使 JIT 完成编译，再通过 {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}
+ * 统计连续计算 {@link #ITERATIONS} 次分配的字节数，取 {@link #ROUNDS} 轮中的最小值，输出每次计算的平均分配字节数。
+ * 任一条件分配了对象时以状态码 1 退出，{@code gradle check} 依赖这一检查。自适应顺序的 AND / OR 同样要求不分配：
+ * 求值顺序稳定后重新排序不创建新的快照（见 impl 包中的 AdaptiveOrder）。
+ * <p>
+ * 事实对象的字段值在计算前已经创建；{@link FieldCondition} 的 getter 返回基本类型时由 getter 装箱，不在检查范围内，
+ * 基本类型字段应使用 {@link FieldNameCondition}（见 {@link com.au92.common.util.rule.impl.PrimitiveCondition}）。
+ *
+ * @author p_x_c
+ */
+public class AllocationCheck {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 100_000;
+    private static final int ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    /**
+     * 防止计算被 JIT 消除
+     */
+    private static int sink;
+
+    public static void main(String[] args) {
+        User user = new User("张三", 25, "active", 85.0);
+        Map<String, Case<?>> cases = new LinkedHashMap<>();
+        put(cases, "equal", new EqualCondition<>("active"), "active");
+        put(cases, "notEqual", new NotEqualCondition<>("banned"), "active");
+        put(cases, "greaterThan", new GreaterThanCondition<>(1000), 5000);
+        put(cases, "greaterThanOrEqual", new GreaterThanOrEqualCondition<>(1000), 5000);
+        put(cases, "lessThan", new LessThanCondition<>(1000.0), 85.0);
+        put(cases, "lessThanOrEqual", new LessThanOrEqualCondition<>(1000.0), 85.0);
+        put(cases, "between", new BetweenCondition<>(1000, 9000), 5000);
+        put(cases, "contains", new ContainsCondition("world"), "hello world");
+        put(cases, "notContains", new NotContainsCondition("bad"), "hello world");
+        put(cases, "startsWith", new StartsWithCondition("hello"), "hello world");
+        put(cases, "notStartsWith", new NotStartsWithCondition("bad"), "hello world");
+        put(cases, "endsWith", new EndsWithCondition("world"), "hello world");
+        put(cases, "notEndsWith", new NotEndsWithCondition("bad"), "hello world");
+        put(cases, "isNull", new IsNullCondition<>(), "hello world");
+        put(cases, "isNotNull", new IsNotNullCondition<>(), "hello world");
+        put(cases, "not", new NotCondition<>(new EqualCondition<>("banned")), "active");
+        put(cases, "and", and(false), user);
+        put(cases, "or", or(false), user);
+        put(cases, "adaptiveAnd", and(true), user);
+        put(cases, "adaptiveOr", or(true), user);
+        put(cases, "fieldName(int)", new FieldNameCondition<User, Integer>("age", new BetweenCondition<>(18, 60)), user);
+        put(cases, "fieldName(double)", new FieldNameCondition<User, Double>("score", new GreaterThanCondition<>(80.0)), user);
+        put(cases, "fieldName(String)", new FieldNameCondition<User, String>("status", new EqualCondition<>("active")), user);
+        put(cases, "field", new FieldCondition<>(User::getName, new StartsWithCondition("张")), user);
+        put(cases, "readme", BenchmarkRules.readme(), user);
+
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Case<?>> entry : cases.entrySet()) {
+            double bytes = entry.getValue()
+                                .measure();
+            System.out.printf("%-20s %8.3f bytes/op%n", entry.getKey(), bytes);
+            if (bytes > 0) {
+                failed.add(entry.getKey());
+            }
+        }
+        if (!failed.isEmpty()) {
+            System.out.println("allocating conditions: " + failed);
+            System.exit(1);
+        }
+    }
+
+    private static <T> void put(Map<String, Case<?>> cases, String name, Condition<T> condition, T value) {
+        cases.put(name, new Case<>(condition, value));
+    }
+
+    private static Condition<User> and(boolean adaptive) {
+        AndCondition<User> condition = new AndCondition<>(List.of(new FieldNameCondition<>("age", new GreaterThanCondition<>(18)),
+                                                                  new FieldNameCondition<>("status", new EqualCondition<>("active")),
+                                                                  new FieldNameCondition<>("name", new ContainsCondition("张"))));
+        condition.setAdaptive(adaptive);
+        return condition;
+    }
+
+    private static Condition<User> or(boolean adaptive) {
+        OrCondition<User> condition = new OrCondition<>(List.of(new FieldNameCondition<>("age", new LessThanCondition<>(18)),
+                                                                new FieldNameCondition<>("status", new EqualCondition<>("banned")),
+                                                                new FieldNameCondition<>("name", new EndsWithCondition("三"))));
+        condition.setAdaptive(adaptive);
+        return condition;
+    }
+
+    private record Case<T>(Condition<T> condition, T value) {
+
+        /**
+         * 每次计算分配的字节数
+         */
+        double measure() {
+            run(WARMUP);
+            long min = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long before = THREADS.getCurrentThreadAllocatedBytes();
+                run(ITERATIONS);
+                min = Math.min(min, THREADS.getCurrentThreadAllocatedBytes() - before);
+            }
+            return (double) min / ITERATIONS;
+        }
+
+        private void run(int iterations) {
+            int matched = 0;
+            for (int i = 0; i < iterations; i++) {
+                if (condition.evaluate(value)) {
+                    matched++;
+                }
+            }
+            sink += matched;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.au92.common.util.rule.benchmark;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.RuleBuilder;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 基准测试共用的规则
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+class BenchmarkRules {
+
+    /**
+     * README 中的示例规则：(age > 18) AND (name contains 张 OR name contains 李) AND NOT(status == banned)
+     * AND name endsWith 三 AND name is not null
+     */
+    static Condition<User> readme() {
+        return RuleBuilder.<User>start()
+                          .and()
+                          .field("age", new GreaterThanCondition<Integer>(18))
+                          .or()
+                          .field("name", new ContainsCondition("张"))
+                          .field("name", new ContainsCondition("李"))
+                          .not()
+                          .field("status", new EqualCondition<>("banned"))
+                          .and()
+                          .field("name", new EndsWithCondition("三"))
+                          .and()
+                          .field("name", new IsNotNullCondition<>())
+                          .build();
+    }
+
+    /**
+     * 每层一个 AND / OR 交替嵌套的规则，最内层为 age &lt; 100，对年龄小于 100 的用户恒为 true
+     */
+    static Condition<User> deep(int depth) {
+        Condition<User> condition = new FieldNameCondition<>("age", new LessThanCondition<Integer>(100));
+        for (int i = 0; i < depth; i++) {
+            List<Condition<User>> children = new ArrayList<>();
+            children.add(condition);
+            condition = i % 2 == 0 ? new AndCondition<>(children) : new OrCondition<>(children);
+        }
+        return condition;
+    }
+
+    /**
+     * width 个子条件的 AND，子条件依次比较 age &gt; -1、-2 ……，对非负年龄恒为 true，需要计算全部子条件
+     */
+    static Condition<User> wideAnd(int width) {
+        List<Condition<User>> children = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            children.add(new FieldNameCondition<>("age", new GreaterThanCondition<Integer>(-1 - i)));
+        }
+        return new AndCondition<>(children);
+    }
+
+    /**
+     * width 个子条件的 OR，子条件依次比较 age == -1、-2 ……，对非负年龄恒为 false，需要计算全部子条件
+     */
+    static Condition<User> wideOr(int width) {
+        List<Condition<User>> children = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            children.add(new FieldNameCondition<>("age", new EqualCondition<>(-1 - i)));
+        }
+        return new OrCondition<>(children);
+    }
+}
@@ -0,0 +1,26 @@
+package com.au92.common.util.rule.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 运行本包下的全部基准测试，并启用 GC 分析器输出每次操作的分配字节数（gc.alloc.rate.norm）。
+ * <p>
+ * 第一个参数可以指定要运行的基准测试的正则表达式，例如 {@code StringConditionBenchmark}。
+ *
+ * @author p_x_c
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*Benchmark";
+        Options options = new OptionsBuilder().include(include)
+                                              .addProfiler(GCProfiler.class)
+                                              .shouldFailOnError(true)
+                                              .build();
+        new Runner(options).run();
+    }
+}
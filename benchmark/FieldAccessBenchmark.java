@@ -0,0 +1,65 @@
+package com.au92.common.util.rule.benchmark;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import com.au92.common.util.rule.impl.FieldCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 按字段名读取（{@link FieldNameCondition}）与 getter 函数读取（{@link FieldCondition}）的对比，
+ * 以及 README 规则在 {@link EvaluationContext} 中求值时字段只读一次的收益
+ *
+ * @author p_x_c
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldAccessBenchmark {
+    private Condition<User> byName;
+    private Condition<User> byGetter;
+    private Condition<User> readme;
+    private User user;
+
+    @Setup
+    public void setup() {
+        byName = new FieldNameCondition<>("age", new GreaterThanCondition<Integer>(18));
+        byGetter = new FieldCondition<>(User::getAge, new GreaterThanCondition<>(18));
+        readme = BenchmarkRules.readme();
+        user = new User("张三", 25, "active", 85.0);
+    }
+
+    @Benchmark
+    public boolean fieldName() {
+        return byName.evaluate(user);
+    }
+
+    @Benchmark
+    public boolean getter() {
+        return byGetter.evaluate(user);
+    }
+
+    @Benchmark
+    public boolean readme() {
+        return readme.evaluate(user);
+    }
+
+    @Benchmark
+    public boolean readmeInContext() {
+        return EvaluationContext.evaluate(readme, user);
+    }
+}
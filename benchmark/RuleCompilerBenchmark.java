@@ -0,0 +1,49 @@
+package com.au92.common.util.rule.benchmark;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.compiler.RuleCompiler;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 解释执行与 {@link RuleCompiler} 编译执行的对比
+ *
+ * @author p_x_c
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleCompilerBenchmark {
+    private Condition<User> interpreted;
+    private Condition<User> compiled;
+    private User user;
+
+    @Setup
+    public void setup() {
+        interpreted = BenchmarkRules.readme();
+        compiled = RuleCompiler.compile(interpreted, User.class);
+        user = new User("张三", 25, "active", 85.0);
+    }
+
+    @Benchmark
+    public boolean interpreted() {
+        return interpreted.evaluate(user);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.evaluate(user);
+    }
+}
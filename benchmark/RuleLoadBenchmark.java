@@ -0,0 +1,63 @@
+package com.au92.common.util.rule.benchmark;
+
+import com.au92.common.util.json.JsonUtils;
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.RuleOptimizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 规则构建与 JSON 加载（多态反序列化）的开销
+ *
+ * @author p_x_c
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleLoadBenchmark {
+    private Condition<User> condition;
+    private String json;
+
+    @Setup
+    public void setup() {
+        condition = BenchmarkRules.readme();
+        json = JsonUtils.toJSONString(condition);
+    }
+
+    @Benchmark
+    public Condition<User> build() {
+        return BenchmarkRules.readme();
+    }
+
+    @Benchmark
+    public Condition<User> buildOptimized() {
+        return RuleOptimizer.optimize(BenchmarkRules.readme());
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtils.toJSONString(condition);
+    }
+
+    @Benchmark
+    public Condition<User> fromJson() {
+        return JsonUtils.toObject(json, Condition.class, User.class);
+    }
+
+    @Benchmark
+    public Condition<User> fromJsonOptimized() {
+        return RuleOptimizer.fromJson(json);
+    }
+}
@@ -0,0 +1,105 @@
+package com.au92.common.util.rule.benchmark;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import com.au92.common.util.rule.pattern.StringPatternOptimizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 不同长度文本上字符串条件的开销，以及多个关键字共享自动机（{@link StringPatternOptimizer}）前后的对比
+ *
+ * @author p_x_c
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringConditionBenchmark {
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz 张李王赵";
+    private static final String KEYWORD = "keyword";
+
+    @Param({"16", "256", "4096"})
+    private int length;
+
+    private String text;
+    private Condition<String> contains;
+    private Condition<String> notContains;
+    private Condition<String> startsWith;
+    private Condition<String> endsWith;
+    private Condition<String> keywords;
+    private Condition<String> keywordsOptimized;
+
+    @Setup
+    public void setup() {
+        // 关键字只出现在文本末尾，contains 需要扫描整个文本
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(length + KEYWORD.length());
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        text = builder.append(KEYWORD)
+                      .toString();
+        contains = new ContainsCondition(KEYWORD);
+        notContains = new NotContainsCondition(KEYWORD);
+        startsWith = new StartsWithCondition(KEYWORD);
+        endsWith = new EndsWithCondition(KEYWORD);
+
+        List<Condition<String>> children = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            children.add(new ContainsCondition("missing" + i));
+        }
+        children.add(contains);
+        keywords = new OrCondition<>(children);
+        keywordsOptimized = StringPatternOptimizer.optimize(keywords);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return contains.evaluate(text);
+    }
+
+    @Benchmark
+    public boolean notContains() {
+        return notContains.evaluate(text);
+    }
+
+    @Benchmark
+    public boolean startsWith() {
+        return startsWith.evaluate(text);
+    }
+
+    @Benchmark
+    public boolean endsWith() {
+        return endsWith.evaluate(text);
+    }
+
+    @Benchmark
+    public boolean keywords() {
+        return keywords.evaluate(text);
+    }
+
+    @Benchmark
+    public boolean keywordsOptimized() {
+        return keywordsOptimized.evaluate(text);
+    }
+}
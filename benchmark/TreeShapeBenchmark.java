@@ -0,0 +1,67 @@
+package com.au92.common.util.rule.benchmark;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.RuleOptimizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 深层嵌套与大量并列子条件的 AND / OR 树的求值开销
+ *
+ * @author p_x_c
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeShapeBenchmark {
+    @Param({"4", "16", "64"})
+    private int size;
+
+    private Condition<User> deep;
+    private Condition<User> deepOptimized;
+    private Condition<User> wideAnd;
+    private Condition<User> wideOr;
+    private User user;
+
+    @Setup
+    public void setup() {
+        deep = BenchmarkRules.deep(size);
+        deepOptimized = RuleOptimizer.optimize(deep);
+        wideAnd = BenchmarkRules.wideAnd(size);
+        wideOr = BenchmarkRules.wideOr(size);
+        user = new User("张三", 25, "active", 85.0);
+    }
+
+    @Benchmark
+    public boolean deep() {
+        return deep.evaluate(user);
+    }
+
+    @Benchmark
+    public boolean deepOptimized() {
+        return deepOptimized.evaluate(user);
+    }
+
+    @Benchmark
+    public boolean wideAnd() {
+        return wideAnd.evaluate(user);
+    }
+
+    @Benchmark
+    public boolean wideOr() {
+        return wideOr.evaluate(user);
+    }
+}
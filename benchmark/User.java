@@ -0,0 +1,20 @@
+package com.au92.common.util.rule.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 基准测试使用的事实对象
+ *
+ * @author p_x_c
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class User {
+    private String name;
+    private int age;
+    private String status;
+    private double score;
+}
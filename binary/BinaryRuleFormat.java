@@ -0,0 +1,88 @@
+package com.au92.common.util.rule.binary;
+
+/**
+ * 二进制规则格式的常量。
+ * <p>
+ * 整体布局（多字节定长数值为大端序，varint 为 7 位一组的小端变长整数）：
+ * <pre>
+ * magic:int  version:byte
+ * stringCount:varint  { length:varint  utf8:byte[length] }*
+ * ruleCount:varint    { name:string  node }*
+ * </pre>
+ * 字符串（规则名、字段名、字符串条件的参数、字符串常量）统一存放在字符串表中，引用处写入 "下标 + 1"，0 表示 null。
+ * <p>
+ * 节点以类型标记开头：AND / OR 之后是 "子条件数 + 1"（0 表示子条件列表为 null）及子节点，NOT 之后是子节点，
+ * fieldName 之后是字段名和内部节点，字符串条件之后是参数，比较条件之后是带类型标记的常量。
+ *
+ * @author p_x_c
+ */
+final class BinaryRuleFormat {
+    /**
+     * "RULE"
+     */
+    static final int MAGIC = 0x52554C45;
+    static final int VERSION = 1;
+
+    static final int NULL = 0;
+    static final int AND = 1;
+    static final int ADAPTIVE_AND = 2;
+    static final int OR = 3;
+    static final int ADAPTIVE_OR = 4;
+    static final int NOT = 5;
+    static final int FIELD_NAME = 6;
+    static final int EQUAL = 7;
+    static final int NOT_EQUAL = 8;
+    static final int GREATER_THAN = 9;
+    static final int GREATER_THAN_OR_EQUAL = 10;
+    static final int LESS_THAN = 11;
+    static final int LESS_THAN_OR_EQUAL = 12;
+    static final int BETWEEN = 13;
+    static final int CONTAINS = 14;
+    static final int NOT_CONTAINS = 15;
+    static final int STARTS_WITH = 16;
+    static final int NOT_STARTS_WITH = 17;
+    static final int ENDS_WITH = 18;
+    static final int NOT_ENDS_WITH = 19;
+    static final int IS_NULL = 20;
+    static final int IS_NOT_NULL = 21;
+
+    /**
+     * 常量类型标记
+     */
+    static final int CONSTANT_NULL = 0;
+    static final int CONSTANT_FALSE = 1;
+    static final int CONSTANT_TRUE = 2;
+    /**
+     * zigzag 编码的 varint
+     */
+    static final int CONSTANT_INT = 3;
+    static final int CONSTANT_LONG = 4;
+    static final int CONSTANT_SHORT = 5;
+    static final int CONSTANT_BYTE = 6;
+    /**
+     * IEEE 754 位模式，保留 NaN 与 -0.0
+     */
+    static final int CONSTANT_DOUBLE = 7;
+    static final int CONSTANT_FLOAT = 8;
+    static final int CONSTANT_STRING = 9;
+    static final int CONSTANT_CHAR = 10;
+    /**
+     * 长度 + 补码字节
+     */
+    static final int CONSTANT_BIG_INTEGER = 11;
+    /**
+     * zigzag 编码的 scale + 未缩放值的补码字节
+     */
+    static final int CONSTANT_BIG_DECIMAL = 12;
+    /**
+     * 元素个数 + 元素
+     */
+    static final int CONSTANT_LIST = 13;
+    /**
+     * 键值对个数 + { 字符串键 + 值 }
+     */
+    static final int CONSTANT_MAP = 14;
+
+    private BinaryRuleFormat() {
+    }
+}
@@ -0,0 +1,348 @@
+package com.au92.common.util.rule.binary;
+
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.ADAPTIVE_AND;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.ADAPTIVE_OR;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.AND;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.BETWEEN;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_BIG_DECIMAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_BIG_INTEGER;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_BYTE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_CHAR;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_DOUBLE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_FALSE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_FLOAT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_INT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_LIST;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_LONG;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_MAP;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_SHORT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_STRING;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_TRUE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONTAINS;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.ENDS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.FIELD_NAME;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.GREATER_THAN;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.GREATER_THAN_OR_EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.IS_NOT_NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.IS_NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.LESS_THAN;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.LESS_THAN_OR_EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.MAGIC;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_CONTAINS;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_ENDS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_STARTS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.OR;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.STARTS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.VERSION;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取 {@link BinaryRuleWriter} 写出的二进制规则。
+ * <p>
+ * 直接从 {@link ByteBuffer} 顺序读取，不经过 Jackson；字符串表在开始时一次性解码，同一字符串在所有规则中共享同一实例。
+ * 文件通过 {@link #readAll(Path)} 以只读方式映射到内存后读取，不复制到堆上。
+ *
+ * @author p_x_c
+ */
+public final class BinaryRuleReader {
+    private final ByteBuffer buffer;
+    private String[] strings;
+
+    private BinaryRuleReader(ByteBuffer buffer) {
+        this.buffer = buffer.slice()
+                            .order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * 读取单条规则，数据中有多条规则时返回第一条
+     *
+     * @param bytes 二进制数据
+     * @param <T>   规则适用的对象类型
+     * @return 规则
+     */
+    public static <T> Condition<T> read(byte[] bytes) {
+        Map<String, Condition<T>> rules = readAll(ByteBuffer.wrap(bytes));
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("No rule in data");
+        }
+        return rules.values()
+                    .iterator()
+                    .next();
+    }
+
+    /**
+     * 读取全部规则
+     *
+     * @param bytes 二进制数据
+     * @param <T>   规则适用的对象类型
+     * @return 规则名 -> 规则，按写入顺序排列
+     */
+    public static <T> Map<String, Condition<T>> readAll(byte[] bytes) {
+        return readAll(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 从缓冲区的当前位置读取全部规则，不改变缓冲区的位置
+     *
+     * @param buffer 缓冲区，可以是 {@link java.nio.MappedByteBuffer}
+     * @param <T>    规则适用的对象类型
+     * @return 规则名 -> 规则，按写入顺序排列
+     */
+    public static <T> Map<String, Condition<T>> readAll(ByteBuffer buffer) {
+        try {
+            return new BinaryRuleReader(buffer).rules();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated rule data", e);
+        }
+    }
+
+    /**
+     * 映射文件并读取全部规则
+     *
+     * @param file 文件
+     * @param <T>  规则适用的对象类型
+     * @return 规则名 -> 规则，按写入顺序排列
+     */
+    public static <T> Map<String, Condition<T>> readAll(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 映射在通道关闭后仍然有效
+            return readAll(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private <T> Map<String, Condition<T>> rules() {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary rule file");
+        }
+        int version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary rule version: " + version);
+        }
+        strings = new String[length()];
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = length();
+            if (buffer.hasArray()) {
+                strings[i] = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+        int count = length();
+        Map<String, Condition<T>> rules = new LinkedHashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            String name = string();
+            rules.put(name, node());
+        }
+        return rules;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> Condition<T> node() {
+        int tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case AND:
+            case ADAPTIVE_AND: {
+                AndCondition and = new AndCondition(children());
+                and.setAdaptive(tag == ADAPTIVE_AND);
+                return and;
+            }
+            case OR:
+            case ADAPTIVE_OR: {
+                OrCondition or = new OrCondition(children());
+                or.setAdaptive(tag == ADAPTIVE_OR);
+                return or;
+            }
+            case NOT:
+                return new NotCondition(node());
+            case FIELD_NAME: {
+                String fieldName = string();
+                return new FieldNameCondition(fieldName, node());
+            }
+            case EQUAL:
+                return new EqualCondition(constant());
+            case NOT_EQUAL:
+                return new NotEqualCondition(constant());
+            case GREATER_THAN:
+                return new GreaterThanCondition((Comparable) constant());
+            case GREATER_THAN_OR_EQUAL:
+                return new GreaterThanOrEqualCondition((Comparable) constant());
+            case LESS_THAN:
+                return new LessThanCondition((Comparable) constant());
+            case LESS_THAN_OR_EQUAL:
+                return new LessThanOrEqualCondition((Comparable) constant());
+            case BETWEEN: {
+                Comparable min = (Comparable) constant();
+                return new BetweenCondition(min, (Comparable) constant());
+            }
+            case CONTAINS:
+                return (Condition<T>) new ContainsCondition(string());
+            case NOT_CONTAINS:
+                return (Condition<T>) new NotContainsCondition(string());
+            case STARTS_WITH:
+                return (Condition<T>) new StartsWithCondition(string());
+            case NOT_STARTS_WITH:
+                return (Condition<T>) new NotStartsWithCondition(string());
+            case ENDS_WITH:
+                return (Condition<T>) new EndsWithCondition(string());
+            case NOT_ENDS_WITH:
+                return (Condition<T>) new NotEndsWithCondition(string());
+            case IS_NULL:
+                return new IsNullCondition();
+            case IS_NOT_NULL:
+                return new IsNotNullCondition();
+            default:
+                throw new IllegalArgumentException("Unknown condition tag: " + tag);
+        }
+    }
+
+    private <T> List<Condition<T>> children() {
+        int count = length();
+        if (count == 0) {
+            return null;
+        }
+        List<Condition<T>> children = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            children.add(node());
+        }
+        return children;
+    }
+
+    private Object constant() {
+        int tag = buffer.get();
+        switch (tag) {
+            case CONSTANT_NULL:
+                return null;
+            case CONSTANT_FALSE:
+                return Boolean.FALSE;
+            case CONSTANT_TRUE:
+                return Boolean.TRUE;
+            case CONSTANT_INT:
+                return (int) zigzag();
+            case CONSTANT_LONG:
+                return zigzag();
+            case CONSTANT_SHORT:
+                return (short) zigzag();
+            case CONSTANT_BYTE:
+                return (byte) zigzag();
+            case CONSTANT_DOUBLE:
+                return Double.longBitsToDouble(buffer.getLong());
+            case CONSTANT_FLOAT:
+                return Float.intBitsToFloat(buffer.getInt());
+            case CONSTANT_STRING:
+                return string();
+            case CONSTANT_CHAR:
+                return (char) varint();
+            case CONSTANT_BIG_INTEGER:
+                return new BigInteger(bytes());
+            case CONSTANT_BIG_DECIMAL: {
+                int scale = (int) zigzag();
+                return new BigDecimal(new BigInteger(bytes()), scale);
+            }
+            case CONSTANT_LIST: {
+                int size = length();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(constant());
+                }
+                return list;
+            }
+            case CONSTANT_MAP: {
+                int size = length();
+                Map<String, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    String key = string();
+                    map.put(key, constant());
+                }
+                return map;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown constant tag: " + tag);
+        }
+    }
+
+    private byte[] bytes() {
+        byte[] bytes = new byte[length()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private String string() {
+        int index = length();
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    /**
+     * 读取非负的 int 范围 varint
+     */
+    private int length() {
+        long value = varint();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid length: " + value);
+        }
+        return (int) value;
+    }
+
+    private long varint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private long zigzag() {
+        long value = varint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
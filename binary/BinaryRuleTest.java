@@ -0,0 +1,213 @@
+package com.au92.common.util.rule.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.json.JsonUtils;
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * {@link BinaryRuleWriter} 写出的规则经 {@link BinaryRuleReader} 读回后与原规则相同
+ *
+ * @author p_x_c
+ */
+class BinaryRuleTest {
+    private static final Object[] CONSTANTS = {null, true, false, 0, -1, Integer.MIN_VALUE, 5L, Long.MAX_VALUE, (short) -7, (byte) 3, 0.0, -0.0,
+            Double.NaN, Double.NEGATIVE_INFINITY, 1.5f, Float.NaN, "", "gold", "多字节", 'x', new BigInteger("-123456789012345678901234567890"),
+            new BigDecimal("-0.00"), new BigDecimal("12345678901234567890.123456789"), new BigDecimal("1E+5"), List.of(1, "a"),
+            Map.of("level", 2L)};
+    private static final Object[] COMPARABLES = {0, -1, 5L, (short) -7, (byte) 3, 0.0, -0.0, Double.NaN, 1.5f, "gold", 'x',
+            new BigDecimal("-0.00"), new BigDecimal("1E+5"), BigInteger.TEN};
+    private final Random random = new Random(15);
+
+    @Test
+    void randomTreesRoundTrip() {
+        for (int round = 0; round < 2000; round++) {
+            Condition<Object> condition = tree(4);
+            Condition<Object> read = BinaryRuleReader.read(BinaryRuleWriter.write(condition));
+            assertEquals(JsonUtils.toJSONString(condition), JsonUtils.toJSONString(read));
+            assertSameTree(condition, read, "");
+        }
+    }
+
+    @Test
+    void nullChildren() {
+        AndCondition<Object> and = new AndCondition<>(Arrays.asList(null, new NotCondition<>(null)));
+        and.setAdaptive(true);
+        Condition<Object> condition = new OrCondition<>(List.of(and, new AndCondition<>(), new FieldNameCondition<>("name", null),
+                                                                new FieldNameCondition<>(null, new IsNullCondition<>())));
+        assertSameTree(condition, BinaryRuleReader.read(BinaryRuleWriter.write(condition)), "");
+    }
+
+    @Test
+    void readAllFromFile(@TempDir Path directory) throws Exception {
+        Map<String, Condition<Object>> rules = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            rules.put("rule" + (19 - i), tree(3));
+        }
+        Path file = directory.resolve("rules.bin");
+        BinaryRuleWriter.write(rules, file);
+        Map<String, Condition<Object>> read = BinaryRuleReader.readAll(file);
+        assertEquals(new ArrayList<>(rules.keySet()), new ArrayList<>(read.keySet()));
+        rules.forEach((name, condition) -> assertSameTree(condition, read.get(name), name));
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        byte[] bytes = BinaryRuleWriter.write(Map.of("rule", tree(4)));
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] prefix = Arrays.copyOf(bytes, length);
+            assertThrows(IllegalArgumentException.class, () -> BinaryRuleReader.readAll(prefix), "length " + length);
+        }
+    }
+
+    @Test
+    void corruptDataIsRejected() {
+        byte[] bytes = BinaryRuleWriter.write(new IsNullCondition<>());
+        byte[] magic = bytes.clone();
+        magic[0] = 'X';
+        assertEquals("Not a binary rule file", assertThrows(IllegalArgumentException.class, () -> BinaryRuleReader.read(magic)).getMessage());
+        byte[] version = bytes.clone();
+        version[4] = 99;
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> BinaryRuleReader.read(version)).getMessage()
+                                                                                                    .contains("version"));
+        // 最后一个字节是节点类型
+        byte[] tag = bytes.clone();
+        tag[tag.length - 1] = 99;
+        assertTrue(assertThrows(IllegalArgumentException.class, () -> BinaryRuleReader.read(tag)).getMessage()
+                                                                                                .contains("tag"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<Object> tree(int depth) {
+        int kind = depth == 0 ? 4 + random.nextInt(17) : random.nextInt(21);
+        Comparable comparable = (Comparable) COMPARABLES[random.nextInt(COMPARABLES.length)];
+        return switch (kind) {
+            case 0 -> {
+                AndCondition<Object> and = new AndCondition<>(children(depth));
+                and.setAdaptive(random.nextBoolean());
+                yield and;
+            }
+            case 1 -> {
+                OrCondition<Object> or = new OrCondition<>(children(depth));
+                or.setAdaptive(random.nextBoolean());
+                yield or;
+            }
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            case 3 -> new FieldNameCondition("field" + random.nextInt(3), tree(depth - 1));
+            case 4 -> new EqualCondition<>(CONSTANTS[random.nextInt(CONSTANTS.length)]);
+            case 5 -> new NotEqualCondition<>(CONSTANTS[random.nextInt(CONSTANTS.length)]);
+            case 6 -> new GreaterThanCondition(comparable);
+            case 7 -> new GreaterThanOrEqualCondition(comparable);
+            case 8 -> new LessThanCondition(comparable);
+            case 9 -> new LessThanOrEqualCondition(comparable);
+            case 10 -> new BetweenCondition(comparable, (Comparable) COMPARABLES[random.nextInt(COMPARABLES.length)]);
+            case 11 -> (Condition) new ContainsCondition(text());
+            case 12 -> (Condition) new NotContainsCondition(text());
+            case 13 -> (Condition) new StartsWithCondition(text());
+            case 14 -> (Condition) new NotStartsWithCondition(text());
+            case 15 -> (Condition) new EndsWithCondition(text());
+            case 16 -> (Condition) new NotEndsWithCondition(text());
+            case 17 -> new IsNullCondition<>();
+            case 18 -> new IsNotNullCondition<>();
+            case 19 -> new FieldNameCondition("field", new BetweenCondition(null, comparable));
+            default -> new EqualCondition<>(null);
+        };
+    }
+
+    private List<Condition<Object>> children(int depth) {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        List<Condition<Object>> children = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            children.add(random.nextInt(10) == 0 ? null : tree(depth - 1));
+        }
+        return children;
+    }
+
+    private String text() {
+        String[] texts = {"", "a", "vip", "多字节", null};
+        return texts[random.nextInt(texts.length)];
+    }
+
+    /**
+     * 逐个比较节点类型和非 transient 字段，常量要求类型相同且 equals（Double.equals 区分 -0.0、NaN 等于 NaN）
+     */
+    private static void assertSameTree(Object expected, Object actual, String path) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, path);
+            return;
+        }
+        // 读回的列表、Map 是可修改的实现，只比较内容
+        if (expected instanceof List<?> list) {
+            List<?> other = assertInstanceOf(List.class, actual, path);
+            assertEquals(list.size(), other.size(), path);
+            for (int i = 0; i < list.size(); i++) {
+                assertSameTree(list.get(i), other.get(i), path + "[" + i + "]");
+            }
+            return;
+        }
+        if (expected instanceof Map<?, ?> map) {
+            Map<?, ?> other = assertInstanceOf(Map.class, actual, path);
+            assertEquals(map.keySet(), other.keySet(), path);
+            map.forEach((key, value) -> assertSameTree(value, other.get(key), path + "." + key));
+            return;
+        }
+        assertEquals(expected.getClass(), actual.getClass(), path);
+        if (!(expected instanceof Condition)) {
+            assertEquals(expected, actual, path);
+            if (expected instanceof BigDecimal decimal) {
+                assertEquals(decimal.scale(), ((BigDecimal) actual).scale(), path);
+            }
+            return;
+        }
+        for (Class<?> type = expected.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                try {
+                    assertSameTree(field.get(expected), field.get(actual), path + "." + field.getName());
+                } catch (IllegalAccessException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        }
+    }
+}
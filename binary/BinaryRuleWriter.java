@@ -0,0 +1,354 @@
+package com.au92.common.util.rule.binary;
+
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.ADAPTIVE_AND;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.ADAPTIVE_OR;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.AND;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.BETWEEN;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_BIG_DECIMAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_BIG_INTEGER;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_BYTE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_CHAR;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_DOUBLE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_FALSE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_FLOAT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_INT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_LIST;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_LONG;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_MAP;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_SHORT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_STRING;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONSTANT_TRUE;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.CONTAINS;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.ENDS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.FIELD_NAME;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.GREATER_THAN;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.GREATER_THAN_OR_EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.IS_NOT_NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.IS_NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.LESS_THAN;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.LESS_THAN_OR_EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.MAGIC;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_CONTAINS;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_ENDS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_EQUAL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NOT_STARTS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.NULL;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.OR;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.STARTS_WITH;
+import static com.au92.common.util.rule.binary.BinaryRuleFormat.VERSION;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把规则树写为紧凑的二进制格式（见 {@link BinaryRuleFormat}），由 {@link BinaryRuleReader} 读取。
+ * <p>
+ * 支持 impl 包中除 {@link com.au92.common.util.rule.impl.FieldCondition} 以外的全部条件，即所有可以写为 JSON 的条件，
+ * 按精确类型匹配；常量支持 JSON 可表示的类型（null、布尔、数值、字符串、列表、以字符串为键的 Map）以及其余基本类型的包装类型。
+ * 规则树中出现其他条件或常量时抛出 {@link IllegalArgumentException}。
+ *
+ * @author p_x_c
+ */
+public final class BinaryRuleWriter {
+
+    private BinaryRuleWriter() {
+    }
+
+    /**
+     * 写入单条规则
+     *
+     * @param condition 规则
+     * @return 二进制数据
+     */
+    public static byte[] write(Condition<?> condition) {
+        return write(Collections.singletonMap(null, condition));
+    }
+
+    /**
+     * 写入多条命名规则
+     *
+     * @param rules 规则名 -> 规则，按迭代顺序写入
+     * @return 二进制数据
+     */
+    public static byte[] write(Map<String, ? extends Condition<?>> rules) {
+        Output body = new Output();
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        body.varint(rules.size());
+        rules.forEach((name, condition) -> {
+            body.varint(string(name, strings, table));
+            node(condition, body, strings, table);
+        });
+
+        Output out = new Output();
+        out.int32(MAGIC);
+        out.byte8(VERSION);
+        out.varint(table.size());
+        for (String string : table) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.varint(bytes.length);
+            out.bytes(bytes, bytes.length);
+        }
+        out.bytes(body.buffer, body.size);
+        return out.toByteArray();
+    }
+
+    /**
+     * 写入多条命名规则到文件，文件可通过 {@link BinaryRuleReader#readAll(Path)} 映射读取
+     *
+     * @param rules 规则名 -> 规则
+     * @param file  目标文件
+     */
+    public static void write(Map<String, ? extends Condition<?>> rules, Path file) throws IOException {
+        Files.write(file, write(rules));
+    }
+
+    private static void node(Condition<?> condition, Output out, Map<String, Integer> strings, List<String> table) {
+        if (condition == null) {
+            out.byte8(NULL);
+            return;
+        }
+        Class<?> type = condition.getClass();
+        if (type == AndCondition.class) {
+            AndCondition<?> and = (AndCondition<?>) condition;
+            out.byte8(and.isAdaptive() ? ADAPTIVE_AND : AND);
+            children(and.getConditions(), out, strings, table);
+        } else if (type == OrCondition.class) {
+            OrCondition<?> or = (OrCondition<?>) condition;
+            out.byte8(or.isAdaptive() ? ADAPTIVE_OR : OR);
+            children(or.getConditions(), out, strings, table);
+        } else if (type == NotCondition.class) {
+            out.byte8(NOT);
+            node(((NotCondition<?>) condition).getCondition(), out, strings, table);
+        } else if (type == FieldNameCondition.class) {
+            FieldNameCondition<?, ?> field = (FieldNameCondition<?, ?>) condition;
+            out.byte8(FIELD_NAME);
+            out.varint(string(field.getFieldName(), strings, table));
+            node(field.getInnerCondition(), out, strings, table);
+        } else if (type == EqualCondition.class) {
+            out.byte8(EQUAL);
+            constant(((EqualCondition<?>) condition).getTarget(), out, strings, table);
+        } else if (type == NotEqualCondition.class) {
+            out.byte8(NOT_EQUAL);
+            constant(((NotEqualCondition<?>) condition).getTarget(), out, strings, table);
+        } else if (type == GreaterThanCondition.class) {
+            out.byte8(GREATER_THAN);
+            constant(((GreaterThanCondition<?>) condition).getThreshold(), out, strings, table);
+        } else if (type == GreaterThanOrEqualCondition.class) {
+            out.byte8(GREATER_THAN_OR_EQUAL);
+            constant(((GreaterThanOrEqualCondition<?>) condition).getThreshold(), out, strings, table);
+        } else if (type == LessThanCondition.class) {
+            out.byte8(LESS_THAN);
+            constant(((LessThanCondition<?>) condition).getThreshold(), out, strings, table);
+        } else if (type == LessThanOrEqualCondition.class) {
+            out.byte8(LESS_THAN_OR_EQUAL);
+            constant(((LessThanOrEqualCondition<?>) condition).getThreshold(), out, strings, table);
+        } else if (type == BetweenCondition.class) {
+            out.byte8(BETWEEN);
+            constant(((BetweenCondition<?>) condition).getMin(), out, strings, table);
+            constant(((BetweenCondition<?>) condition).getMax(), out, strings, table);
+        } else if (type == ContainsCondition.class) {
+            stringNode(CONTAINS, ((ContainsCondition) condition).getKeyword(), out, strings, table);
+        } else if (type == NotContainsCondition.class) {
+            stringNode(NOT_CONTAINS, ((NotContainsCondition) condition).getKeyword(), out, strings, table);
+        } else if (type == StartsWithCondition.class) {
+            stringNode(STARTS_WITH, ((StartsWithCondition) condition).getPrefix(), out, strings, table);
+        } else if (type == NotStartsWithCondition.class) {
+            stringNode(NOT_STARTS_WITH, ((NotStartsWithCondition) condition).getPrefix(), out, strings, table);
+        } else if (type == EndsWithCondition.class) {
+            stringNode(ENDS_WITH, ((EndsWithCondition) condition).getSuffix(), out, strings, table);
+        } else if (type == NotEndsWithCondition.class) {
+            stringNode(NOT_ENDS_WITH, ((NotEndsWithCondition) condition).getSuffix(), out, strings, table);
+        } else if (type == IsNullCondition.class) {
+            out.byte8(IS_NULL);
+        } else if (type == IsNotNullCondition.class) {
+            out.byte8(IS_NOT_NULL);
+        } else {
+            throw new IllegalArgumentException("Unsupported condition type: " + type.getName());
+        }
+    }
+
+    private static void children(List<? extends Condition<?>> children, Output out, Map<String, Integer> strings, List<String> table) {
+        if (children == null) {
+            out.varint(0);
+            return;
+        }
+        out.varint(children.size() + 1L);
+        for (Condition<?> child : children) {
+            node(child, out, strings, table);
+        }
+    }
+
+    private static void stringNode(int tag, String argument, Output out, Map<String, Integer> strings, List<String> table) {
+        out.byte8(tag);
+        out.varint(string(argument, strings, table));
+    }
+
+    private static void constant(Object value, Output out, Map<String, Integer> strings, List<String> table) {
+        if (value == null) {
+            out.byte8(CONSTANT_NULL);
+        } else if (value instanceof Boolean bool) {
+            out.byte8(bool ? CONSTANT_TRUE : CONSTANT_FALSE);
+        } else if (value instanceof Integer number) {
+            out.byte8(CONSTANT_INT);
+            out.zigzag(number);
+        } else if (value instanceof Long number) {
+            out.byte8(CONSTANT_LONG);
+            out.zigzag(number);
+        } else if (value instanceof Short number) {
+            out.byte8(CONSTANT_SHORT);
+            out.zigzag(number);
+        } else if (value instanceof Byte number) {
+            out.byte8(CONSTANT_BYTE);
+            out.zigzag(number);
+        } else if (value instanceof Double number) {
+            out.byte8(CONSTANT_DOUBLE);
+            out.int64(Double.doubleToRawLongBits(number));
+        } else if (value instanceof Float number) {
+            out.byte8(CONSTANT_FLOAT);
+            out.int32(Float.floatToRawIntBits(number));
+        } else if (value instanceof String string) {
+            out.byte8(CONSTANT_STRING);
+            out.varint(string(string, strings, table));
+        } else if (value instanceof Character character) {
+            out.byte8(CONSTANT_CHAR);
+            out.varint(character);
+        } else if (value.getClass() == BigInteger.class) {
+            out.byte8(CONSTANT_BIG_INTEGER);
+            byte[] bytes = ((BigInteger) value).toByteArray();
+            out.varint(bytes.length);
+            out.bytes(bytes, bytes.length);
+        } else if (value.getClass() == BigDecimal.class) {
+            out.byte8(CONSTANT_BIG_DECIMAL);
+            out.zigzag(((BigDecimal) value).scale());
+            byte[] bytes = ((BigDecimal) value).unscaledValue()
+                                               .toByteArray();
+            out.varint(bytes.length);
+            out.bytes(bytes, bytes.length);
+        } else if (value instanceof List<?> list) {
+            out.byte8(CONSTANT_LIST);
+            out.varint(list.size());
+            for (Object element : list) {
+                constant(element, out, strings, table);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.byte8(CONSTANT_MAP);
+            out.varint(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new IllegalArgumentException("Unsupported map key: " + entry.getKey());
+                }
+                out.varint(string(key, strings, table));
+                constant(entry.getValue(), out, strings, table);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported constant type: " + value.getClass()
+                                                                                     .getName());
+        }
+    }
+
+    /**
+     * 字符串在表中的引用，null 为 0
+     */
+    private static int string(String value, Map<String, Integer> strings, List<String> table) {
+        if (value == null) {
+            return 0;
+        }
+        Integer index = strings.get(value);
+        if (index == null) {
+            table.add(value);
+            index = table.size();
+            strings.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * 可增长的字节数组
+     */
+    private static final class Output {
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        void byte8(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void int32(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void int64(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void bytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.au92.common.util.rule.cache;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import com.au92.common.util.rule.impl.ConditionWrapper;
+import com.au92.common.util.rule.repository.RuleRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 缓存规则计算结果的装饰器，适用于同一事实对象（同一用户、同一商品）在短时间内被重复计算的场景。
+ * <p>
+ * 缓存键由调用方提供的事实键和规则版本组成：每次计算时从 source 获取当前规则，规则对象与上一次不同时版本号加一并清空缓存，
+ * 因此规则被替换（例如 {@link RuleRepository} 重新加载）后不会命中旧结果；source 在规则未变化时需要返回同一个对象。事实键为 null 或计算抛出异常时不缓存。
+ * <p>
+ * 缓存基于 Guava {@link Cache}：容量有上限，按 LRU 淘汰，可选写入后过期；按 CPU 数分段加锁，读取命中时不加锁。
+ * 要求相同事实键的对象计算结果相同，对象变化后需要调用 {@link #invalidate(Object)}。
+ *
+ * <pre>
+ * Condition&lt;User&gt; cached = new CachingCondition&lt;&gt;(() -&gt; repository.get("vip"), User::getId, 100_000, Duration.ofMinutes(5));
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class CachingCondition<T, K> implements ConditionWrapper<T> {
+    private final Supplier<Condition<T>> source;
+    private final Function<? super T, K> key;
+    private final Cache<Key<K>, Boolean> cache;
+    private volatile Version<T> version = new Version<>(null, 0);
+
+    /**
+     * 缓存固定规则的结果
+     *
+     * @param condition   规则
+     * @param key         从事实对象中取出缓存键
+     * @param maximumSize 最多缓存的结果数
+     */
+    public CachingCondition(Condition<T> condition, Function<? super T, K> key, long maximumSize) {
+        this(() -> condition, key, maximumSize, null);
+    }
+
+    /**
+     * 缓存可替换规则的结果
+     *
+     * @param source      每次计算时获取当前规则
+     * @param key         从事实对象中取出缓存键
+     * @param maximumSize 最多缓存的结果数
+     * @param ttl         写入后的有效期，为 null 时不过期
+     */
+    public CachingCondition(Supplier<Condition<T>> source, Function<? super T, K> key, long maximumSize, Duration ttl) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.key = Objects.requireNonNull(key, "key");
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                                                           .maximumSize(maximumSize)
+                                                           .concurrencyLevel(Math.max(4, Runtime.getRuntime()
+                                                                                                .availableProcessors()))
+                                                           .recordStats();
+        if (ttl != null) {
+            builder.expireAfterWrite(ttl);
+        }
+        this.cache = builder.build();
+    }
+
+    @Override
+    public boolean evaluate(T value) {
+        return evaluate(value, null);
+    }
+
+    @Override
+    public boolean evaluate(T value, EvaluationContext context) {
+        Version<T> current = current();
+        K k = value == null ? null : key.apply(value);
+        if (k == null) {
+            return current.condition.evaluate(value, context);
+        }
+        Key<K> cacheKey = new Key<>(k, current.number);
+        Boolean cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        boolean result = current.condition.evaluate(value, context);
+        cache.put(cacheKey, result);
+        return result;
+    }
+
+    /**
+     * 当前的规则
+     */
+    @Override
+    public Condition<T> unwrap() {
+        return current().condition;
+    }
+
+    /**
+     * 清除一个事实键的结果
+     *
+     * @param key 事实键
+     */
+    public void invalidate(K key) {
+        cache.invalidate(new Key<>(key, version.number));
+    }
+
+    /**
+     * 清除所有结果
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中、未命中、淘汰次数等统计
+     *
+     * @return 统计
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 当前缓存的结果数（近似值）
+     *
+     * @return 结果数
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * 当前规则及其版本号，规则被替换时递增版本号并清空缓存
+     */
+    private Version<T> current() {
+        Condition<T> condition = Objects.requireNonNull(source.get(), "condition");
+        Version<T> current = version;
+        if (current.condition == condition) {
+            return current;
+        }
+        synchronized (this) {
+            current = version;
+            if (current.condition != condition) {
+                current = new Version<>(condition, current.number + 1);
+                version = current;
+                // 旧版本的键不会再被命中，清空只是为了释放容量
+                cache.invalidateAll();
+            }
+        }
+        return current;
+    }
+
+    private record Key<K>(K key, long version) {
+    }
+
+    private record Version<T>(Condition<T> condition, long number) {
+    }
+}
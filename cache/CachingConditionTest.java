@@ -0,0 +1,114 @@
+package com.au92.common.util.rule.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link CachingCondition} 按事实键和规则版本缓存结果
+ *
+ * @author p_x_c
+ */
+class CachingConditionTest {
+
+    @Test
+    void cachesByKey() {
+        Counting rule = new Counting(true);
+        CachingCondition<User, Long> cached = new CachingCondition<>(rule, User::id, 100);
+        assertTrue(cached.evaluate(new User(1L, "a")));
+        // 相同事实键的对象直接使用缓存的结果
+        assertTrue(cached.evaluate(new User(1L, "b")));
+        assertEquals(1, rule.calls.get());
+        assertEquals(1, cached.stats()
+                              .hitCount());
+
+        cached.invalidate(1L);
+        cached.evaluate(new User(1L, "a"));
+        assertEquals(2, rule.calls.get());
+        cached.invalidateAll();
+        assertEquals(0, cached.size());
+    }
+
+    @Test
+    void replacedRuleInvalidatesResults() {
+        Counting first = new Counting(true);
+        AtomicReference<Condition<User>> source = new AtomicReference<>(first);
+        CachingCondition<User, Long> cached = new CachingCondition<>(source::get, User::id, 100, null);
+        User user = new User(1L, "a");
+        assertTrue(cached.evaluate(user));
+        assertSame(first, cached.unwrap());
+
+        Counting second = new Counting(false);
+        source.set(second);
+        assertFalse(cached.evaluate(user));
+        assertSame(second, cached.unwrap());
+        assertEquals(1, second.calls.get());
+
+        // 换回原来的规则对象也是新版本，不会命中第一个版本的结果
+        source.set(first);
+        assertTrue(cached.evaluate(user));
+        assertEquals(2, first.calls.get());
+        cached.evaluate(user);
+        assertEquals(2, first.calls.get());
+
+        source.set(null);
+        assertThrows(NullPointerException.class, () -> cached.evaluate(user));
+    }
+
+    @Test
+    void nullKeysAreNotCached() {
+        Counting rule = new Counting(true);
+        CachingCondition<User, Long> cached = new CachingCondition<>(rule, User::id, 100);
+        assertTrue(cached.evaluate(new User(null, "a")));
+        assertTrue(cached.evaluate(new User(null, "a")));
+        assertTrue(cached.evaluate(null));
+        assertEquals(3, rule.calls.get());
+        assertEquals(0, cached.size());
+    }
+
+    @Test
+    void exceptionsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        Condition<User> flaky = user -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("unavailable");
+            }
+            return true;
+        };
+        CachingCondition<User, Long> cached = new CachingCondition<>(flaky, User::id, 100);
+        User user = new User(1L, "a");
+        assertThrows(IllegalStateException.class, () -> cached.evaluate(user));
+        assertEquals(0, cached.size());
+        assertTrue(cached.evaluate(user));
+        assertTrue(cached.evaluate(user));
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * 返回固定结果并记录计算次数
+     */
+    private static final class Counting implements Condition<User> {
+        private final boolean result;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        Counting(boolean result) {
+            this.result = result;
+        }
+
+        @Override
+        public boolean evaluate(User value) {
+            calls.incrementAndGet();
+            return result;
+        }
+    }
+
+    public record User(Long id, String name) {
+    }
+}
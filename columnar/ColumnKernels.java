@@ -0,0 +1,29 @@
+package com.au92.common.util.rule.columnar;
+
+/**
+ * 在列数组上计算范围比较，结果与选择位图按位与：第 i 行不满足时清除 selection 的第 i 位。
+ * <p>
+ * 满足条件为 min &lt;= value &lt;= max，negate 为 true 时取反；selection 中为 0 的 long 可以跳过。
+ *
+ * @author p_x_c
+ */
+interface ColumnKernels {
+
+    void intRange(int[] values, int size, int min, int max, boolean negate, long[] selection);
+
+    void longRange(long[] values, int size, long min, long max, boolean negate, long[] selection);
+
+    /**
+     * 浮点列按 {@link #key(double)} 转换后比较，min / max 也是转换后的值
+     */
+    void doubleRange(double[] values, int size, long min, long max, boolean negate, long[] selection);
+
+    /**
+     * 把 double 转换为 long，转换后的有符号大小顺序与 {@link Double#compare(double, double)} 一致：
+     * NaN 统一为 {@link Double#doubleToLongBits(double)} 的规范值且最大，-0.0 小于 0.0
+     */
+    static long key(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) >>> 1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.au92.common.util.rule.columnar;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 按列存放的一批事实，每个字段一个数组，第 i 行由各列的第 i 个元素组成。
+ * <p>
+ * 列名对应 {@link com.au92.common.util.rule.impl.FieldNameCondition} 的字段名。int / long / double 列由
+ * {@link ColumnarEvaluator} 直接在数组上比较，其他类型使用对象数组，逐行交给条件计算。数组不会被复制，计算期间不能修改。
+ *
+ * <pre>
+ * ColumnarBatch batch = new ColumnarBatch(ages.length).add("age", ages)
+ *                                                     .add("score", scores)
+ *                                                     .add("status", statuses);
+ * BitSet matched = ColumnarEvaluator.evaluate(condition, batch);
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class ColumnarBatch {
+    private final int size;
+    private final Map<String, Object> columns = new HashMap<>();
+
+    /**
+     * @param size 行数，每一列的长度不能小于行数
+     */
+    public ColumnarBatch(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        this.size = size;
+    }
+
+    public ColumnarBatch add(String name, int[] values) {
+        return put(name, values, values.length);
+    }
+
+    public ColumnarBatch add(String name, long[] values) {
+        return put(name, values, values.length);
+    }
+
+    public ColumnarBatch add(String name, double[] values) {
+        return put(name, values, values.length);
+    }
+
+    /**
+     * 添加对象列，元素可以为 null
+     */
+    public ColumnarBatch add(String name, Object[] values) {
+        return put(name, values, values.length);
+    }
+
+    /**
+     * 行数
+     *
+     * @return 行数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否包含列
+     *
+     * @param name 列名
+     * @return 是否包含
+     */
+    public boolean contains(String name) {
+        return columns.containsKey(name);
+    }
+
+    /**
+     * 列数组：int[]、long[]、double[] 或 Object[]
+     */
+    Object column(String name) {
+        Object column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("column not found: " + name);
+        }
+        return column;
+    }
+
+    private ColumnarBatch put(String name, Object values, int length) {
+        Objects.requireNonNull(name, "name");
+        if (length < size) {
+            throw new IllegalArgumentException("column " + name + " has " + length + " values, expected " + size);
+        }
+        columns.put(name, values);
+        return this;
+    }
+}
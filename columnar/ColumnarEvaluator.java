@@ -0,0 +1,262 @@
+package com.au92.common.util.rule.columnar;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.DoubleRangeCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.LongRangeCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.PrimitiveCondition;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntPredicate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 在 {@link ColumnarBatch} 上按列计算规则，结果是满足条件的行组成的位图。
+ * <p>
+ * 计算时维护一个选择位图：AND 依次用子条件清除不满足的行，OR 只把尚未满足的行交给下一个子条件，NOT 取选中行中子条件不满足的部分，
+ * 都是对 long 数组的位运算，与逐行计算时的短路一致。{@link FieldNameCondition} 选择同名的列，
+ * 其中 int / long / double 列上的比较条件（&gt;、&gt;=、&lt;、&lt;=、BETWEEN、==、!=）
+ * 按 {@link PrimitiveCondition#specialize(Condition, Class)} 转换为范围比较，在数组上批量计算，浮点数按
+ * {@link Double#compare(double, double)} 的语义比较（NaN 最大，-0.0 小于 0.0），与逐行计算的结果相同。
+ * <p>
+ * jar 中包含 VectorKernels（构建时指定 -Pvector）且运行时启用了 jdk.incubator.vector 模块（{@code --add-modules jdk.incubator.vector}）时
+ * 通过 Vector API 比较，否则逐行比较，结果相同。其他条件以及对象列逐行计算，只计算仍被选中的行；规则树的根节点只能是 AND / OR / NOT / fieldName。
+ *
+ * <pre>
+ * ColumnarBatch batch = new ColumnarBatch(size).add("age", ages)
+ *                                              .add("score", scores);
+ * BitSet matched = ColumnarEvaluator.evaluate(condition, batch);
+ * </pre>
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+public class ColumnarEvaluator {
+    private static final ColumnKernels KERNELS = loadKernels();
+
+    /**
+     * 计算满足条件的行
+     *
+     * @param condition 规则
+     * @param batch     按列存放的事实
+     * @return 满足条件的行号
+     */
+    public static BitSet evaluate(Condition<?> condition, ColumnarBatch batch) {
+        return BitSet.valueOf(mark(condition, batch));
+    }
+
+    /**
+     * 计算满足条件的行数
+     *
+     * @param condition 规则
+     * @param batch     按列存放的事实
+     * @return 行数
+     */
+    public static int count(Condition<?> condition, ColumnarBatch batch) {
+        int count = 0;
+        for (long word : mark(condition, batch)) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * 数值比较是否通过 Vector API 计算
+     *
+     * @return 是否使用 Vector API
+     */
+    public static boolean isVectorized() {
+        return KERNELS.getClass() != ScalarKernels.class;
+    }
+
+    private static long[] mark(Condition<?> condition, ColumnarBatch batch) {
+        int size = batch.size();
+        long[] selection = new long[(size + 63) >>> 6];
+        Arrays.fill(selection, -1L);
+        if ((size & 63) != 0) {
+            selection[selection.length - 1] = (1L << size) - 1;
+        }
+        markRow(condition, batch, selection);
+        return selection;
+    }
+
+    /**
+     * 作用于整行的条件
+     */
+    @SuppressWarnings("unchecked")
+    private static void markRow(Condition<?> condition, ColumnarBatch batch, long[] selection) {
+        Class<?> type = condition == null ? null : condition.getClass();
+        if (type == AndCondition.class) {
+            for (Condition<?> child : ((AndCondition<?>) condition).getConditions()) {
+                if (isEmpty(selection)) {
+                    return;
+                }
+                markRow(child, batch, selection);
+            }
+        } else if (type == OrCondition.class) {
+            List<? extends Condition<?>> children = ((OrCondition<?>) condition).getConditions();
+            or(children, selection, (child, remaining) -> markRow(child, batch, remaining));
+        } else if (type == NotCondition.class) {
+            long[] matched = selection.clone();
+            markRow(((NotCondition<?>) condition).getCondition(), batch, matched);
+            andNot(selection, matched);
+        } else if (type == FieldNameCondition.class) {
+            FieldNameCondition<?, Object> field = (FieldNameCondition<?, Object>) condition;
+            markColumn(field.getInnerCondition(), batch.column(field.getFieldName()), batch.size(), selection);
+        } else {
+            throw new IllegalArgumentException("columnar evaluation requires AND / OR / NOT / fieldName at the row level, got " + type);
+        }
+    }
+
+    /**
+     * 作用于一列字段值的条件
+     */
+    @SuppressWarnings("unchecked")
+    private static void markColumn(Condition<?> condition, Object column, int size, long[] selection) {
+        if (isEmpty(selection)) {
+            return;
+        }
+        Class<?> type = condition == null ? null : condition.getClass();
+        if (type == AndCondition.class) {
+            for (Condition<?> child : ((AndCondition<?>) condition).getConditions()) {
+                markColumn(child, column, size, selection);
+            }
+            return;
+        } else if (type == OrCondition.class) {
+            List<? extends Condition<?>> children = ((OrCondition<?>) condition).getConditions();
+            or(children, selection, (child, remaining) -> markColumn(child, column, size, remaining));
+            return;
+        } else if (type == NotCondition.class) {
+            long[] matched = selection.clone();
+            markColumn(((NotCondition<?>) condition).getCondition(), column, size, matched);
+            andNot(selection, matched);
+            return;
+        }
+
+        PrimitiveCondition primitive = PrimitiveCondition.specialize(condition, column.getClass()
+                                                                                      .getComponentType());
+        if (primitive instanceof LongRangeCondition range) {
+            if (range.getMin() > range.getMax()) {
+                if (!range.isNegate()) {
+                    Arrays.fill(selection, 0);
+                }
+            } else if (column instanceof int[] values) {
+                markInt(values, size, range, selection);
+            } else {
+                KERNELS.longRange((long[]) column, size, range.getMin(), range.getMax(), range.isNegate(), selection);
+            }
+        } else if (primitive instanceof DoubleRangeCondition range && column instanceof double[] values) {
+            // 转换后相邻的 long 对应 Double.compare 顺序中相邻的 double，开区间改为闭区间
+            long min = ColumnKernels.key(range.getMin());
+            long max = ColumnKernels.key(range.getMax());
+            boolean empty = (!range.isMinInclusive() && min++ == Long.MAX_VALUE) || (!range.isMaxInclusive() && max-- == Long.MIN_VALUE) || min > max;
+            if (!empty) {
+                KERNELS.doubleRange(values, size, min, max, range.isNegate(), selection);
+            } else if (!range.isNegate()) {
+                Arrays.fill(selection, 0);
+            }
+        } else if (primitive instanceof DoubleRangeCondition range) {
+            // int 列与小数阈值比较
+            int[] values = (int[]) column;
+            forEachSelected(selection, size, i -> range.test(values[i]));
+        } else {
+            Condition<Object> leaf = (Condition<Object>) condition;
+            forEachSelected(selection, size, i -> leaf.evaluate(value(column, i)));
+        }
+    }
+
+    /**
+     * 超出 int 范围的边界收缩到 int 范围内
+     */
+    private static void markInt(int[] values, int size, LongRangeCondition range, long[] selection) {
+        if (range.getMin() > Integer.MAX_VALUE || range.getMax() < Integer.MIN_VALUE) {
+            if (!range.isNegate()) {
+                Arrays.fill(selection, 0);
+            }
+            return;
+        }
+        int min = (int) Math.max(range.getMin(), Integer.MIN_VALUE);
+        int max = (int) Math.min(range.getMax(), Integer.MAX_VALUE);
+        KERNELS.intRange(values, size, min, max, range.isNegate(), selection);
+    }
+
+    /**
+     * 依次把尚未满足的行交给子条件，结果为满足任一子条件的行
+     */
+    private static void or(List<? extends Condition<?>> children, long[] selection, BiConsumer<Condition<?>, long[]> marker) {
+        long[] remaining = selection.clone();
+        long[] matched = new long[selection.length];
+        for (Condition<?> child : children) {
+            if (isEmpty(remaining)) {
+                break;
+            }
+            long[] current = remaining.clone();
+            marker.accept(child, current);
+            for (int w = 0; w < current.length; w++) {
+                matched[w] |= current[w];
+                remaining[w] &= ~current[w];
+            }
+        }
+        System.arraycopy(matched, 0, selection, 0, selection.length);
+    }
+
+    private static void andNot(long[] selection, long[] excluded) {
+        for (int w = 0; w < selection.length; w++) {
+            selection[w] &= ~excluded[w];
+        }
+    }
+
+    private static boolean isEmpty(long[] selection) {
+        for (long word : selection) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 逐行计算仍被选中的行，不满足时清除
+     */
+    private static void forEachSelected(long[] selection, int size, IntPredicate predicate) {
+        for (int w = 0; w < selection.length; w++) {
+            long word = selection[w];
+            while (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (index < size && !predicate.test(index)) {
+                    selection[w] &= ~(1L << index);
+                }
+                word &= word - 1;
+            }
+        }
+    }
+
+    private static Object value(Object column, int index) {
+        if (column instanceof int[] values) {
+            return values[index];
+        } else if (column instanceof long[] values) {
+            return values[index];
+        } else if (column instanceof double[] values) {
+            return values[index];
+        }
+        return ((Object[]) column)[index];
+    }
+
+    /**
+     * 构建时没有编译 VectorKernels 或运行时没有 jdk.incubator.vector 模块时加载会失败，使用逐行比较
+     */
+    private static ColumnKernels loadKernels() {
+        try {
+            return (ColumnKernels) Class.forName(ColumnarEvaluator.class.getPackageName() + ".VectorKernels")
+                                        .getDeclaredConstructor()
+                                        .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernels();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.au92.common.util.rule.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link ColumnarEvaluator} 与逐行计算的结果相同。
+ * <p>
+ * 构建时指定 -Pvector 会把 VectorKernels 加入测试的运行时并设置 {@code rule.vector}，此时要求确实通过 Vector API 计算。
+ *
+ * @author p_x_c
+ */
+class ColumnarEvaluatorTest {
+    private static final int[] SIZES = {0, 1, 63, 64, 65, 127, 128, 129, 1000};
+    private static final int[] INTS = {-3, -1, 0, 1, 2, 3, Integer.MIN_VALUE, Integer.MAX_VALUE};
+    private static final long[] LONGS = {-3, 0, 2, 3, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE + 1L};
+    private static final double[] DOUBLES = {Double.NaN, 0.0, -0.0, 1.5, -2.5, 3.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE};
+    private static final Object[] STRINGS = {null, "", "gold", "silver", "go"};
+    /**
+     * int 列上的阈值：Integer、超出 int 范围的 Long、需要收缩到整数的小数
+     */
+    private static final Object[] INT_THRESHOLDS = {-1, 0, 2, Integer.MIN_VALUE, Integer.MAX_VALUE, 2L, Long.MAX_VALUE, Long.MIN_VALUE,
+            Integer.MAX_VALUE + 1L, 2.5, -0.5, 0.0, Double.NaN, 1e10};
+    /**
+     * long 与 double 之间不能无损转换，逐行计算时不能比较，long 列只用整数阈值、double 列不用 Long 阈值
+     */
+    private static final Object[] LONG_THRESHOLDS = {0L, 3L, Long.MIN_VALUE, Long.MAX_VALUE, 2, Integer.MIN_VALUE};
+    private static final Object[] DOUBLE_THRESHOLDS = {Double.NaN, 0.0, -0.0, 1.5, 3.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, 2, -3};
+
+    private final Random random = new Random(20);
+
+    @Test
+    void matchesRowWiseEvaluation() {
+        for (int size : SIZES) {
+            for (int round = 0; round < 150; round++) {
+                Map<String, Object[]> rows = new HashMap<>();
+                ColumnarBatch batch = batch(size, rows);
+                Condition<Map<String, Object>> condition = tree(3);
+                BitSet expected = new BitSet();
+                for (int i = 0; i < size; i++) {
+                    Map<String, Object> row = new HashMap<>();
+                    int index = i;
+                    rows.forEach((name, values) -> row.put(name, values[index]));
+                    if (condition.evaluate(row)) {
+                        expected.set(i);
+                    }
+                }
+                assertEquals(expected, ColumnarEvaluator.evaluate(condition, batch), "size " + size + " round " + round);
+                assertEquals(expected.cardinality(), ColumnarEvaluator.count(condition, batch));
+            }
+        }
+    }
+
+    @Test
+    void usesVectorKernelsWhenBuiltWithVector() {
+        assertEquals(Boolean.getBoolean("rule.vector"), ColumnarEvaluator.isVectorized());
+    }
+
+    @Test
+    void rejectsUnsupportedRoot() {
+        ColumnarBatch batch = new ColumnarBatch(1).add("i", new int[]{1});
+        assertThrows(IllegalArgumentException.class, () -> ColumnarEvaluator.evaluate(new EqualCondition<>(1), batch));
+        assertThrows(IllegalArgumentException.class, () -> ColumnarEvaluator.evaluate(new FieldNameCondition<>("x", new EqualCondition<>(1)), batch));
+    }
+
+    private ColumnarBatch batch(int size, Map<String, Object[]> rows) {
+        int[] ints = new int[size];
+        long[] longs = new long[size];
+        double[] doubles = new double[size];
+        Object[] strings = new Object[size];
+        Object[] intRows = new Object[size];
+        Object[] longRows = new Object[size];
+        Object[] doubleRows = new Object[size];
+        for (int i = 0; i < size; i++) {
+            ints[i] = INTS[random.nextInt(INTS.length)];
+            longs[i] = LONGS[random.nextInt(LONGS.length)];
+            doubles[i] = DOUBLES[random.nextInt(DOUBLES.length)];
+            strings[i] = STRINGS[random.nextInt(STRINGS.length)];
+            intRows[i] = ints[i];
+            longRows[i] = longs[i];
+            doubleRows[i] = doubles[i];
+        }
+        rows.put("i", intRows);
+        rows.put("l", longRows);
+        rows.put("d", doubleRows);
+        rows.put("s", strings);
+        return new ColumnarBatch(size).add("i", ints)
+                                      .add("l", longs)
+                                      .add("d", doubles)
+                                      .add("s", strings);
+    }
+
+    private Condition<Map<String, Object>> tree(int depth) {
+        int kind = depth == 0 ? 3 : random.nextInt(4);
+        return switch (kind) {
+            case 0 -> new AndCondition<>(children(depth));
+            case 1 -> new OrCondition<>(children(depth));
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            default -> {
+                String field = "ilds".substring(random.nextInt(4))
+                                     .substring(0, 1);
+                yield new FieldNameCondition<>(field, column(field, 2));
+            }
+        };
+    }
+
+    private List<Condition<Map<String, Object>>> children(int depth) {
+        List<Condition<Map<String, Object>>> children = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            children.add(tree(depth - 1));
+        }
+        return children;
+    }
+
+    /**
+     * 作用于一列的条件，列内也可以有 AND / OR / NOT
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<Object> column(String field, int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(8) : random.nextInt(11);
+        if (kind < 3) {
+            List<Condition<Object>> children = new ArrayList<>();
+            for (int i = random.nextInt(3); i >= 0; i--) {
+                children.add(column(field, depth - 1));
+            }
+            return kind == 0 ? new AndCondition<>(children) : kind == 1 ? new OrCondition<>(children) : new NotCondition<>(children.get(0));
+        }
+        if (field.equals("s")) {
+            return kind % 2 == 0 ? (Condition) new StartsWithCondition("go") : kind % 3 == 0 ? new IsNullCondition<>() : new EqualCondition<>("gold");
+        }
+        Object[] thresholds = switch (field) {
+            case "i" -> INT_THRESHOLDS;
+            case "l" -> LONG_THRESHOLDS;
+            default -> DOUBLE_THRESHOLDS;
+        };
+        Comparable threshold = (Comparable) thresholds[random.nextInt(thresholds.length)];
+        return switch (kind) {
+            case 3 -> new GreaterThanCondition(threshold);
+            case 4 -> new GreaterThanOrEqualCondition(threshold);
+            case 5 -> new LessThanCondition(threshold);
+            case 6 -> new LessThanOrEqualCondition(threshold);
+            case 7 -> new BetweenCondition(threshold, (Comparable) thresholds[random.nextInt(thresholds.length)]);
+            case 8 -> new EqualCondition<>(threshold);
+            case 9 -> new NotEqualCondition<>(threshold);
+            default -> new IsNullCondition<>();
+        };
+    }
+}
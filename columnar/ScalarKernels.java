@@ -0,0 +1,66 @@
+package com.au92.common.util.rule.columnar;
+
+/**
+ * 逐行比较，不支持 Vector API 时使用，也用于向量计算剩余不足一个 long 的行
+ *
+ * @author p_x_c
+ */
+class ScalarKernels implements ColumnKernels {
+
+    @Override
+    public void intRange(int[] values, int size, int min, int max, boolean negate, long[] selection) {
+        for (int w = 0; w < selection.length; w++) {
+            if (selection[w] == 0) {
+                continue;
+            }
+            int from = w << 6;
+            int to = Math.min(size, from + 64);
+            long word = 0;
+            for (int i = from; i < to; i++) {
+                int value = values[i];
+                if (value >= min && value <= max) {
+                    word |= 1L << i;
+                }
+            }
+            selection[w] &= negate ? ~word : word;
+        }
+    }
+
+    @Override
+    public void longRange(long[] values, int size, long min, long max, boolean negate, long[] selection) {
+        for (int w = 0; w < selection.length; w++) {
+            if (selection[w] == 0) {
+                continue;
+            }
+            int from = w << 6;
+            int to = Math.min(size, from + 64);
+            long word = 0;
+            for (int i = from; i < to; i++) {
+                long value = values[i];
+                if (value >= min && value <= max) {
+                    word |= 1L << i;
+                }
+            }
+            selection[w] &= negate ? ~word : word;
+        }
+    }
+
+    @Override
+    public void doubleRange(double[] values, int size, long min, long max, boolean negate, long[] selection) {
+        for (int w = 0; w < selection.length; w++) {
+            if (selection[w] == 0) {
+                continue;
+            }
+            int from = w << 6;
+            int to = Math.min(size, from + 64);
+            long word = 0;
+            for (int i = from; i < to; i++) {
+                long key = ColumnKernels.key(values[i]);
+                if (key >= min && key <= max) {
+                    word |= 1L << i;
+                }
+            }
+            selection[w] &= negate ? ~word : word;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.au92.common.util.rule.columnar;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 通过 jdk.incubator.vector 比较，每次比较一个向量的元素，比较结果的掩码直接拼接为位图中的 long。
+ * <p>
+ * 首选向量长度的元素数是 2 的幂且不超过 64，因此每个 long 恰好由整数个向量组成；最后不足 64 行的部分逐行比较。
+ * 该类只通过反射加载（见 {@link ColumnarEvaluator}），运行时没有 jdk.incubator.vector 模块时不会被加载。
+ * 编译需要 jdk.incubator.vector，因此不属于 main source set，只在构建时指定 -Pvector 才编译并打入 jar。
+ *
+ * @author p_x_c
+ */
+final class VectorKernels implements ColumnKernels {
+    private static final VectorSpecies<Integer> INT = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONG = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLE = DoubleVector.SPECIES_PREFERRED;
+    private static final long CANONICAL_NAN = Double.doubleToLongBits(Double.NaN);
+
+    @Override
+    public void intRange(int[] values, int size, int min, int max, boolean negate, long[] selection) {
+        int lanes = INT.length();
+        for (int w = 0; w < selection.length; w++) {
+            if (selection[w] == 0) {
+                continue;
+            }
+            int from = w << 6;
+            long word = 0;
+            if (from + 64 <= size) {
+                for (int i = 0; i < 64; i += lanes) {
+                    IntVector vector = IntVector.fromArray(INT, values, from + i);
+                    VectorMask<Integer> mask = vector.compare(VectorOperators.GE, min)
+                                                     .and(vector.compare(VectorOperators.LE, max));
+                    word |= mask.toLong() << i;
+                }
+            } else {
+                for (int i = from; i < size; i++) {
+                    if (values[i] >= min && values[i] <= max) {
+                        word |= 1L << i;
+                    }
+                }
+            }
+            selection[w] &= negate ? ~word : word;
+        }
+    }
+
+    @Override
+    public void longRange(long[] values, int size, long min, long max, boolean negate, long[] selection) {
+        int lanes = LONG.length();
+        for (int w = 0; w < selection.length; w++) {
+            if (selection[w] == 0) {
+                continue;
+            }
+            int from = w << 6;
+            long word = 0;
+            if (from + 64 <= size) {
+                for (int i = 0; i < 64; i += lanes) {
+                    LongVector vector = LongVector.fromArray(LONG, values, from + i);
+                    VectorMask<Long> mask = vector.compare(VectorOperators.GE, min)
+                                                  .and(vector.compare(VectorOperators.LE, max));
+                    word |= mask.toLong() << i;
+                }
+            } else {
+                for (int i = from; i < size; i++) {
+                    if (values[i] >= min && values[i] <= max) {
+                        word |= 1L << i;
+                    }
+                }
+            }
+            selection[w] &= negate ? ~word : word;
+        }
+    }
+
+    @Override
+    public void doubleRange(double[] values, int size, long min, long max, boolean negate, long[] selection) {
+        int lanes = DOUBLE.length();
+        for (int w = 0; w < selection.length; w++) {
+            if (selection[w] == 0) {
+                continue;
+            }
+            int from = w << 6;
+            long word = 0;
+            if (from + 64 <= size) {
+                for (int i = 0; i < 64; i += lanes) {
+                    DoubleVector vector = DoubleVector.fromArray(DOUBLE, values, from + i);
+                    // 与 ColumnKernels.key 相同：先把所有 NaN 统一为规范值，再翻转负数除符号位外的位
+                    LongVector bits = vector.viewAsIntegralLanes()
+                                            .blend(CANONICAL_NAN, vector.test(VectorOperators.IS_NAN)
+                                                                        .cast(LONG));
+                    LongVector key = bits.lanewise(VectorOperators.XOR, bits.lanewise(VectorOperators.ASHR, 63)
+                                                                            .lanewise(VectorOperators.LSHR, 1));
+                    VectorMask<Long> mask = key.compare(VectorOperators.GE, min)
+                                               .and(key.compare(VectorOperators.LE, max));
+                    word |= mask.toLong() << i;
+                }
+            } else {
+                for (int i = from; i < size; i++) {
+                    long key = ColumnKernels.key(values[i]);
+                    if (key >= min && key <= max) {
+                        word |= 1L << i;
+                    }
+                }
+            }
+            selection[w] &= negate ? ~word : word;
+        }
+    }
+}
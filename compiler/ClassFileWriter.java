@@ -0,0 +1,331 @@
+package com.au92.common.util.rule.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 极简的 class 文件生成器，只支持规则编译需要的指令子集。
+ * <p>
+ * 生成的 class 版本为 49（Java 5），因此无需计算 StackMapTable，由 JVM 的类型推导校验器完成校验。
+ *
+ * @author p_x_c
+ */
+final class ClassFileWriter {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ALOAD = 0x19;
+    static final int ASTORE = 0x3a;
+    static final int AALOAD = 0x32;
+    static final int ICONST_0 = 0x03;
+    static final int ICONST_1 = 0x04;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int IRETURN = 0xac;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int CHECKCAST = 0xc0;
+    static final int I2L = 0x85;
+    static final int I2D = 0x87;
+    static final int F2D = 0x8d;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IFLT = 0x9b;
+    static final int IFGE = 0x9c;
+    static final int IFGT = 0x9d;
+    static final int IFLE = 0x9e;
+    static final int GOTO = 0xa7;
+    static final int IFNULL = 0xc6;
+    static final int IFNONNULL = 0xc7;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+    private final List<byte[]> methods = new ArrayList<>();
+
+    /**
+     * 添加 UTF8 常量
+     */
+    int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        }, 1);
+    }
+
+    /**
+     * 添加类常量，参数为内部名称，例如 {@code java/lang/Object}
+     */
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(7);
+            out.writeShort(name);
+        }, 1);
+    }
+
+    int integer(int value) {
+        return constant("I" + value, out -> {
+            out.writeByte(3);
+            out.writeInt(value);
+        }, 1);
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(11, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int typeIndex = utf8(descriptor);
+        int nameAndType = constant("N" + name + ":" + descriptor, out -> {
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(typeIndex);
+        }, 1);
+        return constant(tag + owner + "." + name + ":" + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        }, 1);
+    }
+
+    private int constant(String key, PoolEntry entry, int slots) {
+        Integer index = poolIndex.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            entry.write(poolOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int current = poolCount;
+        poolCount += slots;
+        if (poolCount > 0xFFFF) {
+            throw new IllegalStateException("Constant pool overflow");
+        }
+        poolIndex.put(key, current);
+        return current;
+    }
+
+    /**
+     * 添加一个方法
+     */
+    void method(int access, String name, String descriptor, Code code) {
+        int nameIndex = utf8(name);
+        int descIndex = utf8(descriptor);
+        int codeIndex = utf8("Code");
+        byte[] bytecode = code.toByteArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(access);
+            out.writeShort(nameIndex);
+            out.writeShort(descIndex);
+            out.writeShort(1);
+            out.writeShort(codeIndex);
+            out.writeInt(12 + bytecode.length);
+            out.writeShort(code.maxStack);
+            out.writeShort(code.maxLocals);
+            out.writeInt(bytecode.length);
+            out.write(bytecode);
+            // exception_table_length, attributes_count
+            out.writeShort(0);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(bytes.toByteArray());
+    }
+
+    /**
+     * 输出完整的 class 文件
+     */
+    byte[] toByteArray(int access, String thisClass, String superClass, String... interfaces) {
+        int thisIndex = classRef(thisClass);
+        int superIndex = classRef(superClass);
+        int[] interfaceIndexes = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceIndexes[i] = classRef(interfaces[i]);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(poolCount);
+            poolOut.flush();
+            pool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(interfaceIndexes.length);
+            for (int index : interfaceIndexes) {
+                out.writeShort(index);
+            }
+            // fields
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            // attributes
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface PoolEntry {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * 跳转目标
+     */
+    static final class Label {
+        private int position = -1;
+        private boolean registered;
+        private final List<int[]> references = new ArrayList<>();
+    }
+
+    /**
+     * 方法体字节码
+     */
+    static final class Code {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private byte[] patched;
+        private final List<Label> labels = new ArrayList<>();
+        int maxStack;
+        int maxLocals;
+
+        Code(int maxStack, int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        int position() {
+            return buffer.size();
+        }
+
+        void op(int opcode) {
+            buffer.write(opcode);
+        }
+
+        void op1(int opcode, int operand) {
+            buffer.write(opcode);
+            buffer.write(operand);
+        }
+
+        void op2(int opcode, int operand) {
+            buffer.write(opcode);
+            u2(operand);
+        }
+
+        private void u2(int value) {
+            buffer.write(value >>> 8);
+            buffer.write(value);
+        }
+
+        /**
+         * 局部变量操作，超过 255 时使用 wide 指令
+         */
+        void local(int opcode, int index) {
+            maxLocals = Math.max(maxLocals, index + 1);
+            if (index < 256) {
+                op1(opcode, index);
+            } else {
+                buffer.write(0xc4);
+                op2(opcode, index);
+            }
+        }
+
+        void pushInt(ClassFileWriter writer, int value) {
+            if (value >= -1 && value <= 5) {
+                op(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                op1(BIPUSH, value & 0xFF);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                op2(SIPUSH, value & 0xFFFF);
+            } else {
+                op2(LDC_W, writer.integer(value));
+            }
+        }
+
+        void invokeInterface(int methodRef, int argumentSlots) {
+            buffer.write(INVOKEINTERFACE);
+            u2(methodRef);
+            buffer.write(argumentSlots + 1);
+            buffer.write(0);
+        }
+
+        void jump(int opcode, Label label) {
+            int at = position();
+            buffer.write(opcode);
+            u2(0);
+            label.references.add(new int[]{at});
+            register(label);
+        }
+
+        void mark(Label label) {
+            label.position = position();
+            register(label);
+        }
+
+        private void register(Label label) {
+            if (!label.registered) {
+                label.registered = true;
+                labels.add(label);
+            }
+        }
+
+        byte[] toByteArray() {
+            if (patched != null) {
+                return patched;
+            }
+            byte[] code = buffer.toByteArray();
+            if (code.length > 0xFFFF) {
+                throw new IllegalStateException("Method too large");
+            }
+            for (Label label : labels) {
+                if (label.position < 0 && !label.references.isEmpty()) {
+                    throw new IllegalStateException("Unbound label");
+                }
+                for (int[] reference : label.references) {
+                    int offset = label.position - reference[0];
+                    if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                        throw new IllegalStateException("Branch offset overflow");
+                    }
+                    code[reference[0] + 1] = (byte) (offset >>> 8);
+                    code[reference[0] + 2] = (byte) offset;
+                }
+            }
+            patched = code;
+            return code;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.au92.common.util.rule.compiler;
+
+import com.au92.common.util.rule.Condition;
+
+/**
+ * 编译后规则的基类，由 {@link RuleCompiler} 生成的隐藏类继承。
+ *
+ * @author p_x_c
+ */
+public abstract class CompiledCondition<T> implements Condition<T> {
+    /**
+     * 编译前的规则树
+     */
+    private final Condition<T> source;
+    /**
+     * 生成代码中引用的常量，例如阈值、无法编译的子条件
+     */
+    protected final Object[] constants;
+
+    protected CompiledCondition(Condition<T> source, Object[] constants) {
+        this.source = source;
+        this.constants = constants;
+    }
+
+    /**
+     * 获取编译前的规则树，可用于序列化
+     *
+     * @return 原始规则
+     */
+    public Condition<T> getSource() {
+        return source;
+    }
+}
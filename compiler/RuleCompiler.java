@@ -0,0 +1,519 @@
+package com.au92.common.util.rule.compiler;
+
+import static com.au92.common.util.rule.compiler.ClassFileWriter.AALOAD;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.ACC_FINAL;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.ACC_PUBLIC;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.ACC_SUPER;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.ALOAD;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.ASTORE;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.CHECKCAST;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.GETFIELD;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.F2D;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.GOTO;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.I2D;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.I2L;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.ICONST_0;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.ICONST_1;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFEQ;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFGE;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFGT;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFLE;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFLT;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFNE;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFNONNULL;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IFNULL;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.INVOKEINTERFACE;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.INVOKESPECIAL;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.INVOKESTATIC;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.INVOKEVIRTUAL;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.IRETURN;
+import static com.au92.common.util.rule.compiler.ClassFileWriter.RETURN;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.accessor.FieldAccessor;
+import com.au92.common.util.rule.accessor.FieldAccessors;
+import com.au92.common.util.rule.compiler.ClassFileWriter.Code;
+import com.au92.common.util.rule.compiler.ClassFileWriter.Label;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.DoubleRangeCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.LongRangeCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.PrimitiveCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 规则编译器，将 {@link Condition} 规则树编译为一个隐藏类，整棵树被展开为一段直线式的布尔跳转代码，
+ * 避免逐节点的接口调用，便于 JIT 跨节点内联。
+ * <p>
+ * 支持 {@link com.au92.common.util.rule.RuleBuilder} 和 JSON 反序列化得到的所有内置条件；无法识别的自定义条件（包括内置条件的子类）
+ * 作为常量保留，在生成代码中按原方式调用。{@link FieldNameCondition} 优先编译为对 public getter 或 record
+ * 访问器的直接调用（要求类型和返回值类型都能从 RuleCompiler 的类加载器解析到同一个类），否则通过 {@link FieldAccessors} 读取。
+ * <p>
+ * 注意：编译结果与编译时给定的类型绑定，异常信息不再由 {@link FieldNameCondition} 包装。
+ *
+ * <pre>
+ * Condition&lt;User&gt; compiled = RuleCompiler.compile(condition, User.class);
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public final class RuleCompiler {
+    private static final String OBJECT = "java/lang/Object";
+    private static final String CONDITION = "com/au92/common/util/rule/Condition";
+    private static final String ACCESSOR = "com/au92/common/util/rule/accessor/FieldAccessor";
+    private static final String COMPARISONS = "com/au92/common/util/rule/impl/Comparisons";
+    private static final String BASE = "com/au92/common/util/rule/compiler/CompiledCondition";
+    private static final String GENERATED = "com/au92/common/util/rule/compiler/GeneratedCondition";
+    private static final String CONSTRUCTOR_DESCRIPTOR = "(L" + CONDITION + ";[L" + OBJECT + ";)V";
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Condition.class, Object[].class);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * 生成代码中固定的局部变量：0 为 this，1 为事实对象，2 为常量数组
+     */
+    private static final int FACT_LOCAL = 1;
+    private static final int CONSTANTS_LOCAL = 2;
+
+    private RuleCompiler() {
+    }
+
+    /**
+     * 编译规则
+     *
+     * @param condition 规则树
+     * @param type      事实对象类型
+     * @param <T>       事实对象类型
+     * @return 编译后的规则；规则过大无法生成时返回原规则
+     */
+    public static <T> Condition<T> compile(Condition<T> condition, Class<T> type) {
+        Objects.requireNonNull(condition, "condition");
+        Objects.requireNonNull(type, "type");
+        if (condition instanceof CompiledCondition) {
+            return condition;
+        }
+        byte[] bytes;
+        Generator generator = new Generator();
+        try {
+            bytes = generator.generate(condition, type);
+        } catch (IllegalStateException e) {
+            // 超出方法大小或跳转范围，退回解释执行
+            return condition;
+        }
+        try {
+            MethodHandles.Lookup lookup = LOOKUP.defineHiddenClass(bytes, true);
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE);
+            @SuppressWarnings("unchecked")
+            Condition<T> compiled = (Condition<T>) constructor.invoke(condition, generator.constants.toArray());
+            return compiled;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to compile rule", e);
+        }
+    }
+
+    /**
+     * 单次编译的代码生成器
+     */
+    private static final class Generator {
+        private final ClassFileWriter writer = new ClassFileWriter();
+        private final List<Object> constants = new ArrayList<>();
+        private final Map<Object, Integer> constantIndexes = new IdentityHashMap<>();
+        private Code code;
+        private int nextLocal = CONSTANTS_LOCAL + 1;
+
+        byte[] generate(Condition<?> root, Class<?> type) {
+            Code init = new Code(3, 3);
+            init.local(ALOAD, 0);
+            init.local(ALOAD, 1);
+            init.local(ALOAD, 2);
+            init.op2(INVOKESPECIAL, writer.methodRef(BASE, "<init>", CONSTRUCTOR_DESCRIPTOR));
+            init.op(RETURN);
+            writer.method(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, init);
+
+            code = new Code(4, CONSTANTS_LOCAL + 1);
+            code.local(ALOAD, 0);
+            code.op2(GETFIELD, writer.fieldRef(BASE, "constants", "[L" + OBJECT + ";"));
+            code.local(ASTORE, CONSTANTS_LOCAL);
+            Label rejected = new Label();
+            branch(root, FACT_LOCAL, type, false, rejected);
+            code.op(ICONST_1);
+            code.op(IRETURN);
+            code.mark(rejected);
+            code.op(ICONST_0);
+            code.op(IRETURN);
+            writer.method(ACC_PUBLIC, "evaluate", "(L" + OBJECT + ";)Z", code);
+            return writer.toByteArray(ACC_PUBLIC | ACC_FINAL | ACC_SUPER, GENERATED, BASE);
+        }
+
+        /**
+         * 生成条件跳转：当 node 的结果等于 jumpWhen 时跳转到 target，否则顺序执行
+         *
+         * @param node        条件节点
+         * @param subject     被判断值所在的局部变量
+         * @param subjectType 被判断值的静态类型
+         * @param jumpWhen    跳转条件
+         * @param target      跳转目标
+         */
+        private void branch(Condition<?> node, int subject, Class<?> subjectType, boolean jumpWhen, Label target) {
+            Class<?> nodeClass = node == null ? null : node.getClass();
+            if (nodeClass == AndCondition.class && ((AndCondition<?>) node).getConditions() != null) {
+                junction(((AndCondition<?>) node).getConditions(), true, subject, subjectType, jumpWhen, target);
+            } else if (nodeClass == OrCondition.class && ((OrCondition<?>) node).getConditions() != null) {
+                junction(((OrCondition<?>) node).getConditions(), false, subject, subjectType, jumpWhen, target);
+            } else if (nodeClass == NotCondition.class && ((NotCondition<?>) node).getCondition() != null) {
+                branch(((NotCondition<?>) node).getCondition(), subject, subjectType, !jumpWhen, target);
+            } else if (nodeClass == FieldNameCondition.class && fieldName((FieldNameCondition<?, ?>) node, subject, subjectType, jumpWhen, target)) {
+                return;
+            } else if (nodeClass == FieldCondition.class && fieldGetter((FieldCondition<?, ?>) node, subject, jumpWhen, target)) {
+                return;
+            } else if (!leaf(node, subject, jumpWhen, target)) {
+                interpreted(node, subject, jumpWhen, target);
+            }
+        }
+
+        /**
+         * AND / OR 组合，isAnd 为 true 时任一子条件为 false 即可决定结果，反之为 true
+         */
+        private void junction(List<? extends Condition<?>> children, boolean isAnd, int subject, Class<?> subjectType,
+                              boolean jumpWhen, Label target) {
+            if (children.isEmpty()) {
+                // allMatch 空集合为 true，anyMatch 空集合为 false
+                if (isAnd == jumpWhen) {
+                    code.jump(GOTO, target);
+                }
+                return;
+            }
+            boolean decisive = !isAnd;
+            if (jumpWhen == decisive) {
+                for (Condition<?> child : children) {
+                    branch(child, subject, subjectType, decisive, target);
+                }
+                return;
+            }
+            Label skip = new Label();
+            int last = children.size() - 1;
+            for (int i = 0; i < last; i++) {
+                branch(children.get(i), subject, subjectType, decisive, skip);
+            }
+            branch(children.get(last), subject, subjectType, jumpWhen, target);
+            code.mark(skip);
+        }
+
+        private boolean fieldName(FieldNameCondition<?, ?> node, int subject, Class<?> subjectType, boolean jumpWhen, Label target) {
+            if (node.getFieldName() == null || node.getInnerCondition() == null) {
+                return false;
+            }
+            FieldAccessor accessor;
+            try {
+                accessor = FieldAccessors.of(subjectType, node.getFieldName());
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            Method getter = findGetter(subjectType, node.getFieldName(), accessor.getType());
+
+            // 对象为 null 时结果为 false
+            Label skip = null;
+            code.local(ALOAD, subject);
+            if (jumpWhen) {
+                skip = new Label();
+                code.jump(IFNULL, skip);
+            } else {
+                code.jump(IFNULL, target);
+            }
+            PrimitiveCondition primitive = getter == null || !getter.getReturnType()
+                                                                   .isPrimitive() ? null
+                    : PrimitiveCondition.specialize(node.getInnerCondition(), getter.getReturnType());
+            if (primitive != null) {
+                primitive(primitive, getter, subject, subjectType, jumpWhen, target);
+            } else if (getter != null) {
+                code.local(ALOAD, subject);
+                code.op2(CHECKCAST, writer.classRef(internalName(subjectType)));
+                String descriptor = "()" + descriptor(getter.getReturnType());
+                if (subjectType.isInterface()) {
+                    code.invokeInterface(writer.interfaceMethodRef(internalName(subjectType), getter.getName(), descriptor), 0);
+                } else {
+                    code.op2(INVOKEVIRTUAL, writer.methodRef(internalName(subjectType), getter.getName(), descriptor));
+                }
+                box(getter.getReturnType());
+            } else {
+                loadConstant(accessor);
+                code.op2(CHECKCAST, writer.classRef(ACCESSOR));
+                code.local(ALOAD, subject);
+                code.invokeInterface(writer.interfaceMethodRef(ACCESSOR, "get", "(L" + OBJECT + ";)L" + OBJECT + ";"), 1);
+            }
+            if (primitive == null) {
+                int value = nextLocal++;
+                code.local(ASTORE, value);
+                branch(node.getInnerCondition(), value, accessor.getType(), jumpWhen, target);
+            }
+            if (skip != null) {
+                code.mark(skip);
+            }
+            return true;
+        }
+
+        /**
+         * 基本类型字段的比较，getter 的返回值直接作为 long / double 传给 {@link LongRangeCondition#test(long)} 或
+         * {@link DoubleRangeCondition#test(double)}，不装箱
+         */
+        private void primitive(PrimitiveCondition primitive, Method getter, int subject, Class<?> subjectType,
+                               boolean jumpWhen, Label target) {
+            boolean isLong = primitive instanceof LongRangeCondition;
+            String owner = internalName(primitive.getClass());
+            loadConstant(primitive);
+            code.op2(CHECKCAST, writer.classRef(owner));
+            code.local(ALOAD, subject);
+            code.op2(CHECKCAST, writer.classRef(internalName(subjectType)));
+            Class<?> returnType = getter.getReturnType();
+            String descriptor = "()" + descriptor(returnType);
+            if (subjectType.isInterface()) {
+                code.invokeInterface(writer.interfaceMethodRef(internalName(subjectType), getter.getName(), descriptor), 0);
+            } else {
+                code.op2(INVOKEVIRTUAL, writer.methodRef(internalName(subjectType), getter.getName(), descriptor));
+            }
+            if (returnType == float.class) {
+                code.op(F2D);
+            } else if (returnType != long.class && returnType != double.class) {
+                code.op(isLong ? I2L : I2D);
+            }
+            code.op2(INVOKEVIRTUAL, writer.methodRef(owner, "test", isLong ? "(J)Z" : "(D)Z"));
+            code.jump(jumpWhen ? IFNE : IFEQ, target);
+        }
+
+        private boolean fieldGetter(FieldCondition<?, ?> node, int subject, boolean jumpWhen, Label target) {
+            if (node.getGetter() == null || node.getCondition() == null) {
+                return false;
+            }
+            loadConstant(node.getGetter());
+            code.op2(CHECKCAST, writer.classRef("java/util/function/Function"));
+            code.local(ALOAD, subject);
+            code.invokeInterface(writer.interfaceMethodRef("java/util/function/Function", "apply", "(L" + OBJECT + ";)L" + OBJECT + ";"), 1);
+            int value = nextLocal++;
+            code.local(ASTORE, value);
+            branch(node.getCondition(), value, Object.class, jumpWhen, target);
+            return true;
+        }
+
+        /**
+         * 内置叶子条件，仅匹配精确类型，子类可能重写了 evaluate
+         */
+        private boolean leaf(Condition<?> node, int value, boolean jumpWhen, Label target) {
+            if (node == null) {
+                return false;
+            }
+            Class<?> nodeClass = node.getClass();
+            if (nodeClass == EqualCondition.class) {
+                equal(value, ((EqualCondition<?>) node).getTarget(), jumpWhen, target);
+            } else if (nodeClass == NotEqualCondition.class) {
+                equal(value, ((NotEqualCondition<?>) node).getTarget(), !jumpWhen, target);
+            } else if (nodeClass == GreaterThanCondition.class) {
+                compare(value, ((GreaterThanCondition<?>) node).getThreshold(), IFGT, IFLE, jumpWhen, target);
+            } else if (nodeClass == GreaterThanOrEqualCondition.class) {
+                compare(value, ((GreaterThanOrEqualCondition<?>) node).getThreshold(), IFGE, IFLT, jumpWhen, target);
+            } else if (nodeClass == LessThanCondition.class) {
+                compare(value, ((LessThanCondition<?>) node).getThreshold(), IFLT, IFGE, jumpWhen, target);
+            } else if (nodeClass == LessThanOrEqualCondition.class) {
+                compare(value, ((LessThanOrEqualCondition<?>) node).getThreshold(), IFLE, IFGT, jumpWhen, target);
+            } else if (nodeClass == BetweenCondition.class) {
+                BetweenCondition<?> between = (BetweenCondition<?>) node;
+                if (jumpWhen) {
+                    Label skip = new Label();
+                    compare(value, between.getMin(), IFGE, IFLT, false, skip);
+                    compare(value, between.getMax(), IFLE, IFGT, true, target);
+                    code.mark(skip);
+                } else {
+                    compare(value, between.getMin(), IFGE, IFLT, false, target);
+                    compare(value, between.getMax(), IFLE, IFGT, false, target);
+                }
+            } else if (nodeClass == ContainsCondition.class) {
+                string(value, "contains", "CharSequence", ((ContainsCondition) node).getKeyword(), false, jumpWhen, target);
+            } else if (nodeClass == NotContainsCondition.class) {
+                string(value, "contains", "CharSequence", ((NotContainsCondition) node).getKeyword(), true, jumpWhen, target);
+            } else if (nodeClass == StartsWithCondition.class) {
+                string(value, "startsWith", "String", ((StartsWithCondition) node).getPrefix(), false, jumpWhen, target);
+            } else if (nodeClass == NotStartsWithCondition.class) {
+                string(value, "startsWith", "String", ((NotStartsWithCondition) node).getPrefix(), true, jumpWhen, target);
+            } else if (nodeClass == EndsWithCondition.class) {
+                string(value, "endsWith", "String", ((EndsWithCondition) node).getSuffix(), false, jumpWhen, target);
+            } else if (nodeClass == NotEndsWithCondition.class) {
+                string(value, "endsWith", "String", ((NotEndsWithCondition) node).getSuffix(), true, jumpWhen, target);
+            } else if (nodeClass == IsNullCondition.class) {
+                code.local(ALOAD, value);
+                code.jump(jumpWhen ? IFNULL : IFNONNULL, target);
+            } else if (nodeClass == IsNotNullCondition.class) {
+                code.local(ALOAD, value);
+                code.jump(jumpWhen ? IFNONNULL : IFNULL, target);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void equal(int value, Object expected, boolean jumpWhen, Label target) {
+            code.local(ALOAD, value);
+            loadConstant(expected);
+            code.op2(INVOKESTATIC, writer.methodRef("java/util/Objects", "equals", "(L" + OBJECT + ";L" + OBJECT + ";)Z"));
+            code.jump(jumpWhen ? IFNE : IFEQ, target);
+        }
+
+        /**
+         * Comparisons.compare(value, threshold) 与 0 比较，whenTrue/whenFalse 为成立/不成立时的跳转指令
+         */
+        private void compare(int value, Object threshold, int whenTrue, int whenFalse, boolean jumpWhen, Label target) {
+            code.local(ALOAD, value);
+            loadConstant(threshold);
+            code.op2(INVOKESTATIC, writer.methodRef(COMPARISONS, "compare", "(L" + OBJECT + ";L" + OBJECT + ";)I"));
+            code.jump(jumpWhen ? whenTrue : whenFalse, target);
+        }
+
+        /**
+         * 字符串条件，negate 为 true 时 null 值结果为 true，否则为 false
+         */
+        private void string(int value, String method, String argumentType, String argument, boolean negate,
+                            boolean jumpWhen, Label target) {
+            Label skip = null;
+            code.local(ALOAD, value);
+            if (negate == jumpWhen) {
+                code.jump(IFNULL, target);
+            } else {
+                skip = new Label();
+                code.jump(IFNULL, skip);
+            }
+            code.local(ALOAD, value);
+            code.op2(CHECKCAST, writer.classRef("java/lang/String"));
+            loadConstant(argument);
+            code.op2(CHECKCAST, writer.classRef("java/lang/" + argumentType));
+            code.op2(INVOKEVIRTUAL, writer.methodRef("java/lang/String", method, "(Ljava/lang/" + argumentType + ";)Z"));
+            code.jump(negate != jumpWhen ? IFNE : IFEQ, target);
+            if (skip != null) {
+                code.mark(skip);
+            }
+        }
+
+        /**
+         * 无法编译的条件，按常量保留并通过接口调用
+         */
+        private void interpreted(Condition<?> node, int subject, boolean jumpWhen, Label target) {
+            loadConstant(node);
+            code.op2(CHECKCAST, writer.classRef(CONDITION));
+            code.local(ALOAD, subject);
+            code.invokeInterface(writer.interfaceMethodRef(CONDITION, "evaluate", "(L" + OBJECT + ";)Z"), 1);
+            code.jump(jumpWhen ? IFNE : IFEQ, target);
+        }
+
+        private void loadConstant(Object constant) {
+            Integer index = constantIndexes.get(constant);
+            if (index == null) {
+                index = constants.size();
+                constants.add(constant);
+                constantIndexes.put(constant, index);
+            }
+            code.local(ALOAD, CONSTANTS_LOCAL);
+            code.pushInt(writer, index);
+            code.op(AALOAD);
+        }
+
+        private void box(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return;
+            }
+            Class<?> wrapper = MethodType.methodType(type).wrap().returnType();
+            code.op2(INVOKESTATIC, writer.methodRef(internalName(wrapper), "valueOf", "(" + descriptor(type) + ")" + descriptor(wrapper)));
+        }
+    }
+
+    /**
+     * 查找与 {@link FieldAccessors} 相同的 record 访问器或 public getter，要求生成的类可以直接调用
+     */
+    private static Method findGetter(Class<?> type, String name, Class<?> fieldType) {
+        if (!isAccessible(type) || name.isEmpty()) {
+            return null;
+        }
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        List<String> candidates = new ArrayList<>();
+        if (type.isRecord()) {
+            candidates.add(name);
+        }
+        candidates.add("get" + capitalized);
+        if (fieldType == boolean.class) {
+            candidates.add("is" + capitalized);
+        }
+        for (String candidate : candidates) {
+            try {
+                Method method = type.getMethod(candidate);
+                if (method.getReturnType() == fieldType && !Modifier.isStatic(method.getModifiers()) && isVisible(fieldType)) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 生成的隐藏类能否直接访问该类型
+     */
+    private static boolean isAccessible(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isHidden()) {
+            return false;
+        }
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return type.getModule().isExported(type.getPackageName(), RuleCompiler.class.getModule()) && isVisible(type);
+    }
+
+    /**
+     * 生成的隐藏类与 RuleCompiler 使用同一个类加载器，字节码中按名字引用的类型必须能从该加载器解析到同一个类，
+     * 否则（例如事实类型由子加载器加载）首次执行时抛出 {@link NoClassDefFoundError}
+     */
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, RuleCompiler.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        return MethodType.methodType(type).toMethodDescriptorString().substring(2);
+    }
+}
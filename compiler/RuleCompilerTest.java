@@ -0,0 +1,182 @@
+package com.au92.common.util.rule.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 编译后的规则与解释执行的结果一致
+ *
+ * @author p_x_c
+ */
+class RuleCompilerTest {
+    private static final String[] CODES = {"VIP-001", "vip-002", "NORMAL", "", null};
+    private final Random random = new Random(1);
+
+    @Test
+    void sameResultsAsInterpreter() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            orders.add(order());
+        }
+        for (int round = 0; round < 300; round++) {
+            Condition<Order> condition = tree(3);
+            Condition<Order> compiled = RuleCompiler.compile(condition, Order.class);
+            assertNotSame(condition, compiled);
+            for (Order order : orders) {
+                Object expected = outcome(() -> condition.evaluate(order));
+                Object actual = outcome(() -> compiled.evaluate(order));
+                // 编译结果的异常不再由 FieldNameCondition 包装，只比较是否抛出
+                assertEquals(expected, actual, condition + " " + order);
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void factTypeFromChildClassLoader(@TempDir Path directory) throws Exception {
+        Path source = directory.resolve("pkg/Fact.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, """
+                package pkg;
+                public class Fact {
+                    private final int amount;
+                    private final String level;
+                    public Fact(int amount, String level) {
+                        this.amount = amount;
+                        this.level = level;
+                    }
+                    public int getAmount() {
+                        return amount;
+                    }
+                    public String getLevel() {
+                        return level;
+                    }
+                }
+                """);
+        assertEquals(0, ToolProvider.getSystemJavaCompiler()
+                                    .run(null, null, null, source.toString()));
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri()
+                                                                           .toURL()}, getClass().getClassLoader())) {
+            Class type = loader.loadClass("pkg.Fact");
+            Object gold = type.getConstructor(int.class, String.class)
+                              .newInstance(10, "gold");
+            Object small = type.getConstructor(int.class, String.class)
+                               .newInstance(1, "gold");
+            Condition condition = new AndCondition<>(List.of(field("amount", new GreaterThanCondition<>(5)),
+                                                             field("level", new EqualCondition<>("gold"))));
+            Condition compiled = RuleCompiler.compile(condition, type);
+            assertTrue(compiled.evaluate(gold));
+            assertFalse(compiled.evaluate(small));
+        }
+    }
+
+    private Order order() {
+        double[] prices = {0, -0.0, 9.5, 10, 99.9, Double.NaN};
+        Integer[] discounts = {null, 0, 5, 10};
+        return new Order(random.nextInt(5) - 1, prices[random.nextInt(prices.length)], discounts[random.nextInt(discounts.length)],
+                         CODES[random.nextInt(CODES.length)]);
+    }
+
+    private Condition<Order> tree(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(6) : random.nextInt(9);
+        return switch (kind) {
+            case 0 -> new AndCondition<>(children(depth));
+            case 1 -> new OrCondition<>(children(depth));
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            case 3 -> field("quantity", comparison(random.nextBoolean() ? (Object) 1 : (Object) 1.5));
+            case 4 -> field("price", comparison(random.nextBoolean() ? (Object) 10 : (Object) 9.5));
+            case 5 -> field("discount", random.nextInt(3) == 0 ? new IsNullCondition<>() : comparison(5));
+            case 6 -> field("code", text());
+            case 7 -> new FieldCondition<>(Order::code, text());
+            default -> field("code", random.nextBoolean() ? new EqualCondition<>(CODES[random.nextInt(CODES.length)])
+                    : new NotEqualCondition<>("NORMAL"));
+        };
+    }
+
+    private List<Condition<Order>> children(int depth) {
+        List<Condition<Order>> children = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            children.add(tree(depth - 1));
+        }
+        return children;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<?> comparison(Object threshold) {
+        Comparable value = (Comparable) threshold;
+        return switch (random.nextInt(5)) {
+            case 0 -> new GreaterThanCondition(value);
+            case 1 -> new GreaterThanOrEqualCondition(value);
+            case 2 -> new LessThanCondition(value);
+            case 3 -> new LessThanOrEqualCondition(value);
+            default -> new BetweenCondition(value instanceof Integer ? 0 : 0.0, value);
+        };
+    }
+
+    private Condition<String> text() {
+        return switch (random.nextInt(8)) {
+            case 0 -> new ContainsCondition("VIP");
+            case 1 -> new NotContainsCondition("00");
+            case 2 -> new StartsWithCondition("vip");
+            case 3 -> new NotStartsWithCondition("NOR");
+            case 4 -> new EndsWithCondition("2");
+            case 5 -> new NotEndsWithCondition("AL");
+            case 6 -> new IsNotNullCondition<>();
+            default -> new IsNullCondition<>();
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Condition<Order> field(String name, Condition<?> inner) {
+        return new FieldNameCondition(name, inner);
+    }
+
+    /**
+     * 结果，抛出异常时为 RuntimeException.class
+     */
+    private static Object outcome(Supplier<Boolean> evaluation) {
+        try {
+            return evaluation.get();
+        } catch (RuntimeException e) {
+            return RuntimeException.class;
+        }
+    }
+
+    public record Order(int quantity, double price, Integer discount, String code) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.au92.common.util.rule.impl;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AND / OR 子条件的自适应求值顺序。
+ * <p>
+ * 按 1/{@link #SAMPLE_RATE} 的比例抽样统计每个子条件的通过率和耗时，每 {@link #REORDER_INTERVAL} 次抽样重新排序一次：
+ * AND 优先计算 "耗时 / 不通过率" 最小的子条件，OR 优先计算 "耗时 / 通过率" 最小的子条件。
+ * <p>
+ * 空值判断作为守卫保持原位，其他子条件只在相邻的两个守卫之间调整顺序，不会被移到守卫之前：
+ * AND 中的 {@code isNotNull}（含 {@code not(isNull)}）、OR 中的 {@code isNull}（含 {@code not(isNotNull)}），
+ * 可以包在 {@link FieldNameCondition} / {@link FieldCondition} / {@link ConditionWrapper} 中，例如 {@code isNotNull(x) AND x > 5} 中的 {@code x > 5}
+ * 总在 {@code isNotNull(x)} 之后计算。
+ * <p>
+ * 除空值判断外，子条件之间不能依赖声明顺序：要求子条件没有副作用，并且一个子条件是否抛出异常不依赖于其他子条件先被计算，
+ * 否则调整顺序后结果或抛出的异常可能不同。新顺序以不可变快照的形式发布，求值线程之间无锁；
+重新排序使用预先分配的数组，只有顺序确实变化时才创建新快照，稳定状态下求值不分配对象。
+ *
+ * @author p_x_c
+ */
+final class AdaptiveOrder<T> {
+    static final int SAMPLE_RATE = 64;
+    static final int REORDER_INTERVAL = 256;
+    /**
+     * 通过率的下限，避免除零
+     */
+    private static final double MIN_RATE = 0.01;
+    /**
+     * 得分至少好这么多（比例）才调到前面，避免得分接近的子条件因计时误差反复交换顺序并发布快照
+     */
+    private static final double HYSTERESIS = 0.25;
+
+    /**
+     * true 为 AND，false 为 OR
+     */
+    private final boolean conjunction;
+    private final List<Condition<T>> source;
+    private final int size;
+    /**
+     * 保持原位的空值判断子条件
+     */
+    private final boolean[] guards;
+    /**
+     * 每个子条件依次存放：抽样次数、通过次数、耗时纳秒
+     */
+    private final AtomicLongArray stats;
+    private final AtomicLong samples = new AtomicLong();
+    /**
+     * 重新排序时使用的数组，由 reordering 保证同一时刻只有一个线程使用
+     */
+    private final double[] scores;
+    private final int[] order;
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private volatile Snapshot<T> snapshot;
+
+    @SuppressWarnings("unchecked")
+    AdaptiveOrder(List<Condition<T>> source, boolean conjunction) {
+        this.conjunction = conjunction;
+        this.source = source;
+        this.size = source.size();
+        this.stats = new AtomicLongArray(size * 3);
+        this.guards = new boolean[size];
+        this.scores = new double[size];
+        this.order = new int[size];
+        for (int i = 0; i < size; i++) {
+            guards[i] = isGuard(source.get(i), conjunction);
+        }
+        int[] indexes = new int[size];
+        Arrays.setAll(indexes, i -> i);
+        this.snapshot = new Snapshot<>(source.toArray(new Condition[0]), indexes);
+    }
+
+    /**
+     * 子条件列表是否仍然是创建时的列表
+     */
+    boolean matches(List<Condition<T>> conditions) {
+        return conditions == source && conditions.size() == size;
+    }
+
+    /**
+     * 当前的求值顺序
+     */
+    List<Condition<T>> order() {
+        return Collections.unmodifiableList(Arrays.asList(snapshot.ordered));
+    }
+
+    boolean evaluate(T value, EvaluationContext context) {
+        Snapshot<T> current = snapshot;
+        if (ThreadLocalRandom.current()
+                             .nextInt(SAMPLE_RATE) == 0) {
+            return sample(value, context, current);
+        }
+        for (Condition<T> condition : current.ordered) {
+            if (condition.evaluate(value, context) != conjunction) {
+                return !conjunction;
+            }
+        }
+        return conjunction;
+    }
+
+    private boolean sample(T value, EvaluationContext context, Snapshot<T> current) {
+        boolean result = conjunction;
+        for (int i = 0; i < current.ordered.length; i++) {
+            long start = System.nanoTime();
+            boolean passed = current.ordered[i].evaluate(value, context);
+            long elapsed = System.nanoTime() - start;
+            int offset = current.indexes[i] * 3;
+            stats.incrementAndGet(offset);
+            if (passed) {
+                stats.incrementAndGet(offset + 1);
+            }
+            stats.addAndGet(offset + 2, elapsed);
+            if (passed != conjunction) {
+                result = !conjunction;
+                break;
+            }
+        }
+        // 上一次重新排序还没有结束时跳过这一次
+        if (samples.incrementAndGet() % REORDER_INTERVAL == 0 && reordering.compareAndSet(false, true)) {
+            try {
+                reorder();
+            } finally {
+                reordering.set(false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 根据统计重新排序，并将统计减半以便跟随数据分布的变化
+     */
+    private void reorder() {
+        double knownCost = 0;
+        int known = 0;
+        for (int i = 0; i < size; i++) {
+            long count = stats.get(i * 3);
+            if (count > 0) {
+                knownCost += (double) stats.get(i * 3 + 2) / count;
+                known++;
+            }
+        }
+        // 从未被计算到的子条件按平均耗时、50% 通过率估计
+        double defaultCost = known == 0 ? 1 : knownCost / known;
+        for (int i = 0; i < size; i++) {
+            long count = stats.get(i * 3);
+            double cost = count == 0 ? defaultCost : (double) stats.get(i * 3 + 2) / count;
+            double passRate = count == 0 ? 0.5 : (double) stats.get(i * 3 + 1) / count;
+            double shortCircuitRate = conjunction ? 1 - passRate : passRate;
+            scores[i] = cost / Math.max(shortCircuitRate, MIN_RATE);
+        }
+        for (int i = 0; i < stats.length(); i++) {
+            stats.set(i, stats.get(i) / 2);
+        }
+
+        // 从当前顺序开始调整，守卫在当前顺序中也在原位
+        Snapshot<T> current = snapshot;
+        System.arraycopy(current.indexes, 0, order, 0, size);
+        int start = 0;
+        for (int i = 0; i <= size; i++) {
+            if (i == size || guards[i]) {
+                sort(start, i);
+                start = i + 1;
+            }
+        }
+        if (!Arrays.equals(order, current.indexes)) {
+            @SuppressWarnings("unchecked")
+            Condition<T>[] ordered = new Condition[size];
+            for (int i = 0; i < size; i++) {
+                ordered[i] = source.get(order[i]);
+            }
+            snapshot = new Snapshot<>(ordered, order.clone());
+        }
+    }
+
+    /**
+     * 按得分对 order[from, to) 插入排序（子条件通常只有几个），得分差距不超过 {@link #HYSTERESIS} 时保持当前顺序
+     */
+    private void sort(int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int index = order[i];
+            int j = i - 1;
+            while (j >= from && scores[order[j]] > scores[index] * (1 + HYSTERESIS)) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * 是否为空值判断：AND 中不为空才继续，OR 中为空就短路，后面的子条件可能依赖它排除空值
+     */
+    static boolean isGuard(Condition<?> condition, boolean conjunction) {
+        if (condition instanceof ConditionWrapper<?> wrapper) {
+            return isGuard(wrapper.unwrap(), conjunction);
+        }
+        if (condition instanceof FieldNameCondition<?, ?> field) {
+            return isGuard(field.getInnerCondition(), conjunction);
+        }
+        if (condition instanceof FieldCondition<?, ?> field) {
+            return isGuard(field.getCondition(), conjunction);
+        }
+        if (condition instanceof NotCondition<?> not) {
+            return isGuard(not.getCondition(), !conjunction);
+        }
+        return conjunction ? condition instanceof IsNotNullCondition : condition instanceof IsNullCondition;
+    }
+
+    /**
+     * 求值顺序快照，indexes 为子条件在原列表中的下标
+     */
+    private record Snapshot<T>(Condition<T>[] ordered, int[] indexes) {
+    }
+}
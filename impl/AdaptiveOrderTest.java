@@ -0,0 +1,65 @@
+package com.au92.common.util.rule.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 自适应顺序不会把子条件移到空值判断之前
+ *
+ * @author p_x_c
+ */
+class AdaptiveOrderTest {
+
+    @Test
+    void andKeepsNotNullGuardFirst() {
+        Condition<Item> guard = new FieldNameCondition<>("amount", new IsNotNullCondition<>());
+        Condition<Item> large = new FieldNameCondition<>("amount", new GreaterThanCondition<>(5));
+        Condition<Item> always = new FieldNameCondition<>("tag", new NotCondition<>(new EqualCondition<>("never")));
+        AndCondition<Item> condition = new AndCondition<>(List.of(guard, always, large));
+        condition.setAdaptive(true);
+        train(condition, new Item(1, "common"));
+
+        List<Condition<Item>> order = condition.evaluationOrder();
+        assertSame(guard, order.get(0));
+        // 守卫之后的子条件仍然按统计调整顺序
+        assertSame(large, order.get(1));
+        assertFalse(condition.evaluate(new Item(null, "common")));
+    }
+
+    @Test
+    void orKeepsIsNullGuardFirst() {
+        Condition<Item> guard = new FieldNameCondition<>("amount", new NotCondition<>(new IsNotNullCondition<>()));
+        Condition<Item> small = new FieldNameCondition<>("amount", new LessThanCondition<>(5));
+        OrCondition<Item> condition = new OrCondition<>(List.of(guard, small));
+        condition.setAdaptive(true);
+        train(condition, new Item(1, "common"));
+
+        assertSame(guard, condition.evaluationOrder()
+                                   .get(0));
+        assertTrue(condition.evaluate(new Item(null, "common")));
+    }
+
+    @Test
+    void guards() {
+        assertTrue(AdaptiveOrder.isGuard(new IsNotNullCondition<>(), true));
+        assertTrue(AdaptiveOrder.isGuard(new NotCondition<>(new IsNullCondition<>()), true));
+        assertTrue(AdaptiveOrder.isGuard(new FieldNameCondition<>("amount", new IsNullCondition<>()), false));
+        assertFalse(AdaptiveOrder.isGuard(new IsNullCondition<>(), true));
+        assertFalse(AdaptiveOrder.isGuard(new IsNotNullCondition<>(), false));
+        assertFalse(AdaptiveOrder.isGuard(new EqualCondition<>(1), true));
+    }
+
+    private static void train(Condition<Item> condition, Item item) {
+        for (int i = 0; i < 200_000; i++) {
+            condition.evaluate(item);
+        }
+    }
+
+    public record Item(Integer amount, String tag) {
+    }
+}
@@ -1,6 +1,10 @@
 package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,6 +20,15 @@ public class AndCondition<T> implements Condition<T> {
     @Getter
     @Setter
     private List<Condition<T>> conditions;
+    /**
+     * 是否根据运行时统计自动调整子条件的求值顺序，默认关闭，见 {@link AdaptiveOrder}。
+     * 开启后除空值判断外，子条件不能依赖声明顺序
+     */
+    @Getter
+    @Setter
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean adaptive;
+    private transient AdaptiveOrder<T> adaptiveOrder;
 
     public AndCondition(List<Condition<T>> conditions) {
         this.conditions = conditions;
@@ -23,6 +36,62 @@ public class AndCondition<T> implements Condition<T> {
 
     @Override
     public boolean evaluate(T value) {
-        return conditions.stream().allMatch(c -> c.evaluate(value));
+        if (adaptive) {
+            return adaptiveOrder().evaluate(value, null);
+        }
+        // 按下标遍历，不创建 Iterator
+        for (int i = 0, size = conditions.size(); i < size; i++) {
+            if (!conditions.get(i).evaluate(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean evaluate(T value, EvaluationContext context) {
+        if (adaptive) {
+            return adaptiveOrder().evaluate(value, context);
+        }
+        for (int i = 0, size = conditions.size(); i < size; i++) {
+            if (!conditions.get(i).evaluate(value, context)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 当前的求值顺序：未开启 adaptive 时就是 {@link #getConditions()}，开启时为自适应顺序的最新快照
+     *
+     * @return 子条件，不可修改
+     */
+    public List<Condition<T>> evaluationOrder() {
+        return adaptive ? adaptiveOrder().order() : Collections.unmodifiableList(conditions);
+    }
+
+    /**
+     * 子条件列表被替换或增删后重新开始统计
+     */
+    private AdaptiveOrder<T> adaptiveOrder() {
+        AdaptiveOrder<T> current = adaptiveOrder;
+        if (current == null || !current.matches(conditions)) {
+            current = new AdaptiveOrder<>(conditions, true);
+            adaptiveOrder = current;
+        }
+        return current;
+    }
+
+    /**
+     * 依次计算子条件，每个子条件只计算前面子条件仍然满足的下标
+     */
+    @Override
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        for (Condition<T> condition : conditions) {
+            if (selection.isEmpty()) {
+                return;
+            }
+            condition.evaluateBatch(values, selection);
+        }
     }
 }
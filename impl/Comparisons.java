@@ -0,0 +1,51 @@
+package com.au92.common.util.rule.impl;
+
+import com.au92.common.util.rule.Condition;
+import lombok.experimental.UtilityClass;
+
+/**
+ * &gt;、&gt;=、&lt;、&lt;=、BETWEEN 使用的比较，与 {@link PrimitiveCondition#specialize(Condition, Class)} 的结果一致，
+ * 字段无论按基本类型还是按装箱后的值比较，结果都相同：
+ * <ul>
+ *     <li>类型相同时按 {@link Comparable#compareTo(Object)} 比较</li>
+ *     <li>Integer、Long、Short、Byte 之间按 long 比较</li>
+ *     <li>Integer、Short、Byte、Double、Float 之间有浮点数时按 {@link Double#compare(double, double)} 比较（NaN 最大，-0.0 小于 0.0）</li>
+ *     <li>其他组合（包括 Long 与浮点数，long 转换为 double 可能丢失精度）按 compareTo 比较，类型不兼容时抛出 {@link ClassCastException}</li>
+ * </ul>
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+public class Comparisons {
+
+    /**
+     * 比较值与阈值
+     *
+     * @param value     值，不能为 null
+     * @param threshold 阈值
+     * @return 小于、等于、大于阈值时分别为负数、0、正数
+     */
+    @SuppressWarnings("unchecked")
+    public static int compare(Object value, Object threshold) {
+        if (value instanceof Number a && threshold instanceof Number b && a.getClass() != b.getClass()) {
+            if (isIntegral(a) && isIntegral(b)) {
+                return Long.compare(a.longValue(), b.longValue());
+            }
+            if (isWidenable(a) && isWidenable(b)) {
+                return Double.compare(a.doubleValue(), b.doubleValue());
+            }
+        }
+        return ((Comparable<Object>) value).compareTo(threshold);
+    }
+
+    private static boolean isIntegral(Number value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * 可以无损转换为 double 的类型
+     */
+    private static boolean isWidenable(Number value) {
+        return value instanceof Integer || value instanceof Double || value instanceof Float || value instanceof Short || value instanceof Byte;
+    }
+}
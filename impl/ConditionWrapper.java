@@ -0,0 +1,21 @@
+package com.au92.common.util.rule.impl;
+
+import com.au92.common.util.rule.Condition;
+
+/**
+ * 包装另一条规则、结果与被包装规则相同的装饰器（统计、缓存等）。
+ * <p>
+ * 按节点类型识别条件的逻辑（例如 {@link AdaptiveOrder} 识别空值判断）通过 {@link #unwrap()} 看到被包装的规则，
+ * 装饰器所在的包不需要被 impl 依赖。
+ *
+ * @author p_x_c
+ */
+public interface ConditionWrapper<T> extends Condition<T> {
+
+    /**
+     * 获取被包装的规则
+     *
+     * @return 被包装的规则
+     */
+    Condition<T> unwrap();
+}
@@ -0,0 +1,42 @@
+package com.au92.common.util.rule.impl;
+
+import com.au92.common.util.rule.accessor.FieldAccessor;
+import lombok.Getter;
+
+/**
+ * 浮点字段的范围比较，按 {@link Double#compare(double, double)} 的语义（与 {@link Double#compareTo(Double)} 一致）：
+ * NaN 大于任何值且等于自身，-0.0 小于 0.0。negate 为 true 时取反。
+ *
+ * @author p_x_c
+ */
+public final class DoubleRangeCondition implements PrimitiveCondition {
+    @Getter
+    private final double min;
+    @Getter
+    private final boolean minInclusive;
+    @Getter
+    private final double max;
+    @Getter
+    private final boolean maxInclusive;
+    @Getter
+    private final boolean negate;
+
+    DoubleRangeCondition(double min, boolean minInclusive, double max, boolean maxInclusive, boolean negate) {
+        this.min = min;
+        this.minInclusive = minInclusive;
+        this.max = max;
+        this.maxInclusive = maxInclusive;
+        this.negate = negate;
+    }
+
+    public boolean test(double value) {
+        int lower = Double.compare(value, min);
+        int upper = Double.compare(value, max);
+        return ((minInclusive ? lower >= 0 : lower > 0) && (maxInclusive ? upper <= 0 : upper < 0)) != negate;
+    }
+
+    @Override
+    public boolean evaluate(FieldAccessor accessor, Object target) {
+        return test(accessor.getDouble(target));
+    }
+}
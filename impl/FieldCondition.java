@@ -2,6 +2,9 @@ package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.function.Function;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -32,4 +35,14 @@ public class FieldCondition<T, R> implements Condition<T> {
         R fieldValue = getter.apply(object);
         return condition.evaluate(fieldValue);
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        Object[] column = new Object[selection.length()];
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            column[i] = getter.apply(values.get(i));
+        }
+        condition.evaluateBatch((List<R>) Arrays.asList(column), selection);
+    }
 }
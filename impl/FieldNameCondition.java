@@ -1,62 +1,169 @@
 package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
-import java.lang.reflect.Field;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import com.au92.common.util.rule.EvaluationContext;
+import com.au92.common.util.rule.accessor.FieldAccessor;
+import com.au92.common.util.rule.accessor.FieldAccessors;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 
 /**
  * 根据字段名进行条件判断的条件实现类。
+ * <p>
+ * 字段读取器通过 {@link FieldAccessors} 获取，并以单态内联缓存的形式保存最近一次的类型，命中时不产生任何分配。
+ * 在 {@link EvaluationContext} 中求值时，字段值按字段名的槽位缓存在上下文中，多个条件读取同一字段时只读取一次。
+ * <p>
+ * 字段为数值基本类型且内部条件是数值比较时，绑定类型时同时生成 {@link PrimitiveCondition}，求值时不装箱；
+ * 内部条件的阈值在求值开始后被修改时，需要重新调用 {@link #setInnerCondition(Condition)}。
  *
  * @author p_x_c
  */
 @NoArgsConstructor
 public class FieldNameCondition<T, V> implements Condition<T> {
     @Getter
-    @Setter
     private String fieldName;
     @Getter
-    @Setter
     private Condition<V> innerCondition;
-    private static final Map<String, Field> FIELD_CACHE = new ConcurrentHashMap<>();
+    /**
+     * 最近一次使用的类型及其读取器、基本类型条件，不可变对象，并发读写无需加锁
+     */
+    private transient Binding binding;
+    /**
+     * 字段值在 {@link EvaluationContext} 中的槽位，字段名为空时为 -1
+     */
+    private transient int slot = -1;
 
     public FieldNameCondition(String fieldName, Condition<V> innerCondition) {
+        setFieldName(fieldName);
+        this.innerCondition = innerCondition;
+    }
+
+    public void setFieldName(String fieldName) {
         this.fieldName = fieldName;
+        this.binding = null;
+        this.slot = fieldName == null ? -1 : EvaluationContext.slot(fieldName);
+    }
+
+    public void setInnerCondition(Condition<V> innerCondition) {
         this.innerCondition = innerCondition;
+        this.binding = null;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public boolean evaluate(T obj) {
         if (obj == null) {
             return false;
         }
+        Binding current = binding(obj.getClass());
+        if (current.primitive != null) {
+            return current.primitive.evaluate(current.accessor, obj);
+        }
+        // 编译时就保证了是 V 类型
+        return innerCondition.evaluate((V) current.accessor.get(obj));
+    }
 
-        try {
-            Field field = getField(obj.getClass(), fieldName);
-            Object value = field.get(obj);
-
-            // 编译时就保证了是 V 类型
-            return innerCondition.evaluate((V) value);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to evaluate field: " + fieldName, e);
+    /**
+     * 作用于上下文中的事实对象时，从上下文读取或写入字段值
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean evaluate(T obj, EvaluationContext context) {
+        if (context == null || obj == null || obj != context.getFact() || slot < 0) {
+            return evaluate(obj);
+        }
+        Binding current = binding(obj.getClass());
+        if (current.primitive != null) {
+            // 基本类型直接读取比缓存装箱后的值更快，上下文中已有的值也不使用，保证与 evaluate(obj) 的比较方式相同
+            return current.primitive.evaluate(current.accessor, obj);
         }
+        Object value;
+        if (context.contains(slot)) {
+            value = context.get(slot);
+        } else {
+            value = current.accessor.get(obj);
+            context.put(slot, value);
+        }
+        return innerCondition.evaluate((V) value);
     }
 
-    private Field getField(Class<?> clazz, String fieldName) {
-        String key = clazz.getName() + "#" + fieldName;
-        return FIELD_CACHE.computeIfAbsent(key, k -> {
-            for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
-                try {
-                    Field f = current.getDeclaredField(fieldName);
-                    f.setAccessible(true);
-                    return f;
-                } catch (NoSuchFieldException ignored) {
+    /**
+     * 先按列读取所有选中对象的字段值，再交给内部条件批量计算
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        // 按第一个对象的类型判断能否按基本类型比较
+        int first = selection.nextSetBit(0);
+        Binding current = first >= 0 && values.get(first) != null ? binding(values.get(first)
+                                                                                 .getClass()) : null;
+        if (current != null && current.primitive != null) {
+            for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+                T obj = values.get(i);
+                if (obj == null) {
+                    selection.clear(i);
+                    continue;
+                }
+                Binding bound = obj.getClass() == current.type ? current : binding(obj.getClass());
+                boolean matched = bound.primitive != null ? bound.primitive.evaluate(bound.accessor, obj)
+                        : innerCondition.evaluate((V) bound.accessor.get(obj));
+                if (!matched) {
+                    selection.clear(i);
                 }
             }
-            throw new IllegalArgumentException("Field not found: " + fieldName);
-        });
+            return;
+        }
+        Object[] column = new Object[selection.length()];
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            T obj = values.get(i);
+            if (obj == null) {
+                selection.clear(i);
+            } else {
+                column[i] = accessor(obj.getClass()).get(obj);
+            }
+        }
+        innerCondition.evaluateBatch((List<V>) Arrays.asList(column), selection);
+    }
+
+    /**
+     * 获取指定类型的字段读取器
+     *
+     * @param type 对象类型
+     * @return 字段读取器
+     */
+    public FieldAccessor accessor(Class<?> type) {
+        return binding(type).accessor;
+    }
+
+    /**
+     * 获取指定类型上按基本类型比较的内部条件，与 {@link #evaluate(Object)} 使用的相同
+     *
+     * @param type 对象类型
+     * @return 基本类型条件，字段不是数值基本类型或内部条件无法转换时为 null
+     */
+    public PrimitiveCondition primitive(Class<?> type) {
+        return binding(type).primitive;
+    }
+
+    private Binding binding(Class<?> type) {
+        Binding current = binding;
+        if (current != null && current.type == type) {
+            return current;
+        }
+        FieldAccessor accessor;
+        try {
+            accessor = FieldAccessors.of(type, fieldName);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to evaluate field: " + fieldName, e);
+        }
+        current = new Binding(type, accessor, PrimitiveCondition.specialize(innerCondition, accessor.getType()));
+        binding = current;
+        return current;
+    }
+
+    private record Binding(Class<?> type, FieldAccessor accessor, PrimitiveCondition primitive) {
     }
 }
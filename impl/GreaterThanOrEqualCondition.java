@@ -1,6 +1,8 @@
 package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
+import java.util.BitSet;
+import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -22,6 +24,16 @@ public class GreaterThanOrEqualCondition<T extends Comparable<T>> implements Con
 
     @Override
     public boolean evaluate(T value) {
-        return value.compareTo(threshold) >= 0;
+        return Comparisons.compare(value, threshold) >= 0;
+    }
+
+    @Override
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            T value = values.get(i);
+            if (Comparisons.compare(value, threshold) < 0) {
+                selection.clear(i);
+            }
+        }
     }
 }
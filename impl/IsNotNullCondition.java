@@ -2,6 +2,8 @@ package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import java.util.BitSet;
+import java.util.List;
 import lombok.NoArgsConstructor;
 
 /**
@@ -16,4 +18,14 @@ public class IsNotNullCondition<T> implements Condition<T> {
     public boolean evaluate(T value) {
         return value != null;
     }
+
+    @Override
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            T value = values.get(i);
+            if (value == null) {
+                selection.clear(i);
+            }
+        }
+    }
 }
@@ -2,6 +2,8 @@ package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
 import com.fasterxml.jackson.annotation.JsonTypeName;
+import java.util.BitSet;
+import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -24,6 +26,16 @@ public class LessThanOrEqualCondition<T extends Comparable<T>> implements Condit
 
     @Override
     public boolean evaluate(T value) {
-        return value.compareTo(threshold) <= 0;
+        return Comparisons.compare(value, threshold) <= 0;
+    }
+
+    @Override
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            T value = values.get(i);
+            if (Comparisons.compare(value, threshold) > 0) {
+                selection.clear(i);
+            }
+        }
     }
 }
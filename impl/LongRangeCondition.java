@@ -0,0 +1,40 @@
+package com.au92.common.util.rule.impl;
+
+import com.au92.common.util.rule.accessor.FieldAccessor;
+import lombok.Getter;
+
+/**
+ * 整数字段的范围比较：min &lt;= value &lt;= max，negate 为 true 时取反。
+ * <p>
+ * &gt;、&lt; 转换为闭区间，== 与 != 是只有一个值的区间。
+ *
+ * @author p_x_c
+ */
+public final class LongRangeCondition implements PrimitiveCondition {
+    /**
+     * 恒为 false，例如 &gt; Long.MAX_VALUE
+     */
+    static final LongRangeCondition NEVER = new LongRangeCondition(1, 0, false);
+
+    @Getter
+    private final long min;
+    @Getter
+    private final long max;
+    @Getter
+    private final boolean negate;
+
+    LongRangeCondition(long min, long max, boolean negate) {
+        this.min = min;
+        this.max = max;
+        this.negate = negate;
+    }
+
+    public boolean test(long value) {
+        return (value >= min && value <= max) != negate;
+    }
+
+    @Override
+    public boolean evaluate(FieldAccessor accessor, Object target) {
+        return test(accessor.getLong(target));
+    }
+}
@@ -1,6 +1,9 @@
 package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import java.util.BitSet;
+import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -24,4 +27,16 @@ public class NotCondition<T> implements Condition<T> {
     public boolean evaluate(T value) {
         return !condition.evaluate(value);
     }
+
+    @Override
+    public boolean evaluate(T value, EvaluationContext context) {
+        return !condition.evaluate(value, context);
+    }
+
+    @Override
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        BitSet matched = (BitSet) selection.clone();
+        condition.evaluateBatch(values, matched);
+        selection.andNot(matched);
+    }
 }
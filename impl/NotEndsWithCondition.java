@@ -1,6 +1,8 @@
 package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
+import java.util.BitSet;
+import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -24,4 +26,14 @@ public class NotEndsWithCondition implements Condition<String> {
     public boolean evaluate(String value) {
         return value == null || !value.endsWith(suffix);
     }
+
+    @Override
+    public void evaluateBatch(List<String> values, BitSet selection) {
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            String value = values.get(i);
+            if (value != null && value.endsWith(suffix)) {
+                selection.clear(i);
+            }
+        }
+    }
 }
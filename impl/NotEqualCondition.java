@@ -1,6 +1,8 @@
 package com.au92.common.util.rule.impl;
 
 import com.au92.common.util.rule.Condition;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Objects;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -25,4 +27,14 @@ public class NotEqualCondition<T> implements Condition<T> {
     public boolean evaluate(T value) {
         return !Objects.equals(value, target);
     }
+
+    @Override
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            T value = values.get(i);
+            if (Objects.equals(value, target)) {
+                selection.clear(i);
+            }
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.au92.common.util.rule.impl;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.accessor.FieldAccessor;
+
+/**
+ * 基本类型字段上的比较条件，通过 {@link FieldAccessor#getLong(Object)} / {@link FieldAccessor#getDouble(Object)} 读取字段，
+ * 比较时不装箱。
+ * <p>
+ * 由 {@link FieldNameCondition} 在确定字段类型后通过 {@link #specialize(Condition, Class)} 自动生成，不出现在规则树中。
+ *
+ * @author p_x_c
+ */
+public interface PrimitiveCondition {
+
+    /**
+     * 读取字段并比较
+     *
+     * @param accessor 字段读取器
+     * @param target   对象，不能为 null
+     * @return 比较结果
+     */
+    boolean evaluate(FieldAccessor accessor, Object target);
+
+    /**
+     * 为基本类型字段生成等价的比较条件。
+     * <p>
+     * 支持 &gt;、&gt;=、&lt;、&lt;=、BETWEEN、==、!=；整数字段（int、long、short、byte）按 long 比较，
+     * 浮点字段（float、double）以及 int、short、byte 字段与小数阈值比较时按 {@link Double#compare(double, double)} 的语义比较。
+     * == 与 != 要求阈值恰好是字段的包装类型，否则与装箱比较的结果不同；
+     * 大小比较在阈值类型与字段类型不同时按数值比较，与装箱后的比较 {@link Comparisons#compare(Object, Object)} 一致。
+     *
+     * @param condition 作用于字段值的条件
+     * @param fieldType 字段类型
+     * @return 等价的基本类型条件，无法转换时返回 null
+     */
+    static PrimitiveCondition specialize(Condition<?> condition, Class<?> fieldType) {
+        boolean integral = fieldType == int.class || fieldType == long.class || fieldType == short.class || fieldType == byte.class;
+        boolean floating = fieldType == double.class || fieldType == float.class;
+        if (condition == null || (!integral && !floating)) {
+            return null;
+        }
+        Class<?> type = condition.getClass();
+        if (type == EqualCondition.class || type == NotEqualCondition.class) {
+            Object target = type == EqualCondition.class ? ((EqualCondition<?>) condition).getTarget() : ((NotEqualCondition<?>) condition).getTarget();
+            if (target == null || target.getClass() != wrapper(fieldType)) {
+                return null;
+            }
+            boolean negate = type == NotEqualCondition.class;
+            Number value = (Number) target;
+            return integral ? new LongRangeCondition(value.longValue(), value.longValue(), negate)
+                    : new DoubleRangeCondition(value.doubleValue(), true, value.doubleValue(), true, negate);
+        }
+
+        Object lower = null;
+        boolean lowerInclusive = true;
+        Object upper = null;
+        boolean upperInclusive = true;
+        if (type == GreaterThanCondition.class) {
+            lower = ((GreaterThanCondition<?>) condition).getThreshold();
+            lowerInclusive = false;
+        } else if (type == GreaterThanOrEqualCondition.class) {
+            lower = ((GreaterThanOrEqualCondition<?>) condition).getThreshold();
+        } else if (type == LessThanCondition.class) {
+            upper = ((LessThanCondition<?>) condition).getThreshold();
+            upperInclusive = false;
+        } else if (type == LessThanOrEqualCondition.class) {
+            upper = ((LessThanOrEqualCondition<?>) condition).getThreshold();
+        } else if (type == BetweenCondition.class) {
+            lower = ((BetweenCondition<?>) condition).getMin();
+            upper = ((BetweenCondition<?>) condition).getMax();
+            if (lower == null || upper == null) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        if ((lower == null && upper == null) || !isNumber(lower) || !isNumber(upper)) {
+            return null;
+        }
+
+        if (integral && isIntegral(lower) && isIntegral(upper)) {
+            long min = Long.MIN_VALUE;
+            long max = Long.MAX_VALUE;
+            if (lower != null) {
+                long value = ((Number) lower).longValue();
+                if (!lowerInclusive && value == Long.MAX_VALUE) {
+                    return LongRangeCondition.NEVER;
+                }
+                min = lowerInclusive ? value : value + 1;
+            }
+            if (upper != null) {
+                long value = ((Number) upper).longValue();
+                if (!upperInclusive && value == Long.MIN_VALUE) {
+                    return LongRangeCondition.NEVER;
+                }
+                max = upperInclusive ? value : value - 1;
+            }
+            return new LongRangeCondition(min, max, false);
+        }
+        // long 转换为 double 可能丢失精度
+        if (fieldType == long.class || lower instanceof Long || upper instanceof Long) {
+            return null;
+        }
+        // 无下界时用 -Infinity（含），无上界时用 NaN（含），按 Double.compare 的顺序 NaN 最大
+        return new DoubleRangeCondition(lower == null ? Double.NEGATIVE_INFINITY : ((Number) lower).doubleValue(), lower == null || lowerInclusive,
+                                        upper == null ? Double.NaN : ((Number) upper).doubleValue(), upper == null || upperInclusive, false);
+    }
+
+    private static boolean isNumber(Object value) {
+        return value == null || value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof Double || value instanceof Float;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value == null || value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static Class<?> wrapper(Class<?> primitive) {
+        if (primitive == int.class) {
+            return Integer.class;
+        } else if (primitive == long.class) {
+            return Long.class;
+        } else if (primitive == short.class) {
+            return Short.class;
+        } else if (primitive == byte.class) {
+            return Byte.class;
+        } else if (primitive == double.class) {
+            return Double.class;
+        }
+        return Float.class;
+    }
+}
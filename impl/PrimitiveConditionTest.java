@@ -0,0 +1,116 @@
+package com.au92.common.util.rule.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import com.au92.common.util.rule.RuleSet;
+import com.au92.common.util.rule.compiler.RuleCompiler;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 基本类型字段的比较与装箱后的比较结果一致
+ *
+ * @author p_x_c
+ */
+class PrimitiveConditionTest {
+    private static final Object[] THRESHOLDS = {80, -3, 0, 5L, 80L, Long.MAX_VALUE, 80.0, 79.5, -0.0, 0.0, Double.NaN, Double.NEGATIVE_INFINITY,
+            80.5f, Float.NaN, (short) 80, (byte) -3};
+
+    @Test
+    void doubleFieldWithIntegerThresholdOnEveryPath() {
+        Score fact = new Score(85.0, 85);
+        Condition<Score> condition = new FieldNameCondition<>("score", new GreaterThanCondition<>(80));
+
+        assertTrue(condition.evaluate(fact));
+        assertTrue(EvaluationContext.evaluate(condition, fact));
+        assertTrue(RuleCompiler.compile(condition, Score.class)
+                               .evaluate(fact));
+        assertEquals(List.of("vip"), new RuleSet<Score>().add("vip", condition)
+                                                         .match(fact));
+        BitSet selection = new BitSet();
+        selection.set(0);
+        condition.evaluateBatch(List.of(fact), selection);
+        assertTrue(selection.get(0));
+
+        Condition<Score> boxed = new FieldNameCondition<>("boxedScore", new GreaterThanCondition<>(80.0));
+        assertTrue(boxed.evaluate(fact));
+    }
+
+    @Test
+    void contextValueUsesPrimitiveBinding() {
+        Score fact = new Score(85.0, 85);
+        FieldNameCondition<Score, Integer> condition = new FieldNameCondition<>("score", new LessThanOrEqualCondition<>(100));
+        try (EvaluationContext context = EvaluationContext.open(fact)) {
+            context.put(EvaluationContext.slot("score"), 85.0);
+            assertTrue(condition.evaluate(fact, context));
+        }
+    }
+
+    @Test
+    void specializedMatchesBoxedComparison() {
+        double[] values = {-5, 0, -0.0, 79.5, 80, 80.5, 85, Double.NaN, Double.POSITIVE_INFINITY};
+        for (double value : values) {
+            Numbers primitive = new Numbers((int) value, (long) value, value, (float) value);
+            BoxedNumbers boxed = new BoxedNumbers((int) value, (long) value, value, (float) value);
+            for (String field : List.of("i", "l", "d", "f")) {
+                for (Object threshold : THRESHOLDS) {
+                    for (Condition<?> inner : comparisons(threshold)) {
+                        Condition<Numbers> onPrimitive = field(field, inner);
+                        Condition<BoxedNumbers> onBoxed = field(field, inner);
+                        String message = field + "=" + value + " " + inner.getClass()
+                                                                          .getSimpleName() + " " + threshold;
+                        assertEquals(outcome(() -> onBoxed.evaluate(boxed)), outcome(() -> onPrimitive.evaluate(primitive)), message);
+                        assertEquals(outcome(() -> onBoxed.evaluate(boxed)), outcome(() -> EvaluationContext.evaluate(onPrimitive, primitive)), message);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void specializeKeepsLongAndDoubleApart() {
+        assertNull(PrimitiveCondition.specialize(new GreaterThanCondition<>(1.5), long.class));
+        assertNull(PrimitiveCondition.specialize(new GreaterThanCondition<>(1L), double.class));
+        assertNull(PrimitiveCondition.specialize(new EqualCondition<>(80), double.class));
+        assertNotNull(PrimitiveCondition.specialize(new GreaterThanCondition<>(80), double.class));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Condition<?>> comparisons(Object threshold) {
+        Comparable value = (Comparable) threshold;
+        return List.of(new GreaterThanCondition(value), new GreaterThanOrEqualCondition(value), new LessThanCondition(value),
+                       new LessThanOrEqualCondition(value), new BetweenCondition(value, value), new BetweenCondition(-1, value));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Condition<T> field(String name, Condition<?> inner) {
+        return new FieldNameCondition(name, inner);
+    }
+
+    /**
+     * 结果或异常类型
+     */
+    private static Object outcome(Supplier<Boolean> evaluation) {
+        try {
+            return evaluation.get();
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    public record Score(double score, Integer boxedScore) {
+    }
+
+    public record Numbers(int i, long l, double d, float f) {
+    }
+
+    public record BoxedNumbers(Integer i, Long l, Double d, Float f) {
+    }
+}
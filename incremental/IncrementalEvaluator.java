@@ -0,0 +1,306 @@
+package com.au92.common.util.rule.incremental;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 增量计算规则：事实对象的部分字段变化后，只重新计算读取这些字段的叶子节点及其祖先。
+ * <p>
+ * 创建时把规则树展开为节点数组，以 {@link FieldNameCondition} 为叶子，建立字段名到叶子的索引；AND / OR / NOT 之外的其他节点
+ * 无法确定读取了哪些字段，每次更新都重新计算。{@link #evaluate(Object)} 计算全部叶子并按事实对象缓存每个节点的结果，
+ * {@link #update(Object, Collection)} 只重新计算变化字段对应的叶子，结果变化时沿父节点向上，用缓存的子节点结果重新合并，
+ * 祖先结果不变时停止。每次更新计算的叶子数只取决于变化的字段，与规则大小无关。
+ * <p>
+ * 所有叶子都会被计算（不短路，要求叶子没有副作用），叶子抛出的异常被记录下来；AND / OR 按子条件顺序由第一个决定结果的子条件
+ * 给出结果或异常，被短路的叶子不影响结果，因此结果以及抛出的异常与 {@link Condition#evaluate(Object)} 相同。
+ * <p>
+ * 节点结果按事实对象（按引用比较）保存在弱引用缓存中，事实对象被回收后自动释放。规则树在创建后不能修改；
+ * 不同事实对象可以在多个线程中同时计算，同一个事实对象的计算与更新需要由调用方串行执行。
+ *
+ * <pre>
+ * IncrementalEvaluator&lt;Session&gt; evaluator = new IncrementalEvaluator&lt;&gt;(rule);
+ * evaluator.evaluate(session);
+ * session.setCartAmount(300);
+ * boolean matched = evaluator.update(session, "cartAmount");
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class IncrementalEvaluator<T> {
+    private static final byte FALSE = 0;
+    private static final byte TRUE = 1;
+    private static final byte ERROR = 2;
+
+    private static final byte LEAF = 0;
+    private static final byte AND = 1;
+    private static final byte OR = 2;
+    private static final byte NOT = 3;
+
+    private final Condition<T>[] nodes;
+    private final byte[] kinds;
+    private final int[] parents;
+    private final int[][] children;
+    private final Map<String, int[]> leavesByField;
+    /**
+     * 不是 fieldName 的叶子，每次更新都重新计算
+     */
+    private final int[] opaqueLeaves;
+    private final Cache<T, State> states = CacheBuilder.newBuilder()
+                                                       .weakKeys()
+                                                       .build();
+
+    /**
+     * @param condition 规则
+     */
+    @SuppressWarnings("unchecked")
+    public IncrementalEvaluator(Condition<T> condition) {
+        Objects.requireNonNull(condition, "condition");
+        Builder<T> builder = new Builder<>();
+        builder.add(condition, -1);
+        int size = builder.nodes.size();
+        this.nodes = builder.nodes.toArray(new Condition[0]);
+        this.kinds = new byte[size];
+        this.parents = new int[size];
+        this.children = new int[size][];
+        for (int i = 0; i < size; i++) {
+            kinds[i] = builder.kinds.get(i);
+            parents[i] = builder.parents.get(i);
+            children[i] = builder.children.get(i)
+                                          .stream()
+                                          .mapToInt(Integer::intValue)
+                                          .toArray();
+        }
+        this.leavesByField = new HashMap<>();
+        builder.fields.forEach((field, leaves) -> leavesByField.put(field, leaves.stream()
+                                                                                 .mapToInt(Integer::intValue)
+                                                                                 .toArray()));
+        this.opaqueLeaves = builder.opaque.stream()
+                                          .mapToInt(Integer::intValue)
+                                          .toArray();
+    }
+
+    /**
+     * 完整计算并缓存每个节点的结果
+     *
+     * @param fact 事实对象
+     * @return 计算结果
+     */
+    public boolean evaluate(T fact) {
+        if (fact == null) {
+            return nodes[0].evaluate(null);
+        }
+        State state = new State(nodes.length);
+        for (int i = nodes.length - 1; i >= 0; i--) {
+            if (kinds[i] == LEAF) {
+                evaluateLeaf(i, fact, state);
+            } else {
+                combine(i, state);
+            }
+        }
+        states.put(fact, state);
+        return state.result();
+    }
+
+    /**
+     * 字段变化后重新计算，事实对象没有缓存的结果时完整计算
+     *
+     * @param fact          事实对象
+     * @param changedFields 变化的字段名
+     * @return 计算结果
+     */
+    public boolean update(T fact, Collection<String> changedFields) {
+        State state = fact == null ? null : states.getIfPresent(fact);
+        if (state == null) {
+            return evaluate(fact);
+        }
+        for (String field : changedFields) {
+            int[] leaves = leavesByField.get(field);
+            if (leaves != null) {
+                for (int leaf : leaves) {
+                    reevaluate(leaf, fact, state);
+                }
+            }
+        }
+        for (int leaf : opaqueLeaves) {
+            reevaluate(leaf, fact, state);
+        }
+        return state.result();
+    }
+
+    /**
+     * 字段变化后重新计算，事实对象没有缓存的结果时完整计算
+     *
+     * @param fact          事实对象
+     * @param changedFields 变化的字段名
+     * @return 计算结果
+     */
+    public boolean update(T fact, String... changedFields) {
+        return update(fact, Arrays.asList(changedFields));
+    }
+
+    /**
+     * 丢弃事实对象缓存的结果
+     *
+     * @param fact 事实对象
+     */
+    public void invalidate(T fact) {
+        states.invalidate(fact);
+    }
+
+    /**
+     * 规则读取的字段名
+     *
+     * @return 字段名
+     */
+    public Set<String> getFields() {
+        return Collections.unmodifiableSet(leavesByField.keySet());
+    }
+
+    /**
+     * 规则树的节点数
+     *
+     * @return 节点数
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * 重新计算叶子，结果变化时向上合并，直到祖先结果不变
+     */
+    private void reevaluate(int leaf, T fact, State state) {
+        byte previous = state.outcomes[leaf];
+        RuntimeException previousError = state.error(leaf);
+        evaluateLeaf(leaf, fact, state);
+        int node = leaf;
+        while (state.outcomes[node] != previous || state.error(node) != previousError) {
+            node = parents[node];
+            if (node < 0) {
+                return;
+            }
+            previous = state.outcomes[node];
+            previousError = state.error(node);
+            combine(node, state);
+        }
+    }
+
+    private void evaluateLeaf(int leaf, T fact, State state) {
+        try {
+            state.set(leaf, nodes[leaf].evaluate(fact) ? TRUE : FALSE, null);
+        } catch (RuntimeException e) {
+            state.set(leaf, ERROR, e);
+        }
+    }
+
+    /**
+     * 按子节点顺序合并：AND 由第一个不为 true 的子节点决定，OR 由第一个不为 false 的子节点决定
+     */
+    private void combine(int node, State state) {
+        byte kind = kinds[node];
+        if (kind == NOT) {
+            int child = children[node][0];
+            byte outcome = state.outcomes[child];
+            state.set(node, outcome == ERROR ? ERROR : outcome == TRUE ? FALSE : TRUE, state.error(child));
+            return;
+        }
+        byte passing = kind == AND ? TRUE : FALSE;
+        for (int child : children[node]) {
+            if (state.outcomes[child] != passing) {
+                state.set(node, state.outcomes[child], state.error(child));
+                return;
+            }
+        }
+        state.set(node, passing, null);
+    }
+
+    /**
+     * 一个事实对象上每个节点的结果
+     */
+    private static final class State {
+        private final byte[] outcomes;
+        /**
+         * 节点抛出或传递的异常，没有异常时不分配
+         */
+        private RuntimeException[] errors;
+
+        State(int size) {
+            this.outcomes = new byte[size];
+        }
+
+        void set(int node, byte outcome, RuntimeException error) {
+            outcomes[node] = outcome;
+            if (error != null && errors == null) {
+                errors = new RuntimeException[outcomes.length];
+            }
+            if (errors != null) {
+                errors[node] = error;
+            }
+        }
+
+        RuntimeException error(int node) {
+            return errors == null ? null : errors[node];
+        }
+
+        boolean result() {
+            if (outcomes[0] == ERROR) {
+                throw errors[0];
+            }
+            return outcomes[0] == TRUE;
+        }
+    }
+
+    /**
+     * 按先序展开规则树，父节点的下标小于子节点
+     */
+    private static final class Builder<T> {
+        private final List<Condition<T>> nodes = new ArrayList<>();
+        private final List<Byte> kinds = new ArrayList<>();
+        private final List<Integer> parents = new ArrayList<>();
+        private final List<List<Integer>> children = new ArrayList<>();
+        private final Map<String, List<Integer>> fields = new HashMap<>();
+        private final List<Integer> opaque = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        void add(Condition<T> condition, int parent) {
+            int index = nodes.size();
+            Class<?> type = condition == null ? null : condition.getClass();
+            byte kind = type == AndCondition.class ? AND : type == OrCondition.class ? OR : type == NotCondition.class ? NOT : LEAF;
+            nodes.add(condition);
+            kinds.add(kind);
+            parents.add(parent);
+            children.add(new ArrayList<>());
+            if (parent >= 0) {
+                children.get(parent)
+                        .add(index);
+            }
+            if (kind == AND) {
+                ((AndCondition<T>) condition).getConditions()
+                                             .forEach(child -> add(child, index));
+            } else if (kind == OR) {
+                ((OrCondition<T>) condition).getConditions()
+                                            .forEach(child -> add(child, index));
+            } else if (kind == NOT) {
+                add(((NotCondition<T>) condition).getCondition(), index);
+            } else if (type == FieldNameCondition.class && ((FieldNameCondition<?, ?>) condition).getFieldName() != null) {
+                fields.computeIfAbsent(((FieldNameCondition<?, ?>) condition).getFieldName(), field -> new ArrayList<>())
+                      .add(index);
+            } else {
+                opaque.add(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.au92.common.util.rule.incremental;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link IncrementalEvaluator#update(Object, java.util.Collection)} 的结果和抛出的异常与重新完整计算相同
+ *
+ * @author p_x_c
+ */
+class IncrementalEvaluatorTest {
+    private static final String[] FIELDS = {"a", "b", "c", "d"};
+    /**
+     * 字段取这个值时，抛异常的叶子抛出异常
+     */
+    private static final int FAILING_VALUE = 4;
+
+    private final Random random = new Random(23);
+    private int leafId;
+
+    @Test
+    void updateMatchesFreshEvaluation() {
+        for (int round = 0; round < 500; round++) {
+            Condition<Map<String, Object>> condition = tree(4);
+            IncrementalEvaluator<Map<String, Object>> evaluator = new IncrementalEvaluator<>(condition);
+            Map<String, Object> fact = new HashMap<>();
+            for (String field : FIELDS) {
+                fact.put(field, random.nextInt(5));
+            }
+            assertEquals(outcome(() -> condition.evaluate(fact)), outcome(() -> evaluator.evaluate(fact)));
+            for (int step = 0; step < 40; step++) {
+                List<String> changed = new ArrayList<>();
+                for (String field : FIELDS) {
+                    int choice = random.nextInt(4);
+                    if (choice == 0) {
+                        fact.put(field, random.nextInt(5));
+                        changed.add(field);
+                    } else if (choice == 1) {
+                        // 报告了变化但值相同
+                        changed.add(field);
+                    }
+                }
+                String expected = outcome(() -> condition.evaluate(fact));
+                assertEquals(expected, outcome(() -> evaluator.update(fact, changed)), "round " + round + " step " + step);
+                assertEquals(expected, outcome(() -> new IncrementalEvaluator<>(condition).evaluate(fact)));
+            }
+        }
+    }
+
+    @Test
+    void updateWithoutStateEvaluates() {
+        Condition<Map<String, Object>> condition = new FieldNameCondition<>("a", new GreaterThanCondition<>(1));
+        IncrementalEvaluator<Map<String, Object>> evaluator = new IncrementalEvaluator<>(condition);
+        Map<String, Object> fact = new HashMap<>(Map.of("a", 2));
+        assertEquals(true, evaluator.update(fact, "a"));
+        fact.put("a", 0);
+        evaluator.invalidate(fact);
+        assertEquals(false, evaluator.update(fact));
+    }
+
+    private Condition<Map<String, Object>> tree(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(4) : random.nextInt(7);
+        String field = FIELDS[random.nextInt(FIELDS.length)];
+        return switch (kind) {
+            case 0 -> new AndCondition<>(children(depth));
+            case 1 -> new OrCondition<>(children(depth));
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            case 3 -> new FieldNameCondition<>(field, new GreaterThanCondition<>(random.nextInt(5)));
+            case 4 -> new FieldNameCondition<>(field, new EqualCondition<>(random.nextInt(5)));
+            case 5 -> new FieldNameCondition<>(field, failing());
+            // 不是 fieldName 的叶子，每次更新都重新计算
+            default -> {
+                Condition<Integer> inner = failing();
+                yield fact -> inner.evaluate((Integer) fact.get(field));
+            }
+        };
+    }
+
+    private List<Condition<Map<String, Object>>> children(int depth) {
+        List<Condition<Map<String, Object>>> children = new ArrayList<>();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            children.add(tree(depth - 1));
+        }
+        return children;
+    }
+
+    /**
+     * 字段值等于 {@link #FAILING_VALUE} 时抛出带叶子编号的异常，否则判断奇偶
+     */
+    private Condition<Integer> failing() {
+        int id = leafId++;
+        return value -> {
+            if (value == FAILING_VALUE) {
+                throw new IllegalStateException("leaf " + id);
+            }
+            return value % 2 == 0;
+        };
+    }
+
+    private static String outcome(Evaluation evaluation) {
+        try {
+            return String.valueOf(evaluation.run());
+        } catch (IllegalStateException e) {
+            return "error " + e.getMessage();
+        }
+    }
+
+    private interface Evaluation {
+        boolean run();
+    }
+}
@@ -0,0 +1,334 @@
+package com.au92.common.util.rule.mapped;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.DoubleRangeCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.LongRangeCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.PrimitiveCondition;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * 直接在内存映射的定长记录文件上计算规则，不为记录创建对象。
+ * <p>
+ * 创建时按 {@link RecordSchema} 把规则树中 {@link FieldNameCondition} 的字段名绑定为偏移：
+ * 数值字段上的比较条件按 {@link PrimitiveCondition#specialize(Condition, Class)} 转换为范围比较，直接从缓冲区读取基本类型；
+ * 字符串字段上的 == / != 直接比较 UTF-8 字节。计算这些条件以及 AND / OR / NOT 时不分配对象。
+ * 其他条件读取装箱的字段值（字符串字段解码为 String）后计算，结果与在对象上计算相同。
+ * <p>
+ * 规则树的根节点只能是 AND / OR / NOT / fieldName，字段名必须在布局中存在，否则抛出 {@link IllegalArgumentException}。
+ * 绑定后的扫描器不可变，可以被多个线程同时使用，之后修改规则树或布局不会影响扫描器。
+ *
+ * <pre>
+ * RecordScanner scanner = new RecordScanner(schema, RuleOptimizer.fromJson(json));
+ * long count = scanner.count(Path.of("events-20240101.bin"));
+ * scanner.scan(path, offset -&gt; matched.add(offset));
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class RecordScanner {
+    /**
+     * 每次映射的最大字节数，文件按记录边界分段映射
+     */
+    static final int MAX_WINDOW = 1 << 30;
+
+    private final RecordSchema schema;
+    private final int recordLength;
+    private final int maxWindow;
+    private final RecordPredicate predicate;
+
+    /**
+     * @param schema    记录布局
+     * @param condition 规则
+     */
+    public RecordScanner(RecordSchema schema, Condition<?> condition) {
+        this(schema, condition, MAX_WINDOW);
+    }
+
+    /**
+     * @param maxWindow 每次映射的最大字节数，测试时用较小的值覆盖分段映射
+     */
+    RecordScanner(RecordSchema schema, Condition<?> condition, int maxWindow) {
+        this.schema = Objects.requireNonNull(schema, "schema");
+        this.recordLength = schema.getRecordLength();
+        this.maxWindow = maxWindow;
+        if (recordLength <= 0 || recordLength > maxWindow) {
+            throw new IllegalArgumentException("invalid record length: " + recordLength);
+        }
+        this.predicate = bindRow(condition);
+    }
+
+    /**
+     * 计算缓冲区中的一条记录
+     *
+     * @param buffer 缓冲区，字节序需与布局一致
+     * @param offset 记录在缓冲区中的绝对位置
+     * @return 是否满足条件
+     */
+    public boolean test(ByteBuffer buffer, int offset) {
+        return predicate.test(buffer, offset);
+    }
+
+    /**
+     * 计算文件中满足条件的记录数
+     *
+     * @param file 记录文件，长度必须是记录长度的整数倍
+     * @return 记录数
+     * @throws IOException 读取失败
+     */
+    public long count(Path file) throws IOException {
+        long[] count = new long[1];
+        scan(file, offset -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * 按顺序访问文件中满足条件的记录
+     *
+     * @param file   记录文件，长度必须是记录长度的整数倍
+     * @param action 接收满足条件的记录在文件中的字节偏移
+     * @throws IOException 读取失败
+     */
+    public void scan(Path file, LongConsumer action) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % recordLength != 0) {
+                throw new IllegalArgumentException("file size " + size + " is not a multiple of record length " + recordLength);
+            }
+            long window = (long) (maxWindow / recordLength) * recordLength;
+            for (long position = 0; position < size; position += window) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(window, size - position))
+                                           .order(schema.getOrder());
+                scan(buffer, position, action);
+            }
+        }
+    }
+
+    /**
+     * 计算缓冲区中 position 到 limit 之间满足条件的记录数
+     *
+     * @param buffer 缓冲区
+     * @return 记录数
+     */
+    public long count(ByteBuffer buffer) {
+        long[] count = new long[1];
+        scan(buffer, offset -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * 按顺序访问缓冲区中 position 到 limit 之间满足条件的记录，不改变缓冲区的位置
+     *
+     * @param buffer 缓冲区
+     * @param action 接收满足条件的记录相对 position 的字节偏移
+     */
+    public void scan(ByteBuffer buffer, LongConsumer action) {
+        if (buffer.remaining() % recordLength != 0) {
+            throw new IllegalArgumentException("buffer size " + buffer.remaining() + " is not a multiple of record length " + recordLength);
+        }
+        scan(buffer.slice()
+                   .order(schema.getOrder()), 0, action);
+    }
+
+    private void scan(ByteBuffer buffer, long base, LongConsumer action) {
+        int limit = buffer.limit() - recordLength;
+        for (int offset = 0; offset <= limit; offset += recordLength) {
+            if (predicate.test(buffer, offset)) {
+                action.accept(base + offset);
+            }
+        }
+    }
+
+    /**
+     * 作用于整条记录的条件
+     */
+    private RecordPredicate bindRow(Condition<?> condition) {
+        Class<?> type = condition == null ? null : condition.getClass();
+        if (type == AndCondition.class) {
+            return and(bindAll(((AndCondition<?>) condition).getConditions(), null));
+        } else if (type == OrCondition.class) {
+            return or(bindAll(((OrCondition<?>) condition).getConditions(), null));
+        } else if (type == NotCondition.class) {
+            RecordPredicate child = bindRow(((NotCondition<?>) condition).getCondition());
+            return (buffer, offset) -> !child.test(buffer, offset);
+        } else if (type == FieldNameCondition.class) {
+            FieldNameCondition<?, ?> field = (FieldNameCondition<?, ?>) condition;
+            RecordSchema.Field layout = schema.field(field.getFieldName());
+            if (layout == null) {
+                throw new IllegalArgumentException("field not found in schema: " + field.getFieldName());
+            }
+            return bindField(field.getInnerCondition(), layout);
+        }
+        throw new IllegalArgumentException("record scanning requires AND / OR / NOT / fieldName at the record level, got " + type);
+    }
+
+    /**
+     * field 为 null 时绑定作用于整条记录的条件，否则绑定作用于字段值的条件
+     */
+    private RecordPredicate[] bindAll(List<? extends Condition<?>> conditions, RecordSchema.Field field) {
+        RecordPredicate[] predicates = new RecordPredicate[conditions.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = field == null ? bindRow(conditions.get(i)) : bindField(conditions.get(i), field);
+        }
+        return predicates;
+    }
+
+    /**
+     * 作用于字段值的条件
+     */
+    @SuppressWarnings("unchecked")
+    private RecordPredicate bindField(Condition<?> condition, RecordSchema.Field field) {
+        Class<?> type = condition == null ? null : condition.getClass();
+        if (type == AndCondition.class) {
+            return and(bindAll(((AndCondition<?>) condition).getConditions(), field));
+        } else if (type == OrCondition.class) {
+            return or(bindAll(((OrCondition<?>) condition).getConditions(), field));
+        } else if (type == NotCondition.class) {
+            RecordPredicate child = bindField(((NotCondition<?>) condition).getCondition(), field);
+            return (buffer, offset) -> !child.test(buffer, offset);
+        }
+
+        int position = field.offset();
+        if (field.type() == RecordSchema.FieldType.STRING) {
+            if (type == EqualCondition.class || type == NotEqualCondition.class) {
+                boolean negate = type == NotEqualCondition.class;
+                Object target = negate ? ((NotEqualCondition<?>) condition).getTarget() : ((EqualCondition<?>) condition).getTarget();
+                byte[] bytes = encode(target, field.length());
+                if (bytes == null) {
+                    return (buffer, offset) -> negate;
+                }
+                return (buffer, offset) -> equals(buffer, offset + position, field.length(), bytes) != negate;
+            }
+        } else {
+            PrimitiveCondition primitive = PrimitiveCondition.specialize(condition, field.type()
+                                                                                         .getJavaType());
+            if (primitive instanceof LongRangeCondition range) {
+                return switch (field.type()) {
+                    case BYTE -> (buffer, offset) -> range.test(buffer.get(offset + position));
+                    case SHORT -> (buffer, offset) -> range.test(buffer.getShort(offset + position));
+                    case INT -> (buffer, offset) -> range.test(buffer.getInt(offset + position));
+                    default -> (buffer, offset) -> range.test(buffer.getLong(offset + position));
+                };
+            } else if (primitive instanceof DoubleRangeCondition range) {
+                return switch (field.type()) {
+                    case BYTE -> (buffer, offset) -> range.test(buffer.get(offset + position));
+                    case SHORT -> (buffer, offset) -> range.test(buffer.getShort(offset + position));
+                    case INT -> (buffer, offset) -> range.test(buffer.getInt(offset + position));
+                    case FLOAT -> (buffer, offset) -> range.test(buffer.getFloat(offset + position));
+                    default -> (buffer, offset) -> range.test(buffer.getDouble(offset + position));
+                };
+            }
+        }
+        Condition<Object> leaf = (Condition<Object>) condition;
+        return (buffer, offset) -> leaf.evaluate(read(buffer, offset, field));
+    }
+
+    /**
+     * 装箱读取字段值，字符串字段解码为 String
+     */
+    private static Object read(ByteBuffer buffer, int offset, RecordSchema.Field field) {
+        int position = offset + field.offset();
+        return switch (field.type()) {
+            case BYTE -> buffer.get(position);
+            case SHORT -> buffer.getShort(position);
+            case INT -> buffer.getInt(position);
+            case LONG -> buffer.getLong(position);
+            case FLOAT -> buffer.getFloat(position);
+            case DOUBLE -> buffer.getDouble(position);
+            case STRING -> {
+                byte[] bytes = new byte[length(buffer, position, field.length())];
+                buffer.get(position, bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * 字符串的字节数：第一个 0 字节之前，或整个字段
+     */
+    private static int length(ByteBuffer buffer, int position, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(position + i) == 0) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 字段中的字符串是否与 target 的 UTF-8 字节相同
+     */
+    private static boolean equals(ByteBuffer buffer, int position, int length, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            if (buffer.get(position + i) != target[i]) {
+                return false;
+            }
+        }
+        return target.length == length || buffer.get(position + target.length) == 0;
+    }
+
+    /**
+     * 目标值的 UTF-8 字节；不是字符串、包含 0 字符、不是合法的 UTF-16 或超出字段长度时，任何字段值都不会与之相等，返回 null
+     */
+    private static byte[] encode(Object target, int length) {
+        if (!(target instanceof String text) || text.indexOf('\0') >= 0) {
+            return null;
+        }
+        try {
+            ByteBuffer encoded = StandardCharsets.UTF_8.newEncoder()
+                                                       .encode(CharBuffer.wrap(text));
+            if (encoded.remaining() > length) {
+                return null;
+            }
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            return bytes;
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    private static RecordPredicate and(RecordPredicate[] children) {
+        return (buffer, offset) -> {
+            for (RecordPredicate child : children) {
+                if (!child.test(buffer, offset)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static RecordPredicate or(RecordPredicate[] children) {
+        return (buffer, offset) -> {
+            for (RecordPredicate child : children) {
+                if (child.test(buffer, offset)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * 绑定了偏移的条件
+     */
+    private interface RecordPredicate {
+        boolean test(ByteBuffer buffer, int offset);
+    }
+}
@@ -0,0 +1,193 @@
+package com.au92.common.util.rule.mapped;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotEqualCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * {@link RecordScanner} 在定长记录文件上的结果与在对象上计算相同
+ *
+ * @author p_x_c
+ */
+class RecordScannerTest {
+    private static final int RECORDS = 37;
+    /**
+     * 不是记录长度的整数倍，按原始大小分段时第 11 条记录会跨越两段
+     */
+    private static final int WINDOW = 500;
+    private static final String[] STATUSES = {"", "gold", "exactly8", "状态", "go"};
+    /**
+     * 字段最多 8 个字节：超长、包含 0 字符的目标不会与任何字段值相等
+     */
+    private static final String[] STATUS_TARGETS = {"", "gold", "exactly8", "exactly89", "状态", "状", "a\0b", "go"};
+
+    private final Random random = new Random(21);
+
+    @Test
+    void matchesObjectEvaluation(@TempDir Path directory) throws Exception {
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            RecordSchema schema = schema(order);
+            assertEquals(47, schema.getRecordLength());
+            List<Map<String, Object>> facts = new ArrayList<>();
+            Path file = directory.resolve(order + ".bin");
+            Files.write(file, write(schema, facts));
+            for (int round = 0; round < 300; round++) {
+                Condition<Map<String, Object>> condition = tree(3);
+                List<Long> expected = new ArrayList<>();
+                for (int i = 0; i < facts.size(); i++) {
+                    if (condition.evaluate(facts.get(i))) {
+                        expected.add((long) i * schema.getRecordLength());
+                    }
+                }
+                RecordScanner windowed = new RecordScanner(schema, condition, WINDOW);
+                List<Long> offsets = new ArrayList<>();
+                windowed.scan(file, offsets::add);
+                assertEquals(expected, offsets, order + " round " + round);
+                assertEquals(expected.size(), windowed.count(file));
+                RecordScanner scanner = new RecordScanner(schema, condition);
+                assertEquals(expected.size(), scanner.count(file));
+                assertEquals(expected.size(), scanner.count(ByteBuffer.wrap(Files.readAllBytes(file))));
+            }
+        }
+    }
+
+    @Test
+    void rejectsPartialRecords(@TempDir Path directory) throws Exception {
+        RecordSchema schema = schema(ByteOrder.BIG_ENDIAN);
+        RecordScanner scanner = new RecordScanner(schema, new FieldNameCondition<>("age", new GreaterThanCondition<>(0)));
+        Path file = directory.resolve("partial.bin");
+        Files.write(file, new byte[schema.getRecordLength() + 1]);
+        assertThrows(IllegalArgumentException.class, () -> scanner.count(file));
+        assertThrows(IllegalArgumentException.class, () -> new RecordScanner(schema, new FieldNameCondition<>("missing", new GreaterThanCondition<>(0))));
+    }
+
+    /**
+     * 紧密排列的字段、跳过的字节、指定偏移的字段以及记录末尾未使用的字节
+     */
+    private static RecordSchema schema(ByteOrder order) {
+        return new RecordSchema(order).add("id", RecordSchema.FieldType.LONG)
+                                      .add("age", RecordSchema.FieldType.INT)
+                                      .add("level", RecordSchema.FieldType.SHORT)
+                                      .add("flag", RecordSchema.FieldType.BYTE)
+                                      .skip(1)
+                                      .add("score", RecordSchema.FieldType.DOUBLE)
+                                      .add("ratio", RecordSchema.FieldType.FLOAT)
+                                      .addString("status", 8)
+                                      .addString("note", 40, 4)
+                                      .recordLength(47);
+    }
+
+    private byte[] write(RecordSchema schema, List<Map<String, Object>> facts) {
+        double[] doubles = {Double.NaN, 0.0, -0.0, 1.5, -2.5, 3.0, Double.NEGATIVE_INFINITY};
+        ByteBuffer buffer = ByteBuffer.allocate(RECORDS * schema.getRecordLength())
+                                      .order(schema.getOrder());
+        for (int i = 0; i < RECORDS; i++) {
+            Map<String, Object> fact = new HashMap<>();
+            fact.put("id", random.nextBoolean() ? (long) random.nextInt(5) : random.nextLong());
+            fact.put("age", random.nextInt(7) - 3);
+            fact.put("level", (short) (random.nextInt(7) - 3));
+            fact.put("flag", (byte) (random.nextInt(7) - 3));
+            fact.put("score", doubles[random.nextInt(doubles.length)]);
+            fact.put("ratio", (float) doubles[random.nextInt(doubles.length)]);
+            fact.put("status", STATUSES[random.nextInt(STATUSES.length)]);
+            fact.put("note", random.nextBoolean() ? "ab" : "abcd");
+            facts.add(fact);
+
+            int base = i * schema.getRecordLength();
+            // 未使用的字节填入非 0 值，读取时不能越界到这些字节
+            for (int b = 0; b < schema.getRecordLength(); b++) {
+                buffer.put(base + b, (byte) 0x7F);
+            }
+            buffer.putLong(base + schema.field("id").offset(), (Long) fact.get("id"));
+            buffer.putInt(base + schema.field("age").offset(), (Integer) fact.get("age"));
+            buffer.putShort(base + schema.field("level").offset(), (Short) fact.get("level"));
+            buffer.put(base + schema.field("flag").offset(), (Byte) fact.get("flag"));
+            buffer.putDouble(base + schema.field("score").offset(), (Double) fact.get("score"));
+            buffer.putFloat(base + schema.field("ratio").offset(), (Float) fact.get("ratio"));
+            putString(buffer, base, schema.field("status"), (String) fact.get("status"));
+            putString(buffer, base, schema.field("note"), (String) fact.get("note"));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 写入 UTF-8 字节，不足字段长度时以 0 结尾
+     */
+    private static void putString(ByteBuffer buffer, int base, RecordSchema.Field field, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        for (int b = 0; b < field.length(); b++) {
+            buffer.put(base + field.offset() + b, b < bytes.length ? bytes[b] : 0);
+        }
+    }
+
+    private Condition<Map<String, Object>> tree(int depth) {
+        int kind = depth == 0 ? 3 : random.nextInt(4);
+        if (kind == 3) {
+            String[] fields = {"id", "age", "level", "flag", "score", "ratio", "status", "note"};
+            String field = fields[random.nextInt(fields.length)];
+            return new FieldNameCondition<>(field, leaf(field));
+        }
+        List<Condition<Map<String, Object>>> children = new ArrayList<>();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            children.add(tree(depth - 1));
+        }
+        return kind == 0 ? new AndCondition<>(children) : kind == 1 ? new OrCondition<>(children) : new NotCondition<>(children.get(0));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<Object> leaf(String field) {
+        if (field.equals("status") || field.equals("note")) {
+            String target = field.equals("note") ? (random.nextBoolean() ? "ab" : "abc") : STATUS_TARGETS[random.nextInt(STATUS_TARGETS.length)];
+            return switch (random.nextInt(3)) {
+                case 0 -> new EqualCondition<>(target);
+                case 1 -> new NotEqualCondition<>(target);
+                default -> (Condition) new StartsWithCondition(target);
+            };
+        }
+        boolean floating = field.equals("score") || field.equals("ratio");
+        // long 与 double 不能比较，整数字段只用整数阈值
+        Comparable threshold = floating && random.nextBoolean() ? (Comparable) (random.nextInt(7) - 3.5) : (Comparable) (random.nextInt(7) - 3);
+        Object same = switch (field) {
+            case "id" -> (long) random.nextInt(5);
+            case "age" -> random.nextInt(7) - 3;
+            case "level" -> (short) (random.nextInt(7) - 3);
+            case "flag" -> (byte) (random.nextInt(7) - 3);
+            case "score" -> random.nextBoolean() ? Double.NaN : -0.0;
+            default -> random.nextBoolean() ? Float.NaN : 1.5f;
+        };
+        return switch (random.nextInt(7)) {
+            case 0 -> new GreaterThanCondition(threshold);
+            case 1 -> new GreaterThanOrEqualCondition(threshold);
+            case 2 -> new LessThanCondition(threshold);
+            case 3 -> new LessThanOrEqualCondition(threshold);
+            case 4 -> new BetweenCondition(threshold, (Comparable) (random.nextInt(7) - 2));
+            case 5 -> new EqualCondition<>(same);
+            default -> new NotEqualCondition<>(same);
+        };
+    }
+}
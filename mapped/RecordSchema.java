@@ -0,0 +1,187 @@
+package com.au92.common.util.rule.mapped;
+
+import java.nio.ByteOrder;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 定长记录文件的布局：每条记录占 recordLength 字节，每个字段在记录中有固定的偏移与类型。
+ * <p>
+ * 字段按添加顺序紧密排列，也可以指定偏移；记录长度默认为字段的最大结束位置，可以通过 {@link #recordLength(int)} 加大
+ * （例如包含未使用的字节）。字符串字段是定长的 UTF-8 字节，遇到第一个 0 字节或字段结束即为字符串结束。
+ *
+ * <pre>
+ * RecordSchema schema = new RecordSchema(ByteOrder.LITTLE_ENDIAN).add("id", RecordSchema.FieldType.LONG)
+ *                                                                .add("age", RecordSchema.FieldType.INT)
+ *                                                                .add("score", RecordSchema.FieldType.DOUBLE)
+ *                                                                .addString("status", 12);
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class RecordSchema {
+    private final ByteOrder order;
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+    /**
+     * 下一个按顺序添加的字段的偏移
+     */
+    private int position;
+    private int recordLength;
+
+    /**
+     * 使用大端字节序
+     */
+    public RecordSchema() {
+        this(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * @param order 数值字段的字节序
+     */
+    public RecordSchema(ByteOrder order) {
+        this.order = Objects.requireNonNull(order, "order");
+    }
+
+    /**
+     * 在上一个字段之后添加定长字段
+     */
+    public RecordSchema add(String name, FieldType type) {
+        return add(name, type, position);
+    }
+
+    /**
+     * 在指定偏移添加定长字段
+     */
+    public RecordSchema add(String name, FieldType type, int offset) {
+        if (type == FieldType.STRING) {
+            throw new IllegalArgumentException("string field requires a length, use addString");
+        }
+        return put(new Field(name, type, offset, type.size));
+    }
+
+    /**
+     * 在上一个字段之后添加字符串字段
+     *
+     * @param length 字节数
+     */
+    public RecordSchema addString(String name, int length) {
+        return addString(name, position, length);
+    }
+
+    /**
+     * 在指定偏移添加字符串字段
+     *
+     * @param length 字节数
+     */
+    public RecordSchema addString(String name, int offset, int length) {
+        return put(new Field(name, FieldType.STRING, offset, length));
+    }
+
+    /**
+     * 跳过不使用的字节，下一个按顺序添加的字段从其后开始
+     */
+    public RecordSchema skip(int bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("bytes must not be negative");
+        }
+        position += bytes;
+        recordLength = Math.max(recordLength, position);
+        return this;
+    }
+
+    /**
+     * 设置记录长度，不能小于字段的最大结束位置
+     */
+    public RecordSchema recordLength(int length) {
+        if (length < end()) {
+            throw new IllegalArgumentException("record length " + length + " is shorter than the fields (" + end() + ")");
+        }
+        recordLength = length;
+        return this;
+    }
+
+    public ByteOrder getOrder() {
+        return order;
+    }
+
+    public int getRecordLength() {
+        return recordLength;
+    }
+
+    /**
+     * 按名称查找字段
+     *
+     * @param name 字段名
+     * @return 字段，不存在时返回 null
+     */
+    public Field field(String name) {
+        return fields.get(name);
+    }
+
+    public Collection<Field> fields() {
+        return Collections.unmodifiableCollection(fields.values());
+    }
+
+    private RecordSchema put(Field field) {
+        Objects.requireNonNull(field.name(), "name");
+        if (field.offset() < 0 || field.length() <= 0) {
+            throw new IllegalArgumentException("invalid layout of field " + field.name());
+        }
+        if (fields.putIfAbsent(field.name(), field) != null) {
+            throw new IllegalArgumentException("duplicate field: " + field.name());
+        }
+        position = field.offset() + field.length();
+        recordLength = Math.max(recordLength, position);
+        return this;
+    }
+
+    private int end() {
+        int end = 0;
+        for (Field field : fields.values()) {
+            end = Math.max(end, field.offset() + field.length());
+        }
+        return end;
+    }
+
+    /**
+     * 字段类型，整数与浮点数按 {@link #getOrder()} 读取
+     */
+    public enum FieldType {
+        BYTE(1, byte.class),
+        SHORT(2, short.class),
+        INT(4, int.class),
+        LONG(8, long.class),
+        FLOAT(4, float.class),
+        DOUBLE(8, double.class),
+        STRING(0, String.class);
+
+        private final int size;
+        private final Class<?> javaType;
+
+        FieldType(int size, Class<?> javaType) {
+            this.size = size;
+            this.javaType = javaType;
+        }
+
+        /**
+         * 对应的 Java 类型，数值字段为基本类型
+         */
+        public Class<?> getJavaType() {
+            return javaType;
+        }
+    }
+
+    /**
+     * 字段
+     *
+     * @param name   字段名，对应 {@link com.au92.common.util.rule.impl.FieldNameCondition} 的字段名
+     * @param type   类型
+     * @param offset 在记录中的偏移
+     * @param length 字节数
+     */
+    public record Field(String name, FieldType type, int offset, int length) {
+    }
+}
@@ -0,0 +1,236 @@
+package com.au92.common.util.rule.metrics;
+
+import com.au92.common.util.json.JsonUtils;
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.ConditionWrapper;
+import com.au92.common.util.rule.impl.FieldCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带统计的条件，记录被包装节点的计算次数、通过次数、异常次数，并按 1/{@link #SAMPLE_RATE} 的比例抽样记录耗时。
+ * <p>
+ * 通过 {@link #instrument(Condition)} 一次包装整棵规则树，每个节点各自统计，{@link #snapshot()} 返回与规则树同构的快照。
+ * fieldName / field 的内部条件是单个比较（不是 AND / OR / NOT）时不包装，由字段节点一起统计：按节点类型识别比较条件的优化
+ * （例如 {@link com.au92.common.util.rule.impl.PrimitiveCondition} 的基本类型比较、规则集的索引）因此仍然生效，包装后的规则与原规则的结果完全相同。
+ * 计数使用 {@link LongAdder}，并发求值时不会在同一个计数器上竞争；不需要统计时使用原规则即可，没有任何额外开销。
+ * <p>
+ * 原规则不会被修改，序列化时输出原规则。
+ *
+ * @author p_x_c
+ */
+public class InstrumentedCondition<T> implements ConditionWrapper<T>, JsonSerializable {
+    static final int SAMPLE_RATE = 16;
+
+    private final String label;
+    private final Condition<T> delegate;
+    private final Condition<T> original;
+    private final List<InstrumentedCondition<?>> children;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder passes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private InstrumentedCondition(String label, Condition<T> delegate, Condition<T> original, List<InstrumentedCondition<?>> children) {
+        this.label = label;
+        this.delegate = delegate;
+        this.original = original;
+        this.children = children;
+    }
+
+    /**
+     * 包装整棵规则树，每个节点都会被统计
+     *
+     * @param condition 规则
+     * @param <T>       规则适用的对象类型
+     * @return 带统计的规则
+     */
+    public static <T> InstrumentedCondition<T> instrument(Condition<T> condition) {
+        return instrument(null, condition);
+    }
+
+    /**
+     * 包装整棵规则树，根节点使用指定的名称
+     *
+     * @param name      规则名称，为 null 时使用节点描述
+     * @param condition 规则
+     * @param <T>       规则适用的对象类型
+     * @return 带统计的规则
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> InstrumentedCondition<T> instrument(String name, Condition<T> condition) {
+        List<InstrumentedCondition<?>> children = new ArrayList<>();
+        Condition<T> delegate = condition;
+        String label;
+        Class<?> type = condition == null ? null : condition.getClass();
+        if (type == AndCondition.class && ((AndCondition<T>) condition).getConditions() != null) {
+            AndCondition<T> and = new AndCondition<>(wrap(((AndCondition<T>) condition).getConditions(), children));
+            and.setAdaptive(((AndCondition<T>) condition).isAdaptive());
+            delegate = and;
+            label = "and";
+        } else if (type == OrCondition.class && ((OrCondition<T>) condition).getConditions() != null) {
+            OrCondition<T> or = new OrCondition<>(wrap(((OrCondition<T>) condition).getConditions(), children));
+            or.setAdaptive(((OrCondition<T>) condition).isAdaptive());
+            delegate = or;
+            label = "or";
+        } else if (type == NotCondition.class && ((NotCondition<T>) condition).getCondition() != null) {
+            InstrumentedCondition<T> child = instrument(((NotCondition<T>) condition).getCondition());
+            children.add(child);
+            delegate = new NotCondition<>(child);
+            label = "not";
+        } else if (type == FieldNameCondition.class && isJunction(((FieldNameCondition) condition).getInnerCondition())) {
+            FieldNameCondition field = (FieldNameCondition) condition;
+            InstrumentedCondition<?> child = instrument(field.getInnerCondition());
+            children.add(child);
+            delegate = new FieldNameCondition(field.getFieldName(), child);
+            label = "fieldName " + field.getFieldName();
+        } else if (type == FieldNameCondition.class) {
+            FieldNameCondition field = (FieldNameCondition) condition;
+            label = "fieldName " + field.getFieldName() + " " + describe(field.getInnerCondition());
+        } else if (type == FieldCondition.class && isJunction(((FieldCondition) condition).getCondition())) {
+            FieldCondition field = (FieldCondition) condition;
+            InstrumentedCondition<?> child = instrument(field.getCondition());
+            children.add(child);
+            delegate = new FieldCondition(field.getGetter(), child);
+            label = "field";
+        } else if (type == FieldCondition.class) {
+            label = "field " + describe(((FieldCondition) condition).getCondition());
+        } else {
+            label = describe(condition);
+        }
+        return new InstrumentedCondition<>(name != null ? name : label, delegate, condition, children);
+    }
+
+    private static boolean isJunction(Condition<?> condition) {
+        Class<?> type = condition == null ? null : condition.getClass();
+        return (type == AndCondition.class && ((AndCondition<?>) condition).getConditions() != null)
+                || (type == OrCondition.class && ((OrCondition<?>) condition).getConditions() != null)
+                || (type == NotCondition.class && ((NotCondition<?>) condition).getCondition() != null);
+    }
+
+    private static <T> List<Condition<T>> wrap(List<Condition<T>> conditions, List<InstrumentedCondition<?>> children) {
+        List<Condition<T>> wrapped = new ArrayList<>(conditions.size());
+        for (Condition<T> condition : conditions) {
+            InstrumentedCondition<T> child = instrument(condition);
+            children.add(child);
+            wrapped.add(child);
+        }
+        return wrapped;
+    }
+
+    /**
+     * 叶子节点使用其 JSON 作为描述，无法序列化时使用类名
+     */
+    private static String describe(Condition<?> condition) {
+        if (condition == null) {
+            return "null";
+        }
+        try {
+            return JsonUtils.toJSONString(condition);
+        } catch (Exception e) {
+            return condition.getClass()
+                            .getSimpleName();
+        }
+    }
+
+    @Override
+    public boolean evaluate(T value) {
+        return evaluate(value, null);
+    }
+
+    @Override
+    public boolean evaluate(T value, EvaluationContext context) {
+        evaluations.increment();
+        boolean sampled = ThreadLocalRandom.current()
+                                           .nextInt(SAMPLE_RATE) == 0;
+        long start = sampled ? System.nanoTime() : 0;
+        boolean result;
+        try {
+            result = delegate.evaluate(value, context);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            if (sampled) {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+        if (result) {
+            passes.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 批量计算只统计次数与通过次数，不统计耗时
+     */
+    @Override
+    public void evaluateBatch(List<T> values, BitSet selection) {
+        int selected = selection.cardinality();
+        try {
+            delegate.evaluateBatch(values, selection);
+        } catch (RuntimeException e) {
+            errors.increment();
+            throw e;
+        }
+        evaluations.add(selected);
+        passes.add(selection.cardinality());
+    }
+
+    /**
+     * 获取当前的统计快照
+     *
+     * @return 与规则树同构的快照
+     */
+    public NodeSnapshot snapshot() {
+        List<NodeSnapshot> snapshots = new ArrayList<>(children.size());
+        for (InstrumentedCondition<?> child : children) {
+            snapshots.add(child.snapshot());
+        }
+        return new NodeSnapshot(label, evaluations.sum(), passes.sum(), errors.sum(), latency.count(),
+                latency.percentile(0.5), latency.percentile(0.99), latency.max(), snapshots);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 获取被包装的原规则
+     *
+     * @return 原规则
+     */
+    public Condition<T> getOriginal() {
+        return original;
+    }
+
+    @Override
+    public Condition<T> unwrap() {
+        return original;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        serializers.defaultSerializeValue(original, gen);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        // 类型标识取自原规则
+        serializers.findValueSerializer(original.getClass())
+                   .serializeWithType(original, gen, serializers, typeSer);
+    }
+}
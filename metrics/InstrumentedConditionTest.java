@@ -0,0 +1,144 @@
+package com.au92.common.util.rule.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.EvaluationContext;
+import com.au92.common.util.rule.RuleSet;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.IsNotNullCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 包装后的规则与原规则的结果相同
+ *
+ * @author p_x_c
+ */
+class InstrumentedConditionTest {
+    private final Random random = new Random(10);
+
+    @Test
+    void primitiveComparisonIsKept() {
+        Condition<Account> condition = new FieldNameCondition<>("score", new GreaterThanCondition<>(80));
+        InstrumentedCondition<Account> instrumented = InstrumentedCondition.instrument(condition);
+        Account account = new Account(85.0, 3, "vip", "gold member");
+
+        assertTrue(condition.evaluate(account));
+        assertTrue(instrumented.evaluate(account));
+        assertTrue(EvaluationContext.evaluate(instrumented, account));
+        assertEquals(List.of("rule"), new RuleSet<Account>().add("rule", instrumented)
+                                                            .match(account));
+    }
+
+    @Test
+    void sameResultsAsOriginal() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            accounts.add(account());
+        }
+        for (int round = 0; round < 500; round++) {
+            Condition<Account> condition = tree(3);
+            InstrumentedCondition<Account> instrumented = InstrumentedCondition.instrument(condition);
+            RuleSet<Account> original = new RuleSet<Account>().add("rule", condition);
+            RuleSet<Account> wrapped = new RuleSet<Account>().add("rule", instrumented);
+            for (Account account : accounts) {
+                Object expected = outcome(() -> condition.evaluate(account));
+                String message = condition + " " + account;
+                assertEquals(expected, outcome(() -> instrumented.evaluate(account)), message);
+                assertEquals(expected, outcome(() -> EvaluationContext.evaluate(instrumented, account)), message);
+                assertEquals(outcome(() -> original.match(account)), outcome(() -> wrapped.match(account)), message);
+            }
+        }
+    }
+
+    @Test
+    void adaptiveOrderSeesGuardThroughWrapper() {
+        AndCondition<Map<String, Object>> condition = new AndCondition<>(List.of(new FieldNameCondition<>("x", new IsNotNullCondition<>()),
+                                                                                 new FieldNameCondition<>("x", new GreaterThanCondition<>(5))));
+        condition.setAdaptive(true);
+        InstrumentedCondition<Map<String, Object>> instrumented = InstrumentedCondition.instrument(condition);
+        Map<String, Object> small = Map.of("x", 1);
+        Map<String, Object> missing = new HashMap<>();
+        missing.put("x", null);
+        for (int i = 0; i < 200_000; i++) {
+            // 5% 的事实字段为 null，其余都不满足比较，统计上比较优先
+            Map<String, Object> fact = i % 20 == 0 ? missing : small;
+            assertEquals(condition.evaluate(fact), instrumented.evaluate(fact));
+        }
+        assertEquals(0, instrumented.snapshot()
+                                    .errors());
+    }
+
+    @Test
+    void countsEveryNode() {
+        Condition<Account> condition = new AndCondition<>(List.of(new FieldNameCondition<>("visits", new GreaterThanCondition<>(1)),
+                                                                  new FieldNameCondition<>("level", new EqualCondition<>("vip"))));
+        InstrumentedCondition<Account> instrumented = InstrumentedCondition.instrument("vip", condition);
+        instrumented.evaluate(new Account(0, 5, "vip", ""));
+        instrumented.evaluate(new Account(0, 0, "vip", ""));
+
+        NodeSnapshot snapshot = instrumented.snapshot();
+        assertEquals("vip", snapshot.label());
+        assertEquals(2, snapshot.evaluations());
+        assertEquals(1, snapshot.passes());
+        assertEquals(2, snapshot.children()
+                                .get(0)
+                                .evaluations());
+        assertEquals(1, snapshot.children()
+                                .get(1)
+                                .evaluations());
+    }
+
+    private Account account() {
+        double[] scores = {0, 79.5, 80, 85, Double.NaN};
+        String[] levels = {"vip", "normal", null};
+        return new Account(scores[random.nextInt(scores.length)], random.nextInt(6), levels[random.nextInt(levels.length)],
+                           random.nextBoolean() ? "gold member" : "member");
+    }
+
+    private Condition<Account> tree(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(4) : random.nextInt(7);
+        return switch (kind) {
+            case 0 -> new AndCondition<>(List.of(tree(depth - 1), tree(depth - 1)));
+            case 1 -> new OrCondition<>(List.of(tree(depth - 1), tree(depth - 1)));
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            case 3 -> field("score", random.nextBoolean() ? new GreaterThanCondition<>(80) : new BetweenCondition<>(79.5, 85.0));
+            case 4 -> field("visits", random.nextBoolean() ? new LessThanOrEqualCondition<>(2L)
+                    : new OrCondition<>(List.of(new EqualCondition<>(1), new EqualCondition<>(4))));
+            case 5 -> new FieldNameCondition<>("level", random.nextBoolean() ? new EqualCondition<>("vip") : new IsNullCondition<>());
+            default -> new FieldNameCondition<>("description", new ContainsCondition("gold"));
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Condition<Account> field(String name, Condition<?> inner) {
+        return new FieldNameCondition(name, inner);
+    }
+
+    private static Object outcome(Supplier<Object> evaluation) {
+        try {
+            return evaluation.get();
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    public record Account(double score, int visits, String level, String description) {
+    }
+}
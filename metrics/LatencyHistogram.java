@@ -0,0 +1,82 @@
+package com.au92.common.util.rule.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 无锁的延迟直方图，按 2 的幂划分桶：第 i 个桶记录 [2^(i-1), 2^i) 纳秒的样本，第 0 个桶记录 0 纳秒。
+ * <p>
+ * 分位数取所在桶的上界，误差不超过 2 倍，适合观察数量级与长尾。
+ *
+ * @author p_x_c
+ */
+public final class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一个样本
+     *
+     * @param nanos 耗时纳秒
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+        max.accumulate(value);
+    }
+
+    /**
+     * 样本数量
+     *
+     * @return 样本数量
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * 估算分位数
+     *
+     * @param quantile 分位，取值 0 ~ 1
+     * @return 分位数（纳秒），没有样本时为 0
+     */
+    public long percentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * 最大值
+     *
+     * @return 最大耗时纳秒
+     */
+    public long max() {
+        return max.get();
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,67 @@
+package com.au92.common.util.rule.metrics;
+
+import java.util.List;
+
+/**
+ * 规则树中一个节点在某一时刻的统计快照，children 与规则树的结构一致
+ *
+ * @param label       节点描述
+ * @param evaluations 计算次数
+ * @param passes      结果为 true 的次数
+ * @param errors      抛出异常的次数
+ * @param samples     参与耗时统计的抽样次数
+ * @param p50Nanos    耗时中位数（纳秒）
+ * @param p99Nanos    耗时 99 分位（纳秒）
+ * @param maxNanos    最大耗时（纳秒）
+ * @param children    子节点快照
+ * @author p_x_c
+ */
+public record NodeSnapshot(String label, long evaluations, long passes, long errors, long samples, long p50Nanos,
+                           long p99Nanos, long maxNanos, List<NodeSnapshot> children) {
+
+    /**
+     * 通过率，没有计算过时为 0
+     *
+     * @return 通过率
+     */
+    public double passRate() {
+        return evaluations == 0 ? 0 : (double) passes / evaluations;
+    }
+
+    /**
+     * 以缩进的树形文本输出
+     *
+     * @return 树形文本
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        format(builder, 0);
+        return builder.toString();
+    }
+
+    private void format(StringBuilder builder, int depth) {
+        builder.append("  ".repeat(depth))
+               .append(label)
+               .append(" evaluations=")
+               .append(evaluations)
+               .append(" passRate=")
+               .append(String.format("%.4f", passRate()))
+               .append(" errors=")
+               .append(errors)
+               .append(" p50=")
+               .append(p50Nanos)
+               .append("ns p99=")
+               .append(p99Nanos)
+               .append("ns max=")
+               .append(maxNanos)
+               .append("ns\n");
+        for (NodeSnapshot child : children) {
+            child.format(builder, depth + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,76 @@
+package com.au92.common.util.rule.metrics;
+
+import com.au92.common.util.rule.Condition;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按规则名称管理 {@link InstrumentedCondition}，用于导出所有规则的统计。
+ *
+ * <pre>
+ * RuleMetrics metrics = new RuleMetrics();
+ * Condition&lt;User&gt; vip = metrics.instrument("vip", vipCondition);
+ * ...
+ * System.out.println(metrics.format());
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class RuleMetrics {
+    private final Map<String, InstrumentedCondition<?>> rules = new ConcurrentHashMap<>();
+
+    /**
+     * 包装规则并以指定名称注册，同名规则会被替换
+     *
+     * @param name      规则名称
+     * @param condition 规则
+     * @param <T>       规则适用的对象类型
+     * @return 带统计的规则
+     */
+    public <T> Condition<T> instrument(String name, Condition<T> condition) {
+        InstrumentedCondition<T> instrumented = InstrumentedCondition.instrument(name, condition);
+        rules.put(name, instrumented);
+        return instrumented;
+    }
+
+    /**
+     * 移除规则的统计
+     *
+     * @param name 规则名称
+     */
+    public void remove(String name) {
+        rules.remove(name);
+    }
+
+    /**
+     * 获取所有规则的统计快照，按名称排序
+     *
+     * @return 规则名称 -> 快照
+     */
+    public Map<String, NodeSnapshot> snapshot() {
+        Map<String, NodeSnapshot> snapshots = new LinkedHashMap<>();
+        rules.keySet()
+             .stream()
+             .sorted()
+             .forEach(name -> {
+                 InstrumentedCondition<?> rule = rules.get(name);
+                 if (rule != null) {
+                     snapshots.put(name, rule.snapshot());
+                 }
+             });
+        return snapshots;
+    }
+
+    /**
+     * 以树形文本输出所有规则的统计
+     *
+     * @return 树形文本
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        snapshot().values()
+                  .forEach(snapshot -> builder.append(snapshot.format()));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,216 @@
+package com.au92.common.util.rule.pattern;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick 多模式匹配自动机，一次扫描即可得到所有模式串的包含、前缀、后缀匹配情况。
+ * <p>
+ * 构建完成后不可变，可被多个线程共享。
+ *
+ * @author p_x_c
+ */
+final class AhoCorasick {
+    private static final int[] NO_PATTERNS = new int[0];
+
+    /**
+     * 模式串长度
+     */
+    private final int[] lengths;
+    /**
+     * 空模式串，任何字符串都包含、以其开头和结尾
+     */
+    private final int[] emptyPatterns;
+    /**
+     * 每个节点的出边字符（有序）与目标节点
+     */
+    private final char[][] edges;
+    private final int[][] targets;
+    /**
+     * 失配指针
+     */
+    private final int[] fail;
+    /**
+     * 沿失配链最近的有输出的节点，没有时为 -1
+     */
+    private final int[] dictionary;
+    /**
+     * 在该节点结束的模式串
+     */
+    private final int[][] outputs;
+
+    AhoCorasick(List<String> patterns) {
+        lengths = new int[patterns.size()];
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> terminals = new ArrayList<>();
+        List<Integer> empty = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminals.add(new ArrayList<>());
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            lengths[id] = pattern.length();
+            if (pattern.isEmpty()) {
+                empty.add(id);
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = trie.get(node)
+                                   .get(pattern.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    terminals.add(new ArrayList<>());
+                    trie.get(node)
+                        .put(pattern.charAt(i), next);
+                }
+                node = next;
+            }
+            terminals.get(node)
+                     .add(id);
+        }
+
+        int size = trie.size();
+        edges = new char[size][];
+        targets = new int[size][];
+        outputs = new int[size][];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> children = trie.get(node);
+            edges[node] = new char[children.size()];
+            targets[node] = new int[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : children.entrySet()) {
+                edges[node][i] = child.getKey();
+                targets[node][i++] = child.getValue();
+            }
+            List<Integer> terminal = terminals.get(node);
+            outputs[node] = terminal.isEmpty() ? NO_PATTERNS : terminal.stream()
+                                                                       .mapToInt(Integer::intValue)
+                                                                       .toArray();
+        }
+        emptyPatterns = empty.stream()
+                             .mapToInt(Integer::intValue)
+                             .toArray();
+
+        // 按层序计算失配指针与输出链
+        fail = new int[size];
+        dictionary = new int[size];
+        dictionary[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            dictionary[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edges[node].length; i++) {
+                char c = edges[node][i];
+                int child = targets[node][i];
+                int state = fail[node];
+                int to;
+                while ((to = transition(state, c)) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                fail[child] = Math.max(to, 0);
+                int suffix = fail[child];
+                dictionary[child] = outputs[suffix].length > 0 ? suffix : dictionary[suffix];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 模式串数量
+     */
+    int size() {
+        return lengths.length;
+    }
+
+    /**
+     * 扫描文本，将匹配结果写入 result
+     *
+     * @param text   文本
+     * @param result 扫描结果，调用方负责清空
+     */
+    void scan(String text, Scan result) {
+        for (int id : emptyPatterns) {
+            result.found(id, true, true);
+        }
+        int last = text.length() - 1;
+        int state = 0;
+        for (int i = 0; i <= last; i++) {
+            char c = text.charAt(i);
+            int to;
+            while ((to = transition(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(to, 0);
+            for (int node = outputs[state].length > 0 ? state : dictionary[state]; node >= 0; node = dictionary[node]) {
+                for (int id : outputs[node]) {
+                    result.found(id, i + 1 == lengths[id], i == last);
+                }
+            }
+        }
+    }
+
+    private int transition(int state, char c) {
+        int index = Arrays.binarySearch(edges[state], c);
+        return index < 0 ? -1 : targets[state][index];
+    }
+
+    /**
+     * 一次扫描的结果，按模式串 ID 记录包含、前缀、后缀三种匹配
+     */
+    static final class Scan {
+        private final long[] contains;
+        private final long[] prefix;
+        private final long[] suffix;
+        /**
+         * 本次结果对应的文本
+         */
+        String text;
+
+        Scan(int patterns) {
+            int words = (patterns + 63) >>> 6;
+            contains = new long[words];
+            prefix = new long[words];
+            suffix = new long[words];
+        }
+
+        void clear() {
+            Arrays.fill(contains, 0L);
+            Arrays.fill(prefix, 0L);
+            Arrays.fill(suffix, 0L);
+            text = null;
+        }
+
+        void found(int id, boolean atStart, boolean atEnd) {
+            long bit = 1L << id;
+            contains[id >>> 6] |= bit;
+            if (atStart) {
+                prefix[id >>> 6] |= bit;
+            }
+            if (atEnd) {
+                suffix[id >>> 6] |= bit;
+            }
+        }
+
+        boolean contains(int id) {
+            return (contains[id >>> 6] & (1L << id)) != 0;
+        }
+
+        boolean startsWith(int id) {
+            return (prefix[id >>> 6] & (1L << id)) != 0;
+        }
+
+        boolean endsWith(int id) {
+            return (suffix[id >>> 6] & (1L << id)) != 0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.au92.common.util.rule.pattern;
+
+import com.au92.common.util.rule.Condition;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import java.io.IOException;
+
+/**
+ * 由 {@link StringPatternOptimizer} 生成的字符串条件，结果从共享自动机的扫描结果中读取。
+ * <p>
+ * 序列化时输出被替换的原始条件。
+ *
+ * @author p_x_c
+ */
+public class PatternCondition implements Condition<String>, JsonSerializable {
+    private final PatternMatcher matcher;
+    private final int pattern;
+    private final Mode mode;
+    /**
+     * 是否为否定条件，例如 notcontains
+     */
+    private final boolean negate;
+    private final Condition<String> original;
+
+    PatternCondition(PatternMatcher matcher, int pattern, Mode mode, boolean negate, Condition<String> original) {
+        this.matcher = matcher;
+        this.pattern = pattern;
+        this.mode = mode;
+        this.negate = negate;
+        this.original = original;
+    }
+
+    /**
+     * 获取被替换的原始条件
+     *
+     * @return 原始条件
+     */
+    public Condition<String> getOriginal() {
+        return original;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        serializers.defaultSerializeValue(original, gen);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        // 类型标识取自原始条件
+        serializers.findValueSerializer(original.getClass())
+                   .serializeWithType(original, gen, serializers, typeSer);
+    }
+
+    @Override
+    public boolean evaluate(String value) {
+        if (value == null) {
+            return negate;
+        }
+        AhoCorasick.Scan scan = matcher.scan(value);
+        boolean found = switch (mode) {
+            case CONTAINS -> scan.contains(pattern);
+            case STARTS_WITH -> scan.startsWith(pattern);
+            case ENDS_WITH -> scan.endsWith(pattern);
+        };
+        return found != negate;
+    }
+
+    /**
+     * 匹配方式
+     */
+    enum Mode {
+        CONTAINS,
+        STARTS_WITH,
+        ENDS_WITH
+    }
+}
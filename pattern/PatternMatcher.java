@@ -0,0 +1,31 @@
+package com.au92.common.util.rule.pattern;
+
+import java.util.List;
+
+/**
+ * 同一字段上所有字符串条件共享的匹配器。
+ * <p>
+ * 每个线程缓存最近一次扫描的文本及结果，同一个字符串对象被多个条件判断时只扫描一次。
+ *
+ * @author p_x_c
+ */
+final class PatternMatcher {
+    private final AhoCorasick automaton;
+    private final ThreadLocal<AhoCorasick.Scan> scans;
+
+    PatternMatcher(List<String> patterns) {
+        this.automaton = new AhoCorasick(patterns);
+        this.scans = ThreadLocal.withInitial(() -> new AhoCorasick.Scan(automaton.size()));
+    }
+
+    AhoCorasick.Scan scan(String text) {
+        AhoCorasick.Scan scan = scans.get();
+        // 字符串不可变，同一对象的扫描结果可以复用
+        if (scan.text != text) {
+            scan.clear();
+            automaton.scan(text, scan);
+            scan.text = text;
+        }
+        return scan;
+    }
+}
@@ -0,0 +1,194 @@
+package com.au92.common.util.rule.pattern;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import com.au92.common.util.rule.pattern.PatternCondition.Mode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 字符串条件优化器。
+ * <p>
+ * 收集一条或多条规则中同一字段上的 contains / startsWith / endsWith 及其否定条件，为每个字段构建一个共享的
+ * {@link AhoCorasick} 自动机，并把这些条件替换为 {@link PatternCondition}。一次求值中同一字段的字符串只扫描一次，
+ * 每个条件的结果从匹配到的模式串 ID 中读取。
+ * <p>
+ * 模式串少于 {@link #MIN_PATTERNS} 个的字段保持不变；原规则不会被修改，未变化的子树直接复用。
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+public class StringPatternOptimizer {
+    /**
+     * 同一字段至少有多少个不同模式串时才构建自动机
+     */
+    public static final int MIN_PATTERNS = 4;
+
+    /**
+     * 优化单条规则
+     *
+     * @param condition 规则
+     * @param <T>       规则适用的对象类型
+     * @return 优化后的规则
+     */
+    public static <T> Condition<T> optimize(Condition<T> condition) {
+        return optimize(List.of(condition)).get(0);
+    }
+
+    /**
+     * 优化多条规则，同一字段的字符串条件在所有规则之间共享自动机
+     *
+     * @param conditions 规则
+     * @param <T>        规则适用的对象类型
+     * @return 优化后的规则，顺序与输入一致
+     */
+    public static <T> List<Condition<T>> optimize(List<Condition<T>> conditions) {
+        // 字段名 -> 模式串，直接作用于字符串本身的条件使用 null 作为字段名
+        Map<String, Group> groups = new HashMap<>();
+        for (Condition<T> condition : conditions) {
+            collect(condition, null, groups);
+        }
+        groups.values()
+              .removeIf(group -> group.patterns.size() < MIN_PATTERNS);
+        List<Condition<T>> optimized = new ArrayList<>(conditions.size());
+        for (Condition<T> condition : conditions) {
+            optimized.add(groups.isEmpty() ? condition : rewrite(condition, null, groups));
+        }
+        return optimized;
+    }
+
+    private static void collect(Condition<?> condition, String fieldName, Map<String, Group> groups) {
+        if (condition == null) {
+            return;
+        }
+        Class<?> type = condition.getClass();
+        if (type == AndCondition.class && ((AndCondition<?>) condition).getConditions() != null) {
+            ((AndCondition<?>) condition).getConditions()
+                                         .forEach(child -> collect(child, fieldName, groups));
+        } else if (type == OrCondition.class && ((OrCondition<?>) condition).getConditions() != null) {
+            ((OrCondition<?>) condition).getConditions()
+                                        .forEach(child -> collect(child, fieldName, groups));
+        } else if (type == NotCondition.class) {
+            collect(((NotCondition<?>) condition).getCondition(), fieldName, groups);
+        } else if (type == FieldNameCondition.class) {
+            FieldNameCondition<?, ?> field = (FieldNameCondition<?, ?>) condition;
+            collect(field.getInnerCondition(), field.getFieldName(), groups);
+        } else {
+            String pattern = pattern(condition);
+            if (pattern != null) {
+                Group group = groups.computeIfAbsent(fieldName, k -> new Group());
+                group.patterns.putIfAbsent(pattern, group.patterns.size());
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Condition<T> rewrite(Condition<T> condition, String fieldName, Map<String, Group> groups) {
+        if (condition == null) {
+            return null;
+        }
+        Class<?> type = condition.getClass();
+        if (type == AndCondition.class && ((AndCondition<T>) condition).getConditions() != null) {
+            List<Condition<T>> children = rewrite(((AndCondition<T>) condition).getConditions(), fieldName, groups);
+            if (children == null) {
+                return condition;
+            }
+            AndCondition<T> and = new AndCondition<>(children);
+            and.setAdaptive(((AndCondition<T>) condition).isAdaptive());
+            return and;
+        }
+        if (type == OrCondition.class && ((OrCondition<T>) condition).getConditions() != null) {
+            List<Condition<T>> children = rewrite(((OrCondition<T>) condition).getConditions(), fieldName, groups);
+            if (children == null) {
+                return condition;
+            }
+            OrCondition<T> or = new OrCondition<>(children);
+            or.setAdaptive(((OrCondition<T>) condition).isAdaptive());
+            return or;
+        }
+        if (type == NotCondition.class) {
+            Condition<T> child = ((NotCondition<T>) condition).getCondition();
+            Condition<T> rewritten = rewrite(child, fieldName, groups);
+            return rewritten == child ? condition : new NotCondition<>(rewritten);
+        }
+        if (type == FieldNameCondition.class) {
+            FieldNameCondition field = (FieldNameCondition) condition;
+            Condition inner = field.getInnerCondition();
+            Condition rewritten = rewrite(inner, field.getFieldName(), groups);
+            return rewritten == inner ? condition : new FieldNameCondition(field.getFieldName(), rewritten);
+        }
+        String pattern = pattern(condition);
+        Group group = groups.get(fieldName);
+        if (pattern == null || group == null) {
+            return condition;
+        }
+        Mode mode = type == ContainsCondition.class || type == NotContainsCondition.class ? Mode.CONTAINS
+                : type == StartsWithCondition.class || type == NotStartsWithCondition.class ? Mode.STARTS_WITH
+                : Mode.ENDS_WITH;
+        boolean negate = type == NotContainsCondition.class || type == NotStartsWithCondition.class || type == NotEndsWithCondition.class;
+        return (Condition<T>) new PatternCondition(group.matcher(), group.patterns.get(pattern), mode, negate, (Condition<String>) condition);
+    }
+
+    /**
+     * 重写子条件列表，没有变化时返回 null
+     */
+    private static <T> List<Condition<T>> rewrite(List<Condition<T>> children, String fieldName, Map<String, Group> groups) {
+        List<Condition<T>> rewritten = new ArrayList<>(children.size());
+        boolean changed = false;
+        for (Condition<T> child : children) {
+            Condition<T> result = rewrite(child, fieldName, groups);
+            changed |= result != child;
+            rewritten.add(result);
+        }
+        return changed ? rewritten : null;
+    }
+
+    /**
+     * 可以由自动机计算的字符串条件返回其模式串，否则返回 null
+     */
+    private static String pattern(Condition<?> condition) {
+        Class<?> type = condition.getClass();
+        if (type == ContainsCondition.class) {
+            return ((ContainsCondition) condition).getKeyword();
+        } else if (type == NotContainsCondition.class) {
+            return ((NotContainsCondition) condition).getKeyword();
+        } else if (type == StartsWithCondition.class) {
+            return ((StartsWithCondition) condition).getPrefix();
+        } else if (type == NotStartsWithCondition.class) {
+            return ((NotStartsWithCondition) condition).getPrefix();
+        } else if (type == EndsWithCondition.class) {
+            return ((EndsWithCondition) condition).getSuffix();
+        } else if (type == NotEndsWithCondition.class) {
+            return ((NotEndsWithCondition) condition).getSuffix();
+        }
+        return null;
+    }
+
+    /**
+     * 同一字段上的模式串
+     */
+    private static final class Group {
+        private final Map<String, Integer> patterns = new LinkedHashMap<>();
+        private PatternMatcher matcher;
+
+        PatternMatcher matcher() {
+            if (matcher == null) {
+                matcher = new PatternMatcher(new ArrayList<>(patterns.keySet()));
+            }
+            return matcher;
+        }
+    }
+}
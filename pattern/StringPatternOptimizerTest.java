@@ -0,0 +1,132 @@
+package com.au92.common.util.rule.pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EndsWithCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.NotContainsCondition;
+import com.au92.common.util.rule.impl.NotEndsWithCondition;
+import com.au92.common.util.rule.impl.NotStartsWithCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.StartsWithCondition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link StringPatternOptimizer}
+ *
+ * @author p_x_c
+ */
+class StringPatternOptimizerTest {
+    /**
+     * 相互重叠的模式串，包括空串、增补平面字符以及只有一个字符的模式串
+     */
+    private static final String[] PATTERNS = {"", "a", "ab", "aba", "abab", "bab", "b", "ba", "c", "cab", "abc", "\uD83D\uDE00", "a\uD83D\uDE00"};
+    private static final String[] ALPHABET = {"a", "b", "c", "\uD83D\uDE00"};
+
+    private final Random random = new Random(5);
+
+    @Test
+    void matchesOriginalOnRandomStrings() {
+        int rewritten = 0;
+        for (int round = 0; round < 300; round++) {
+            List<Condition<Message>> rules = List.of(tree(3), tree(3), tree(2));
+            List<Condition<Message>> optimized = StringPatternOptimizer.optimize(rules);
+            for (int i = 0; i < rules.size(); i++) {
+                rewritten += rules.get(i) == optimized.get(i) ? 0 : 1;
+            }
+            for (int n = 0; n < 50; n++) {
+                Message message = new Message(text(), text());
+                for (int i = 0; i < rules.size(); i++) {
+                    assertEquals(rules.get(i)
+                                      .evaluate(message), optimized.get(i)
+                                                                   .evaluate(message), "round " + round + " rule " + i + " " + message);
+                }
+            }
+        }
+        // 多数规则的字段有不少于 MIN_PATTERNS 个模式串而被改写
+        assertTrue(rewritten > 450, "rewritten " + rewritten);
+    }
+
+    @Test
+    void keepsAdaptiveFlag() {
+        OrCondition<Message> or = new OrCondition<>(List.of(text(new ContainsCondition("spam")), text(new ContainsCondition("scam")),
+                                                             text(new StartsWithCondition("re:"))));
+        or.setAdaptive(true);
+        AndCondition<Message> and = new AndCondition<>(List.of(or, text(new EndsWithCondition("!"))));
+        and.setAdaptive(true);
+
+        Condition<Message> optimized = StringPatternOptimizer.optimize(and);
+        assertNotSame(and, optimized);
+        AndCondition<Message> optimizedAnd = (AndCondition<Message>) optimized;
+        assertTrue(optimizedAnd.isAdaptive());
+        assertTrue(((OrCondition<Message>) optimizedAnd.getConditions()
+                                                       .get(0)).isAdaptive());
+        for (String text : List.of("re: hello!", "spam", "a scam!", "hello")) {
+            Message message = new Message(text);
+            assertEquals(and.evaluate(message), optimized.evaluate(message), text);
+        }
+    }
+
+    private Condition<Message> tree(int depth) {
+        int kind = depth == 0 ? 3 : random.nextInt(4);
+        if (kind == 3) {
+            return new FieldNameCondition<>(random.nextBoolean() ? "text" : "title", leaf());
+        }
+        List<Condition<Message>> children = new ArrayList<>();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            children.add(tree(depth - 1));
+        }
+        return kind == 0 ? new AndCondition<>(children) : kind == 1 ? new OrCondition<>(children) : new NotCondition<>(children.get(0));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<String> leaf() {
+        String pattern = PATTERNS[random.nextInt(PATTERNS.length)];
+        return switch (random.nextInt(8)) {
+            case 0 -> new ContainsCondition(pattern);
+            case 1 -> new NotContainsCondition(pattern);
+            case 2 -> new StartsWithCondition(pattern);
+            case 3 -> new NotStartsWithCondition(pattern);
+            case 4 -> new EndsWithCondition(pattern);
+            case 5 -> new NotEndsWithCondition(pattern);
+            case 6 -> (Condition) new NotCondition<>(new ContainsCondition(pattern));
+            // 不是模式串条件，保持不变
+            default -> new EqualCondition<>(pattern);
+        };
+    }
+
+    /**
+     * 随机字符串，约 1/10 为 null
+     */
+    private String text() {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = random.nextInt(10); i > 0; i--) {
+            builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static Condition<Message> text(Condition<String> inner) {
+        return new FieldNameCondition<>("text", inner);
+    }
+
+    public record Message(String text, String title) {
+
+        Message(String text) {
+            this(text, null);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.au92.common.util.rule.repository;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import com.au92.common.util.json.JsonUtils;
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.RuleOptimizer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 规则仓库，从本地目录加载命名规则，目录中每个 {@code <name>.json} 文件是一条规则。
+ * <p>
+ * 解析后的规则树按文件内容的 SHA-256 缓存，内容相同的文件只解析一次；重新加载时读取文件并比较内容哈希，
+ * 只有内容确实改变的文件才重新解析。不依赖文件大小和修改时间，修改时间精度内大小不变的改写也能被发现。
+ * <p>
+ * 所有规则保存在一个不可变快照中，重新加载时在加载线程上构建新快照，完成后通过一次 volatile 写整体替换：
+ * 读取规则的线程从不加锁，也不会看到只加载了一部分的规则。解析失败的文件保留上一版本的规则，异常可通过 {@link #getErrors()} 查看。
+ * <p>
+ * 调用 {@link #watch()} 后由后台线程监听目录变化，只重新加载发生变化的文件；处理某次事件失败时记录日志并保留当前版本，
+ * 监听线程继续处理后续事件。
+ *
+ * <pre>
+ * try (RuleRepository&lt;User&gt; repository = new RuleRepository&lt;User&gt;(Path.of("rules"), true).load().watch()) {
+ *     boolean vip = repository.get("vip").evaluate(user);
+ * }
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class RuleRepository<T> implements AutoCloseable {
+    private static final String SUFFIX = ".json";
+    /**
+     * 收到目录事件后继续等待的时间，合并同一次写入产生的多个事件
+     */
+    private static final long DEBOUNCE_MILLIS = 50;
+    private static final System.Logger LOGGER = System.getLogger(RuleRepository.class.getName());
+
+    private final Path directory;
+    private final boolean optimize;
+    /**
+     * 内容哈希 -> 解析后的规则，只在持有 {@link #reloadLock} 时访问
+     */
+    private final Map<String, Condition<T>> parsed = new HashMap<>();
+    /**
+     * 串行化重新加载，读取规则不需要获取
+     */
+    private final Object reloadLock = new Object();
+    private volatile Snapshot<T> snapshot = new Snapshot<>(0, Map.of(), Map.of(), Map.of());
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * @param directory 规则目录
+     */
+    public RuleRepository(Path directory) {
+        this(directory, false);
+    }
+
+    /**
+     * @param directory 规则目录
+     * @param optimize  是否在解析后通过 {@link RuleOptimizer} 优化规则
+     */
+    public RuleRepository(Path directory, boolean optimize) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.optimize = optimize;
+    }
+
+    /**
+     * 获取规则
+     *
+     * @param name 规则名，即不含 .json 后缀的文件名
+     * @return 规则，不存在时返回 null
+     */
+    public Condition<T> get(String name) {
+        return snapshot.rules.get(name);
+    }
+
+    /**
+     * 当前版本的全部规则
+     *
+     * @return 规则名 -> 规则，不可修改
+     */
+    public Map<String, Condition<T>> getRules() {
+        return snapshot.rules;
+    }
+
+    /**
+     * 当前版本号，每次规则发生变化时递增
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * 最近一次加载失败的文件
+     *
+     * @return 规则名 -> 解析异常，不可修改
+     */
+    public Map<String, Exception> getErrors() {
+        return snapshot.errors;
+    }
+
+    /**
+     * 扫描整个目录并加载规则，未变化的文件不会重新解析
+     *
+     * @return 当前仓库
+     */
+    public RuleRepository<T> load() {
+        synchronized (reloadLock) {
+            Set<String> names = new HashSet<>(snapshot.entries.keySet());
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    names.add(name(file));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load rules from " + directory, e);
+            }
+            reload(names);
+        }
+        return this;
+    }
+
+    /**
+     * 启动后台线程监听目录，文件创建、修改、删除后自动重新加载对应的规则
+     *
+     * @return 当前仓库
+     */
+    public synchronized RuleRepository<T> watch() {
+        if (watcher != null) {
+            return this;
+        }
+        try {
+            watchService = directory.getFileSystem()
+                                    .newWatchService();
+            directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to watch " + directory, e);
+        }
+        watcher = Thread.ofPlatform()
+                        .daemon()
+                        .name("rule-repository-" + directory.getFileName())
+                        .start(this::watchLoop);
+        return this;
+    }
+
+    /**
+     * 停止监听目录，已加载的规则仍然可用
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // 监听线程会因 ClosedWatchServiceException 退出
+        }
+        watcher.interrupt();
+        watcher = null;
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                Set<String> changed = new HashSet<>();
+                boolean overflow = collect(watchService.take(), changed);
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(next, changed);
+                }
+                try {
+                    if (overflow) {
+                        load();
+                    } else if (!changed.isEmpty()) {
+                        synchronized (reloadLock) {
+                            reload(changed);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // 目录暂时不可读等，保留当前版本，下一次事件时重试
+                    LOGGER.log(System.Logger.Level.WARNING, "Failed to reload rules from " + directory, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 仓库已关闭
+        }
+    }
+
+    /**
+     * 收集变化的规则名，事件丢失时返回 true
+     */
+    private static boolean collect(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else if (event.context() instanceof Path file && file.toString()
+                                                                    .endsWith(SUFFIX)) {
+                changed.add(name(file));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    /**
+     * 重新加载指定的规则并发布新快照，调用方需持有 {@link #reloadLock}
+     */
+    private void reload(Set<String> names) {
+        Snapshot<T> current = snapshot;
+        Map<String, Entry<T>> entries = new HashMap<>(current.entries);
+        Map<String, Exception> errors = new HashMap<>(current.errors);
+        boolean changed = false;
+        for (String name : names) {
+            Entry<T> previous = entries.get(name);
+            Path file = directory.resolve(name + SUFFIX);
+            errors.remove(name);
+            Entry<T> entry;
+            try {
+                entry = Files.isRegularFile(file) ? load(file, previous) : null;
+            } catch (Exception e) {
+                // 保留上一版本
+                errors.put(name, e);
+                continue;
+            }
+            if (entry == null) {
+                changed |= entries.remove(name) != null;
+            } else if (entry != previous) {
+                changed |= previous == null || previous.condition != entry.condition;
+                entries.put(name, entry);
+            }
+        }
+        Map<String, Condition<T>> rules = current.rules;
+        if (changed) {
+            Map<String, Condition<T>> updated = new HashMap<>(entries.size() * 4 / 3 + 1);
+            Set<String> hashes = new HashSet<>();
+            entries.forEach((name, entry) -> {
+                updated.put(name, entry.condition);
+                hashes.add(entry.hash);
+            });
+            parsed.keySet()
+                  .retainAll(hashes);
+            rules = Collections.unmodifiableMap(updated);
+        }
+        snapshot = new Snapshot<>(changed ? current.version + 1 : current.version, Collections.unmodifiableMap(entries), rules,
+                                  Collections.unmodifiableMap(errors));
+    }
+
+    /**
+     * 读取规则文件，内容未变化时返回 previous
+     */
+    @SuppressWarnings("unchecked")
+    private Entry<T> load(Path file, Entry<T> previous) throws Exception {
+        byte[] bytes = Files.readAllBytes(file);
+        String hash = hash(bytes);
+        if (previous != null && previous.hash.equals(hash)) {
+            return previous;
+        }
+        Condition<T> condition = parsed.get(hash);
+        if (condition == null) {
+            condition = (Condition<T>) JsonUtils.toObject(new String(bytes, StandardCharsets.UTF_8), Condition.class);
+            if (condition == null) {
+                throw new IllegalArgumentException("Empty rule file: " + file);
+            }
+            if (optimize) {
+                condition = RuleOptimizer.optimize(condition);
+            }
+            parsed.put(hash, condition);
+        }
+        return new Entry<>(hash, condition);
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of()
+                            .formatHex(MessageDigest.getInstance("SHA-256")
+                                                    .digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String name(Path file) {
+        String fileName = file.getFileName()
+                              .toString();
+        return fileName.substring(0, fileName.length() - SUFFIX.length());
+    }
+
+    /**
+     * 已加载的规则文件
+     */
+    private record Entry<T>(String hash, Condition<T> condition) {
+    }
+
+    /**
+     * 不可变的规则版本
+     */
+    private record Snapshot<T>(long version, Map<String, Entry<T>> entries, Map<String, Condition<T>> rules,
+                               Map<String, Exception> errors) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.au92.common.util.rule.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * {@link RuleRepository}
+ *
+ * @author p_x_c
+ */
+class RuleRepositoryTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void sameSizeRewriteWithSameTimestampIsReloaded() throws Exception {
+        Path file = directory.resolve("level.json");
+        Files.writeString(file, "{\"type\":\"equal\",\"target\":\"a\"}");
+        FileTime modified = Files.getLastModifiedTime(file);
+        RuleRepository<String> repository = new RuleRepository<String>(directory).load();
+        assertTrue(repository.get("level")
+                             .evaluate("a"));
+        long version = repository.getVersion();
+
+        Files.writeString(file, "{\"type\":\"equal\",\"target\":\"b\"}");
+        Files.setLastModifiedTime(file, modified);
+        repository.load();
+        assertEquals(version + 1, repository.getVersion());
+        assertFalse(repository.get("level")
+                              .evaluate("a"));
+        assertTrue(repository.get("level")
+                             .evaluate("b"));
+    }
+
+    @Test
+    void unchangedContentKeepsRule() throws Exception {
+        Path file = directory.resolve("level.json");
+        Files.writeString(file, "{\"type\":\"equal\",\"target\":\"a\"}");
+        RuleRepository<String> repository = new RuleRepository<String>(directory).load();
+        Condition<String> rule = repository.get("level");
+        long version = repository.getVersion();
+
+        Files.writeString(file, "{\"type\":\"equal\",\"target\":\"a\"}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        repository.load();
+        assertSame(rule, repository.get("level"));
+        assertEquals(version, repository.getVersion());
+    }
+}
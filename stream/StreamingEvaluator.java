@@ -0,0 +1,311 @@
+package com.au92.common.util.rule.stream;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.accessor.FactValues;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 流式 JSON 求值器，直接对 JSON 文本计算规则，不需要先解析为 {@link JsonNode} 或绑定为对象。
+ * <p>
+ * 创建时从规则树中收集顶层 {@link FieldNameCondition} 引用的字段，求值时用 {@link JsonParser} 顺序读取文档，
+ * 跳过其余字段的值（包括嵌套的对象和数组）。每读到一个被引用的字段，只计算读取该字段的叶子条件，
+ * 并以三值逻辑（true / false / 未知）向上更新其祖先节点，每个节点最多确定一次，一次求值的总开销与规则树的大小成正比；
+ * 根节点确定后立即停止解析。文档读完后仍未确定时，未出现的字段按 null 处理，按原规则的顺序完整计算一次。
+ * <p>
+ * 字段值的转换与 {@link JsonNode} 事实对象一致（见 {@link FactValues}），因此结果与 {@code condition.evaluate(jsonNode)} 相同；
+ * 区别在于提前确定结果时不再计算其余子条件，原规则因字段为 null 等原因抛出异常的情况下可能直接得到结果。
+ * 字段重复出现时使用第一次出现的值。
+ * <p>
+ * 规则根部不是 AND / OR / NOT / {@link FieldNameCondition} 组合，或文档根部不是对象时，退化为解析整个文档后计算。
+ * 求值器不可变，可以被多个线程共享。
+ *
+ * @author p_x_c
+ */
+public class StreamingEvaluator {
+    private static final int FALSE = 0;
+    private static final int TRUE = 1;
+    private static final int UNKNOWN = -1;
+
+    private static final int AND = 0;
+    private static final int OR = 1;
+    private static final int NOT = 2;
+    private static final int FIELD = 3;
+
+    /**
+     * 与 JsonUtils 一致的宽松解析选项；不关闭调用方传入的输入流
+     */
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+                                                          .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+                                                          .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+                                                          .enable(JsonReadFeature.ALLOW_LEADING_ZEROS_FOR_NUMBERS)
+                                                          .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+                                                          .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+                                                          .build();
+    private static final ObjectMapper MAPPER = new ObjectMapper(FACTORY);
+
+    private final Condition<Object> condition;
+    /**
+     * 字段名 -> 槽位
+     */
+    private final Map<String, Integer> fields = new HashMap<>();
+    /**
+     * 先序排列的规则树，根节点下标为 0，父节点总在子节点之前；无法流式计算时为 null
+     */
+    private final Node[] nodes;
+    /**
+     * 槽位 -> 读取该字段的叶子节点下标
+     */
+    private final int[][] leaves;
+
+    @SuppressWarnings("unchecked")
+    public StreamingEvaluator(Condition<?> condition) {
+        this.condition = (Condition<Object>) condition;
+        List<Node> tree = new ArrayList<>();
+        if (node(condition, -1, tree) < 0) {
+            fields.clear();
+            this.nodes = null;
+            this.leaves = new int[0][];
+            return;
+        }
+        this.nodes = tree.toArray(new Node[0]);
+        this.leaves = new int[fields.size()][];
+        int[] counts = new int[fields.size()];
+        for (Node node : nodes) {
+            if (node.kind == FIELD) {
+                counts[node.slot]++;
+            }
+        }
+        for (int slot = 0; slot < counts.length; slot++) {
+            leaves[slot] = new int[counts[slot]];
+            counts[slot] = 0;
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].kind == FIELD) {
+                leaves[nodes[i].slot][counts[nodes[i].slot]++] = i;
+            }
+        }
+    }
+
+    /**
+     * 被引用的字段，规则无法流式计算时为空
+     *
+     * @return 字段名
+     */
+    public Set<String> getFields() {
+        return Collections.unmodifiableSet(fields.keySet());
+    }
+
+    /**
+     * 计算 JSON 文档
+     *
+     * @param json JSON 文档
+     * @return 计算结果
+     * @throws IOException JSON 格式错误
+     */
+    public boolean evaluate(byte[] json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return evaluate(parser);
+        }
+    }
+
+    /**
+     * 计算 JSON 文档，结果确定后不再读取输入流，输入流由调用方关闭
+     *
+     * @param json JSON 文档
+     * @return 计算结果
+     * @throws IOException 读取失败或 JSON 格式错误
+     */
+    public boolean evaluate(InputStream json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return evaluate(parser);
+        }
+    }
+
+    private boolean evaluate(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (nodes == null || token != JsonToken.START_OBJECT) {
+            JsonNode document = token == null ? null : MAPPER.readTree(parser);
+            return condition.evaluate(document == null || document.isNull() ? null : document);
+        }
+        // 每个节点的状态，以及 AND / OR 节点尚未确定的子节点数
+        int[] states = new int[nodes.length];
+        int[] pending = new int[nodes.length];
+        int result = UNKNOWN;
+        for (int i = 0; i < nodes.length; i++) {
+            states[i] = UNKNOWN;
+            pending[i] = nodes[i].children.length;
+            if (nodes[i].kind <= OR && pending[i] == 0 && result == UNKNOWN) {
+                // 空的 AND 为 true，空的 OR 为 false
+                result = resolve(i, nodes[i].kind == AND ? TRUE : FALSE, states, pending);
+            }
+        }
+        if (result != UNKNOWN) {
+            return result == TRUE;
+        }
+        Object[] values = new Object[fields.size()];
+        boolean[] known = new boolean[fields.size()];
+        int remaining = fields.size();
+        while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+            Integer slot = fields.get(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (slot == null || known[slot]) {
+                parser.skipChildren();
+                continue;
+            }
+            values[slot] = read(parser, value);
+            known[slot] = true;
+            remaining--;
+            for (int leaf : leaves[slot]) {
+                int state = nodes[leaf].test(values[slot]);
+                if (state != UNKNOWN && resolve(leaf, state, states, pending) != UNKNOWN) {
+                    return states[0] == TRUE;
+                }
+            }
+        }
+        return evaluate(0, values);
+    }
+
+    /**
+     * 确定一个节点的状态并向上更新祖先，根节点因此确定时返回根节点的状态，否则返回 UNKNOWN
+     */
+    private int resolve(int index, int state, int[] states, int[] pending) {
+        while (true) {
+            states[index] = state;
+            int parent = nodes[index].parent;
+            if (parent < 0) {
+                return state;
+            }
+            if (states[parent] != UNKNOWN) {
+                return UNKNOWN;
+            }
+            Node node = nodes[parent];
+            if (node.kind == NOT) {
+                state = TRUE - state;
+            } else if (state != (node.kind == AND ? FALSE : TRUE) && --pending[parent] > 0) {
+                // 不是决定性的结果，还有子节点未确定
+                return UNKNOWN;
+            }
+            // AND 中任一子条件为 false 即为 false，全部为 true 时为 true，OR 相反，两种情况下状态都与最后确定的子节点相同
+            index = parent;
+        }
+    }
+
+    /**
+     * 所有字段都已确定时按原规则的顺序计算
+     */
+    private boolean evaluate(int index, Object[] values) {
+        Node node = nodes[index];
+        if (node.kind == FIELD) {
+            return node.inner.evaluate(values[node.slot]);
+        }
+        if (node.kind == NOT) {
+            return !evaluate(node.children[0], values);
+        }
+        boolean isAnd = node.kind == AND;
+        for (int child : node.children) {
+            if (evaluate(child, values) != isAnd) {
+                return !isAnd;
+            }
+        }
+        return isAnd;
+    }
+
+    /**
+     * 读取当前值，转换方式与 JsonNode 事实对象相同
+     */
+    private static Object read(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> FactValues.jsonNumber(parser.getNumberValue());
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> FactValues.normalize(MAPPER.readTree(parser));
+        };
+    }
+
+    /**
+     * 把规则按先序追加到 tree 中，返回节点下标，遇到无法流式计算的节点时返回 -1
+     */
+    @SuppressWarnings("unchecked")
+    private int node(Condition<?> condition, int parent, List<Node> tree) {
+        Class<?> type = condition == null ? null : condition.getClass();
+        int index = tree.size();
+        if (type == AndCondition.class || type == OrCondition.class) {
+            List<? extends Condition<?>> conditions = type == AndCondition.class ? ((AndCondition<?>) condition).getConditions()
+                    : ((OrCondition<?>) condition).getConditions();
+            if (conditions == null) {
+                return -1;
+            }
+            tree.add(null);
+            int[] children = new int[conditions.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = node(conditions.get(i), index, tree);
+                if (children[i] < 0) {
+                    return -1;
+                }
+            }
+            tree.set(index, new Node(type == AndCondition.class ? AND : OR, parent, children, -1, null));
+            return index;
+        }
+        if (type == NotCondition.class) {
+            tree.add(null);
+            int child = node(((NotCondition<?>) condition).getCondition(), index, tree);
+            if (child < 0) {
+                return -1;
+            }
+            tree.set(index, new Node(NOT, parent, new int[]{child}, -1, null));
+            return index;
+        }
+        if (type == FieldNameCondition.class) {
+            FieldNameCondition<?, ?> field = (FieldNameCondition<?, ?>) condition;
+            if (field.getFieldName() == null || field.getInnerCondition() == null) {
+                return -1;
+            }
+            int slot = fields.computeIfAbsent(field.getFieldName(), k -> fields.size());
+            tree.add(new Node(FIELD, parent, new int[0], slot, (Condition<Object>) field.getInnerCondition()));
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * 规则树节点
+     *
+     * @param kind     AND、OR、NOT 或 FIELD
+     * @param parent   父节点下标，根节点为 -1
+     * @param children 子节点下标，按原规则的顺序
+     * @param slot     FIELD 节点读取的字段槽位
+     * @param inner    FIELD 节点对字段值计算的条件
+     */
+    private record Node(int kind, int parent, int[] children, int slot, Condition<Object> inner) {
+        /**
+         * 计算叶子条件，抛出异常时返回 UNKNOWN，留到完整计算时按原规则的顺序决定是否抛出
+         */
+        int test(Object value) {
+            try {
+                return inner.evaluate(value) ? TRUE : FALSE;
+            } catch (RuntimeException e) {
+                return UNKNOWN;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.au92.common.util.rule.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.IsNullCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link StreamingEvaluator} 与 {@code condition.evaluate(jsonNode)} 的结果一致
+ *
+ * @author p_x_c
+ */
+class StreamingEvaluatorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final Random random = new Random(12);
+
+    @Test
+    void sameResultsAsJsonNode() throws Exception {
+        List<String> documents = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            documents.add(document());
+        }
+        for (int round = 0; round < 500; round++) {
+            Condition<JsonNode> condition = tree(3);
+            StreamingEvaluator evaluator = new StreamingEvaluator(condition);
+            for (String json : documents) {
+                Boolean expected;
+                try {
+                    expected = condition.evaluate(MAPPER.readTree(json));
+                } catch (RuntimeException e) {
+                    // 原规则抛出异常时，流式计算可以提前得到结果
+                    continue;
+                }
+                assertEquals(expected, evaluator.evaluate(json.getBytes(StandardCharsets.UTF_8)), json);
+            }
+        }
+    }
+
+    @Test
+    void emptyJunctions() throws Exception {
+        byte[] json = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+        assertTrue(new StreamingEvaluator(new AndCondition<>(List.of())).evaluate(json));
+        assertFalse(new StreamingEvaluator(new OrCondition<>(List.of())).evaluate(json));
+        Condition<JsonNode> nested = new OrCondition<>(List.of(field("a", new EqualCondition<>(2)), new NotCondition<>(new OrCondition<>(List.of()))));
+        assertTrue(new StreamingEvaluator(nested).evaluate(json));
+    }
+
+    @Test
+    void inputStreamIsNotClosed() throws Exception {
+        TrackingStream stream = new TrackingStream("{\"a\":5,\"b\":\"x\"}");
+        assertTrue(new StreamingEvaluator(field("a", new GreaterThanCondition<>(3))).evaluate(stream));
+        assertFalse(stream.closed);
+    }
+
+    private String document() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"skip\":{\"a\":[1,2,{\"b\":3}]}");
+        if (random.nextInt(4) > 0) {
+            String[] values = {"1", "3", "5", "null", "2.5", "\"3\""};
+            json.append(",\"a\":")
+                .append(values[random.nextInt(values.length)]);
+        }
+        if (random.nextInt(4) > 0) {
+            String[] values = {"\"gold\"", "\"silver\"", "null", "\"golden age\""};
+            json.append(",\"b\":")
+                .append(values[random.nextInt(values.length)]);
+        }
+        if (random.nextBoolean()) {
+            json.append(",\"c\":")
+                .append(random.nextInt(4) - 1);
+        }
+        return json.append('}')
+                   .toString();
+    }
+
+    private Condition<JsonNode> tree(int depth) {
+        int kind = depth == 0 ? 3 + random.nextInt(4) : random.nextInt(7);
+        return switch (kind) {
+            case 0 -> new AndCondition<>(children(depth));
+            case 1 -> new OrCondition<>(children(depth));
+            case 2 -> new NotCondition<>(tree(depth - 1));
+            case 3 -> field("a", random.nextBoolean() ? new GreaterThanCondition<>(2) : new LessThanOrEqualCondition<>(3));
+            case 4 -> field("a", random.nextBoolean() ? new EqualCondition<>(5) : new IsNullCondition<>());
+            case 5 -> field("b", random.nextBoolean() ? new ContainsCondition("gold") : new EqualCondition<>("silver"));
+            default -> field("c", random.nextBoolean() ? new EqualCondition<>(0) : new IsNullCondition<>());
+        };
+    }
+
+    private List<Condition<JsonNode>> children(int depth) {
+        List<Condition<JsonNode>> children = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            children.add(tree(depth - 1));
+        }
+        return children;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Condition<JsonNode> field(String name, Condition<?> inner) {
+        return new FieldNameCondition(name, inner);
+    }
+
+    private static class TrackingStream extends ByteArrayInputStream {
+        private boolean closed;
+
+        TrackingStream(String json) {
+            super(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.au92.common.util.rule.table;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 决策表：按顺序排列的若干行，每行是一个条件和一个结果，按 {@link HitPolicy} 返回满足条件的行的结果。
+ * <p>
+ * 创建时把每行的条件按 AND 拆分，从 {@code fieldName(f, ==)} 中建立字段 f 的哈希索引，
+ * 从 {@code fieldName(f, > / >= / < / <= / BETWEEN)} 中建立字段 f 的有序边界索引（见 {@link RangeIndex}）。
+ * 计算时读取被索引的字段，在每个索引中查找可能满足的行，选择候选行最少的索引，再按命中顺序对候选行计算完整的条件，
+ * 因此结果与逐行计算相同，而行数很多时只需计算少数几行。无法建立索引的条件（OR、字符串条件等）在验证时计算；
+ * 没有可用索引时逐行计算。只有候选行会被计算，其他行中会抛出异常的条件不会被计算。
+ * <p>
+ * 决策表创建后不可变，可以被多个线程同时使用，行中的条件在创建后不能修改。
+ *
+ * <pre>
+ * DecisionTable&lt;Order, BigDecimal&gt; discount = DecisionTable.&lt;Order, BigDecimal&gt;builder(HitPolicy.FIRST)
+ *                                                            .row(RuleBuilder.&lt;Order&gt;start()
+ *                                                                            .field("level", new EqualCondition&lt;&gt;("gold"))
+ *                                                                            .field("amount", new GreaterThanOrEqualCondition&lt;&gt;(1000))
+ *                                                                            .build(), new BigDecimal("0.8"))
+ *                                                            .otherwise(BigDecimal.ONE)
+ *                                                            .build();
+ * BigDecimal rate = discount.evaluate(order);
+ * </pre>
+ *
+ * @author p_x_c
+ */
+public class DecisionTable<T, R> {
+    /**
+     * 每行平均最多在索引中出现的次数，超过时不为该列建立索引
+     */
+    static final int INDEX_BUDGET_PER_ROW = 64;
+
+    private final HitPolicy policy;
+    /**
+     * 按命中顺序排列的行：FIRST / ALL 为原有顺序，PRIORITY 按优先级从高到低，相同优先级保持原有顺序
+     */
+    private final List<Row<T, R>> rows;
+    private final R defaultOutcome;
+    private final List<Column> columns;
+
+    private DecisionTable(HitPolicy policy, List<Row<T, R>> rows, R defaultOutcome) {
+        this.policy = policy;
+        List<Row<T, R>> ordered = new ArrayList<>(rows);
+        if (policy == HitPolicy.PRIORITY) {
+            ordered.sort(Comparator.comparingInt((Row<T, R> row) -> row.priority())
+                                   .reversed());
+        }
+        this.rows = Collections.unmodifiableList(ordered);
+        this.defaultOutcome = defaultOutcome;
+        this.columns = compile(this.rows);
+    }
+
+    /**
+     * 创建决策表
+     *
+     * @param policy 命中策略
+     * @param <T>    事实对象类型
+     * @param <R>    结果类型
+     * @return 构建器
+     */
+    public static <T, R> Builder<T, R> builder(HitPolicy policy) {
+        return new Builder<>(policy);
+    }
+
+    /**
+     * 计算一个结果：FIRST 为第一个满足条件的行，PRIORITY 为优先级最高的行，ALL 为按顺序第一个满足条件的行
+     *
+     * @param fact 事实对象
+     * @return 命中行的结果，没有命中时返回默认结果
+     */
+    public R evaluate(T fact) {
+        Row<T, R> row = first(fact);
+        return row == null ? defaultOutcome : row.outcome();
+    }
+
+    /**
+     * 按命中策略计算所有结果：ALL 为所有满足条件的行，FIRST / PRIORITY 最多一个
+     *
+     * @param fact 事实对象
+     * @return 命中行的结果，没有命中时为空
+     */
+    public List<R> evaluateAll(T fact) {
+        if (policy != HitPolicy.ALL) {
+            Row<T, R> row = first(fact);
+            return row == null ? Collections.emptyList() : Collections.singletonList(row.outcome());
+        }
+        List<R> outcomes = new ArrayList<>();
+        int[] candidates = candidates(fact);
+        int size = candidates == null ? rows.size() : candidates.length;
+        for (int i = 0; i < size; i++) {
+            Row<T, R> row = rows.get(candidates == null ? i : candidates[i]);
+            if (row.condition()
+                   .evaluate(fact)) {
+                outcomes.add(row.outcome());
+            }
+        }
+        return outcomes;
+    }
+
+    public HitPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 按命中顺序排列的行
+     *
+     * @return 行
+     */
+    public List<Row<T, R>> getRows() {
+        return rows;
+    }
+
+    /**
+     * 建立了索引的字段
+     *
+     * @return 字段名
+     */
+    public Set<String> getIndexedFields() {
+        Set<String> fields = new LinkedHashSet<>();
+        columns.forEach(column -> fields.add(column.field()));
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * 按命中顺序第一个满足条件的行
+     */
+    private Row<T, R> first(T fact) {
+        int[] candidates = candidates(fact);
+        int size = candidates == null ? rows.size() : candidates.length;
+        for (int i = 0; i < size; i++) {
+            Row<T, R> row = rows.get(candidates == null ? i : candidates[i]);
+            if (row.condition()
+                   .evaluate(fact)) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 候选行最少的索引给出的候选行，按命中顺序；没有可用的索引时返回 null，需要逐行计算
+     */
+    private int[] candidates(T fact) {
+        if (fact == null) {
+            return null;
+        }
+        int[] best = null;
+        for (int i = 0, size = columns.size(); i < size; i++) {
+            Column column = columns.get(i);
+            Object value;
+            try {
+                value = column.reader.accessor(fact.getClass())
+                                     .get(fact);
+            } catch (RuntimeException e) {
+                // 读取失败时不使用该索引，由计算条件时抛出
+                continue;
+            }
+            int[] equal = column.equality == null ? null : column.equality.candidates(value);
+            int[] range = column.range == null ? null : column.range.candidates(value);
+            if (equal != null && (best == null || equal.length < best.length)) {
+                best = equal;
+            }
+            if (range != null && (best == null || range.length < best.length)) {
+                best = range;
+            }
+            if (best != null && best.length == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 为每个出现在 fieldName 条件中的字段建立索引
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<Column> compile(List<? extends Row<T, ?>> rows) {
+        int size = rows.size();
+        Map<String, FieldNameCondition<?, ?>> readers = new LinkedHashMap<>();
+        Map<String, Object[]> targets = new LinkedHashMap<>();
+        Map<String, boolean[]> constrained = new LinkedHashMap<>();
+        Map<String, List<RangeIndex.Bound>[]> bounds = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            List<Condition<?>> conjuncts = new ArrayList<>();
+            flatten(rows.get(i)
+                        .condition(), conjuncts);
+            for (Condition<?> conjunct : conjuncts) {
+                if (conjunct.getClass() != FieldNameCondition.class || ((FieldNameCondition<?, ?>) conjunct).getFieldName() == null) {
+                    continue;
+                }
+                FieldNameCondition<?, ?> field = (FieldNameCondition<?, ?>) conjunct;
+                String name = field.getFieldName();
+                List<Condition<?>> constraints = new ArrayList<>();
+                flatten(field.getInnerCondition(), constraints);
+                for (Condition<?> constraint : constraints) {
+                    if (constraint.getClass() == EqualCondition.class) {
+                        boolean[] flags = constrained.computeIfAbsent(name, key -> new boolean[size]);
+                        if (!flags[i]) {
+                            flags[i] = true;
+                            targets.computeIfAbsent(name, key -> new Object[size])[i] = ((EqualCondition<?>) constraint).getTarget();
+                            readers.putIfAbsent(name, field);
+                        }
+                        continue;
+                    }
+                    List<RangeIndex.Bound> rowBounds = bounds(constraint);
+                    if (rowBounds != null) {
+                        List<RangeIndex.Bound>[] fieldBounds = bounds.computeIfAbsent(name, key -> new List[size]);
+                        if (fieldBounds[i] == null) {
+                            fieldBounds[i] = new ArrayList<>();
+                        }
+                        fieldBounds[i].addAll(rowBounds);
+                        readers.putIfAbsent(name, field);
+                    }
+                }
+            }
+        }
+
+        long budget = Math.max(4096L, (long) size * INDEX_BUDGET_PER_ROW);
+        List<Column> columns = new ArrayList<>();
+        readers.forEach((name, reader) -> {
+            EqualityIndex equality = constrained.containsKey(name) ? EqualityIndex.build(targets.get(name), constrained.get(name), budget) : null;
+            RangeIndex range = bounds.containsKey(name) ? RangeIndex.build(bounds.get(name), budget) : null;
+            if (equality != null || range != null) {
+                columns.add(new Column(name, reader, equality, range));
+            }
+        });
+        return columns;
+    }
+
+    /**
+     * 按 AND 拆分
+     */
+    private static void flatten(Condition<?> condition, List<Condition<?>> conjuncts) {
+        if (condition == null) {
+            return;
+        }
+        if (condition.getClass() == AndCondition.class) {
+            List<? extends Condition<?>> children = ((AndCondition<?>) condition).getConditions();
+            if (children != null) {
+                children.forEach(child -> flatten(child, conjuncts));
+            }
+        } else {
+            conjuncts.add(condition);
+        }
+    }
+
+    /**
+     * 范围条件的边界，不是范围条件或边界为 null 时返回 null
+     */
+    private static List<RangeIndex.Bound> bounds(Condition<?> condition) {
+        Class<?> type = condition.getClass();
+        if (type == GreaterThanCondition.class) {
+            return bound(((GreaterThanCondition<?>) condition).getThreshold(), true, false);
+        } else if (type == GreaterThanOrEqualCondition.class) {
+            return bound(((GreaterThanOrEqualCondition<?>) condition).getThreshold(), true, true);
+        } else if (type == LessThanCondition.class) {
+            return bound(((LessThanCondition<?>) condition).getThreshold(), false, false);
+        } else if (type == LessThanOrEqualCondition.class) {
+            return bound(((LessThanOrEqualCondition<?>) condition).getThreshold(), false, true);
+        } else if (type == BetweenCondition.class) {
+            BetweenCondition<?> between = (BetweenCondition<?>) condition;
+            if (between.getMin() == null || between.getMax() == null || between.getMin()
+                                                                               .getClass() != between.getMax()
+                                                                                                     .getClass()) {
+                return null;
+            }
+            return List.of(new RangeIndex.Bound(between.getMin(), true, true), new RangeIndex.Bound(between.getMax(), false, true));
+        }
+        return null;
+    }
+
+    private static List<RangeIndex.Bound> bound(Comparable<?> value, boolean lower, boolean inclusive) {
+        return value == null ? null : List.of(new RangeIndex.Bound(value, lower, inclusive));
+    }
+
+    /**
+     * 决策表的一行
+     *
+     * @param condition 条件
+     * @param outcome   结果
+     * @param priority  优先级，越大越优先，只用于 {@link HitPolicy#PRIORITY}
+     */
+    public record Row<T, R>(Condition<T> condition, R outcome, int priority) {
+        public Row {
+            Objects.requireNonNull(condition, "condition");
+        }
+    }
+
+    /**
+     * 一个字段上的索引
+     */
+    private record Column(String field, FieldNameCondition<?, ?> reader, EqualityIndex equality, RangeIndex range) {
+    }
+
+    /**
+     * 决策表构建器
+     */
+    public static class Builder<T, R> {
+        private final HitPolicy policy;
+        private final List<Row<T, R>> rows = new ArrayList<>();
+        private R defaultOutcome;
+
+        private Builder(HitPolicy policy) {
+            this.policy = Objects.requireNonNull(policy, "policy");
+        }
+
+        /**
+         * 添加一行，优先级为 0
+         */
+        public Builder<T, R> row(Condition<T> condition, R outcome) {
+            return row(condition, outcome, 0);
+        }
+
+        /**
+         * 添加一行
+         */
+        public Builder<T, R> row(Condition<T> condition, R outcome, int priority) {
+            rows.add(new Row<>(condition, outcome, priority));
+            return this;
+        }
+
+        /**
+         * 没有命中任何行时 {@link DecisionTable#evaluate(Object)} 返回的结果，默认为 null
+         */
+        public Builder<T, R> otherwise(R outcome) {
+            this.defaultOutcome = outcome;
+            return this;
+        }
+
+        public DecisionTable<T, R> build() {
+            return new DecisionTable<>(policy, rows, defaultOutcome);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.au92.common.util.rule.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.BetweenCondition;
+import com.au92.common.util.rule.impl.ContainsCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.GreaterThanOrEqualCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.LessThanOrEqualCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link DecisionTable} 的命中策略，以及索引与逐行计算的结果一致
+ *
+ * @author p_x_c
+ */
+class DecisionTableTest {
+    private static final String[] TIERS = {"gold", "silver", "bronze", "golden"};
+    private static final Object[] RATES = {0.0, -0.0, 0.5, 1.0, Double.NaN, 1};
+    private final Random random = new Random(24);
+
+    @Test
+    void hitPolicies() {
+        Condition<Order> gold = field("tier", new EqualCondition<>("gold"));
+        Condition<Order> large = field("amount", new GreaterThanOrEqualCondition<>(1000));
+        DecisionTable<Order, String> first = table(HitPolicy.FIRST, gold, large);
+        DecisionTable<Order, String> priority = table(HitPolicy.PRIORITY, gold, large);
+        DecisionTable<Order, String> all = table(HitPolicy.ALL, gold, large);
+        Order both = new Order("gold", 2000, 0.5);
+        Order none = new Order("silver", 10, 0.5);
+
+        assertEquals("gold", first.evaluate(both));
+        assertEquals("large", priority.evaluate(both));
+        assertEquals("gold", all.evaluate(both));
+        assertEquals(List.of("gold"), first.evaluateAll(both));
+        assertEquals(List.of("large"), priority.evaluateAll(both));
+        assertEquals(List.of("gold", "large"), all.evaluateAll(both));
+
+        assertEquals("none", first.evaluate(none));
+        assertEquals("none", priority.evaluate(none));
+        assertTrue(all.evaluateAll(none)
+                      .isEmpty());
+        assertTrue(priority.evaluateAll(none)
+                           .isEmpty());
+    }
+
+    @Test
+    void indexMatchesLinearScan() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            orders.add(order());
+        }
+        for (int round = 0; round < 30; round++) {
+            for (HitPolicy policy : HitPolicy.values()) {
+                DecisionTable.Builder<Order, Integer> builder = DecisionTable.builder(policy);
+                for (int i = 0; i < 60; i++) {
+                    builder.row(row(), i, random.nextInt(3));
+                }
+                DecisionTable<Order, Integer> table = builder.otherwise(-1)
+                                                             .build();
+                for (Order order : orders) {
+                    List<Integer> expected = expected(policy, table.getRows(), order);
+                    String message = policy + " " + order;
+                    assertEquals(expected, table.evaluateAll(order), message);
+                    assertEquals(expected.isEmpty() ? -1 : expected.get(0), table.evaluate(order), message);
+                }
+            }
+        }
+    }
+
+    /**
+     * 逐行计算的结果：ALL 为所有满足条件的行，FIRST 为第一行，PRIORITY 为优先级最高的行中最靠前的一行
+     */
+    private static List<Integer> expected(HitPolicy policy, List<DecisionTable.Row<Order, Integer>> rows, Order order) {
+        List<Integer> matched = new ArrayList<>();
+        DecisionTable.Row<Order, Integer> best = null;
+        for (DecisionTable.Row<Order, Integer> row : rows) {
+            if (row.condition()
+                   .evaluate(order)) {
+                matched.add(row.outcome());
+                if (best == null || row.priority() > best.priority()) {
+                    best = row;
+                }
+            }
+        }
+        if (policy == HitPolicy.ALL || matched.isEmpty()) {
+            return matched;
+        }
+        return List.of(policy == HitPolicy.FIRST ? matched.get(0) : best.outcome());
+    }
+
+    private Order order() {
+        int[] amounts = {0, 99, 100, 500, 999, 1000, 5000};
+        return new Order(TIERS[random.nextInt(TIERS.length)], amounts[random.nextInt(amounts.length)],
+                         (double) RATES[random.nextInt(RATES.length - 1)]);
+    }
+
+    /**
+     * 可索引的等值和范围条件的 AND，部分行带有无法索引的条件
+     */
+    private Condition<Order> row() {
+        List<Condition<Order>> conditions = new ArrayList<>();
+        for (int i = random.nextInt(3) + 1; i > 0; i--) {
+            conditions.add(switch (random.nextInt(6)) {
+                case 0 -> field("tier", new EqualCondition<>(TIERS[random.nextInt(TIERS.length)]));
+                case 1 -> field("amount", comparison(new Object[]{100, 500, 1000, 999.5}));
+                case 2 -> field("rate", comparison(RATES));
+                case 3 -> field("rate", new EqualCondition<>(RATES[random.nextInt(RATES.length)]));
+                case 4 -> field("tier", new ContainsCondition("gold"));
+                default -> new OrCondition<>(List.of(field("tier", new EqualCondition<>("silver")), field("amount", new LessThanCondition<>(100))));
+            });
+        }
+        return conditions.size() == 1 ? conditions.get(0) : new AndCondition<>(conditions);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Condition<Object> comparison(Object[] thresholds) {
+        Comparable value = (Comparable) thresholds[random.nextInt(thresholds.length)];
+        return switch (random.nextInt(5)) {
+            case 0 -> new GreaterThanCondition(value);
+            case 1 -> new GreaterThanOrEqualCondition(value);
+            case 2 -> new LessThanCondition(value);
+            case 3 -> new LessThanOrEqualCondition(value);
+            default -> new BetweenCondition((Comparable) thresholds[random.nextInt(thresholds.length)], value);
+        };
+    }
+
+    private static DecisionTable<Order, String> table(HitPolicy policy, Condition<Order> gold, Condition<Order> large) {
+        return DecisionTable.<Order, String>builder(policy)
+                            .row(gold, "gold")
+                            .row(large, "large", 1)
+                            .otherwise("none")
+                            .build();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Condition<Order> field(String name, Condition<?> inner) {
+        return new FieldNameCondition(name, inner);
+    }
+
+    public record Order(String tier, int amount, double rate) {
+    }
+}
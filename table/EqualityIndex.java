@@ -0,0 +1,89 @@
+package com.au92.common.util.rule.table;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 决策表中一列 == 条件的哈希索引：字段值到可能满足的行。
+ * <p>
+ * 行用其在命中顺序中的位置表示，每个值对应的数组已经合并了该列没有 == 条件的行并按位置升序排列，查找时不需要再合并。
+ *
+ * @author p_x_c
+ */
+final class EqualityIndex {
+    private final Map<Object, int[]> buckets;
+    /**
+     * 该列没有 == 条件的行，字段值不在 buckets 中时返回
+     */
+    private final int[] wildcard;
+
+    private EqualityIndex(Map<Object, int[]> buckets, int[] wildcard) {
+        this.buckets = buckets;
+        this.wildcard = wildcard;
+    }
+
+    /**
+     * 可能满足条件的行，按位置升序
+     */
+    int[] candidates(Object value) {
+        int[] rows = buckets.get(value);
+        return rows == null ? wildcard : rows;
+    }
+
+    /**
+     * @param targets     每一行 == 条件的目标值
+     * @param constrained 每一行是否有 == 条件
+     * @param budget      索引中最多保存的行数，超过时不建立索引
+     * @return 索引，超出预算时返回 null
+     */
+    static EqualityIndex build(Object[] targets, boolean[] constrained, long budget) {
+        List<Integer> wildcard = new ArrayList<>();
+        Map<Object, List<Integer>> groups = new HashMap<>();
+        for (int i = 0; i < targets.length; i++) {
+            if (constrained[i]) {
+                groups.computeIfAbsent(targets[i], target -> new ArrayList<>())
+                      .add(i);
+            } else {
+                wildcard.add(i);
+            }
+        }
+        long total = (long) wildcard.size() * (groups.size() + 1) + targets.length;
+        if (total > budget) {
+            return null;
+        }
+        int[] wildcardRows = toArray(wildcard);
+        Map<Object, int[]> buckets = new HashMap<>(groups.size() * 4 / 3 + 1);
+        groups.forEach((target, rows) -> buckets.put(target, merge(toArray(rows), wildcardRows)));
+        return new EqualityIndex(buckets, wildcardRows);
+    }
+
+    static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * 合并两个升序数组
+     */
+    private static int[] merge(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            merged[k++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            merged[k++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[k++] = b[j++];
+        }
+        return merged;
+    }
+}
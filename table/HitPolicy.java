@@ -0,0 +1,21 @@
+package com.au92.common.util.rule.table;
+
+/**
+ * 决策表的命中策略
+ *
+ * @author p_x_c
+ */
+public enum HitPolicy {
+    /**
+     * 按行的顺序，第一个满足条件的行
+     */
+    FIRST,
+    /**
+     * 优先级最高的满足条件的行，优先级相同时取靠前的行
+     */
+    PRIORITY,
+    /**
+     * 所有满足条件的行，按行的顺序
+     */
+    ALL
+}
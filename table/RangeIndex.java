@@ -0,0 +1,147 @@
+package com.au92.common.util.rule.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 决策表中一列范围条件（&gt;、&gt;=、&lt;、&lt;=、BETWEEN）的索引。
+ * <p>
+ * 该列所有边界值排序去重为 b<sub>0</sub> &lt; … &lt; b<sub>m-1</sub>，把值域划分为 2m + 1 段：第 2i + 1 段是 b<sub>i</sub> 本身，
+ * 第 2i 段是 b<sub>i-1</sub> 与 b<sub>i</sub> 之间的开区间。每段保存覆盖它的行（已合并该列没有范围条件的行），
+ * 查找时二分查找字段值所在的段。
+ * <p>
+ * 边界值按 {@link Comparable#compareTo(Object)} 比较，只使用与第一个边界值类型相同的边界，其他类型边界的行视为没有范围条件；
+ * 字段值类型不同或为 null 时索引不可用，保证索引给出的候选行包含所有满足条件的行。
+ *
+ * @author p_x_c
+ */
+final class RangeIndex {
+    private final Class<?> type;
+    private final Object[] boundaries;
+    private final int[][] slots;
+
+    private RangeIndex(Class<?> type, Object[] boundaries, int[][] slots) {
+        this.type = type;
+        this.boundaries = boundaries;
+        this.slots = slots;
+    }
+
+    /**
+     * 可能满足条件的行，按位置升序；字段值无法与边界比较时返回 null
+     */
+    int[] candidates(Object value) {
+        if (value == null || value.getClass() != type) {
+            return null;
+        }
+        int index = Arrays.binarySearch(boundaries, value);
+        return slots[index >= 0 ? 2 * index + 1 : -2 * (index + 1)];
+    }
+
+    /**
+     * @param bounds 每一行的范围边界，没有范围条件的行为 null
+     * @param budget 索引中最多保存的行数，超过时不建立索引
+     * @return 索引，没有可用的边界或超出预算时返回 null
+     */
+    static RangeIndex build(List<Bound>[] bounds, long budget) {
+        Class<?> type = null;
+        for (List<Bound> rowBounds : bounds) {
+            if (type == null && rowBounds != null && !rowBounds.isEmpty()) {
+                type = rowBounds.get(0)
+                                .value()
+                                .getClass();
+            }
+        }
+        if (type == null) {
+            return null;
+        }
+        boolean[] indexed = new boolean[bounds.length];
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i++) {
+            indexed[i] = bounds[i] != null;
+            if (indexed[i]) {
+                for (Bound bound : bounds[i]) {
+                    indexed[i] &= bound.value()
+                                       .getClass() == type;
+                }
+            }
+            if (indexed[i]) {
+                for (Bound bound : bounds[i]) {
+                    values.add(bound.value());
+                }
+            }
+        }
+        Object[] boundaries = distinct(values.toArray());
+
+        // 每行覆盖的段 [start, end]
+        int slotCount = 2 * boundaries.length + 1;
+        int[] starts = new int[bounds.length];
+        int[] ends = new int[bounds.length];
+        long total = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            starts[i] = 0;
+            ends[i] = slotCount - 1;
+            if (indexed[i]) {
+                for (Bound bound : bounds[i]) {
+                    int index = Arrays.binarySearch(boundaries, bound.value());
+                    if (bound.lower()) {
+                        starts[i] = Math.max(starts[i], bound.inclusive() ? 2 * index + 1 : 2 * index + 2);
+                    } else {
+                        ends[i] = Math.min(ends[i], bound.inclusive() ? 2 * index + 1 : 2 * index);
+                    }
+                }
+            }
+            total += Math.max(0, ends[i] - starts[i] + 1);
+        }
+        if (total > budget) {
+            return null;
+        }
+
+        int[] sizes = new int[slotCount];
+        for (int i = 0; i < bounds.length; i++) {
+            for (int slot = starts[i]; slot <= ends[i]; slot++) {
+                sizes[slot]++;
+            }
+        }
+        int[][] slots = new int[slotCount][];
+        for (int slot = 0; slot < slotCount; slot++) {
+            slots[slot] = new int[sizes[slot]];
+            sizes[slot] = 0;
+        }
+        for (int i = 0; i < bounds.length; i++) {
+            for (int slot = starts[i]; slot <= ends[i]; slot++) {
+                slots[slot][sizes[slot]++] = i;
+            }
+        }
+        return new RangeIndex(type, boundaries, slots);
+    }
+
+    /**
+     * 排序并去掉 compareTo 相等的值
+     */
+    private static Object[] distinct(Object[] values) {
+        Arrays.sort(values);
+        int size = 0;
+        for (Object value : values) {
+            if (size == 0 || compare(values[size - 1], value) != 0) {
+                values[size++] = value;
+            }
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * 一个范围边界
+     *
+     * @param value     边界值
+     * @param lower     是否为下界
+     * @param inclusive 是否包含边界值
+     */
+    record Bound(Comparable<?> value, boolean lower, boolean inclusive) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.au92.common.util.rule.trace;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.accessor.FieldAccessor;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import com.au92.common.util.rule.impl.PrimitiveCondition;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+
+/**
+ * 规则追踪，记录一次计算的决策路径，用于解释规则为什么通过或拒绝某个对象。
+ * <p>
+ * 追踪使用独立的遍历实现，与 {@link Condition#evaluate(Object)} 的语义一致：AND / OR 按 {@code evaluationOrder()} 给出的当前顺序
+ * （包括 adaptive 调整后的顺序）短路，fieldName 对 null 对象为 false，字段按基本类型比较时使用与 {@link FieldNameCondition} 相同的
+ * {@link PrimitiveCondition}。追踪不修改任何条件，也不参与 adaptive 的统计，因此不追踪时普通计算的开销不变。AND / OR / NOT / fieldName 以外的节点（包括编译、插桩后的规则）作为叶子记录。
+ * <p>
+ * 每个线程复用同一个 {@link Trace}，对抽样流量追踪时不会为每次计算分配新的缓冲区：
+ * <pre>
+ * if (ThreadLocalRandom.current().nextInt(1000) == 0) {
+ *     Trace trace = RuleTracer.trace(condition, user);
+ *     System.out.println(trace.format());
+ * }
+ * </pre>
+ *
+ * @author p_x_c
+ */
+@UtilityClass
+public class RuleTracer {
+    private static final ThreadLocal<Trace> TRACES = ThreadLocal.withInitial(Trace::new);
+
+    /**
+     * 计算规则并记录决策路径
+     *
+     * @param condition 规则
+     * @param value     待计算的值
+     * @param <T>       规则适用的对象类型
+     * @return 当前线程的决策路径，在当前线程下一次追踪之前有效
+     */
+    public static <T> Trace trace(Condition<T> condition, T value) {
+        Trace trace = TRACES.get();
+        if (trace.active) {
+            // 条件内部再次追踪时使用新实例
+            trace = new Trace();
+        }
+        trace.clear();
+        trace.active = true;
+        try {
+            trace.finish(evaluate(condition, value, 0, trace), null);
+        } catch (RuntimeException e) {
+            trace.finish(false, e);
+        } finally {
+            trace.active = false;
+        }
+        return trace;
+    }
+
+    /**
+     * 计算规则并返回不可变的决策路径，会为每个节点分配对象，适合单次排查
+     *
+     * @param condition 规则
+     * @param value     待计算的值
+     * @param <T>       规则适用的对象类型
+     * @return 按计算顺序排列的节点
+     */
+    public static <T> List<TraceEntry> explain(Condition<T> condition, T value) {
+        return trace(condition, value).entries();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean evaluate(Condition condition, Object value, int depth, Trace trace) {
+        int index = trace.enter(condition, value, depth);
+        Class<?> type = condition == null ? null : condition.getClass();
+        boolean result;
+        if (type == AndCondition.class && ((AndCondition) condition).getConditions() != null) {
+            result = junction(((AndCondition) condition).evaluationOrder(), true, value, depth, index, trace);
+        } else if (type == OrCondition.class && ((OrCondition) condition).getConditions() != null) {
+            result = junction(((OrCondition) condition).evaluationOrder(), false, value, depth, index, trace);
+        } else if (type == NotCondition.class && ((NotCondition) condition).getCondition() != null) {
+            result = !evaluate(((NotCondition) condition).getCondition(), value, depth + 1, trace);
+        } else if (type == FieldNameCondition.class && value != null && ((FieldNameCondition) condition).getInnerCondition() != null) {
+            FieldNameCondition field = (FieldNameCondition) condition;
+            FieldAccessor accessor = field.accessor(value.getClass());
+            Object fieldValue = accessor.get(value);
+            trace.value(index, fieldValue);
+            PrimitiveCondition primitive = field.primitive(value.getClass());
+            if (primitive != null) {
+                // 内部条件是单个比较，按基本类型计算后作为叶子记录
+                int inner = trace.enter(field.getInnerCondition(), fieldValue, depth + 1);
+                result = primitive.evaluate(accessor, value);
+                trace.exit(inner, result);
+            } else {
+                result = evaluate(field.getInnerCondition(), fieldValue, depth + 1, trace);
+            }
+        } else {
+            result = condition.evaluate(value);
+        }
+        trace.exit(index, result);
+        return result;
+    }
+
+    /**
+     * isAnd 为 true 时遇到 false 短路，反之遇到 true 短路
+     */
+    @SuppressWarnings("rawtypes")
+    private static boolean junction(List<Condition> children, boolean isAnd, Object value, int depth, int index, Trace trace) {
+        int size = children.size();
+        for (int i = 0; i < size; i++) {
+            int child = trace.size();
+            if (evaluate(children.get(i), value, depth + 1, trace) != isAnd) {
+                trace.decided(index, child, size - i - 1);
+                return !isAnd;
+            }
+        }
+        return isAnd;
+    }
+}
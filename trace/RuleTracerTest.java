@@ -0,0 +1,80 @@
+package com.au92.common.util.rule.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.EqualCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.GreaterThanCondition;
+import com.au92.common.util.rule.impl.LessThanCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link RuleTracer} 与 {@link Condition#evaluate(Object)} 的结果一致
+ *
+ * @author p_x_c
+ */
+class RuleTracerTest {
+
+    @Test
+    void primitiveFieldUsesSameComparison() {
+        Condition<Session> condition = new FieldNameCondition<>("score", new GreaterThanCondition<>(80));
+        Session session = new Session(85.0, "active", 3);
+
+        Trace trace = RuleTracer.trace(condition, session);
+        assertTrue(condition.evaluate(session));
+        assertTrue(trace.getResult());
+        assertNull(trace.getError());
+        assertEquals(2, trace.size());
+        assertEquals(Boolean.TRUE, trace.outcome(1));
+        assertEquals(85.0, trace.value(0));
+    }
+
+    @Test
+    void matchesEvaluate() {
+        Condition<Session> condition = new OrCondition<>(List.of(
+                new AndCondition<>(List.of(new FieldNameCondition<>("score", new GreaterThanCondition<>(60.5)),
+                                           new NotCondition<>(new FieldNameCondition<>("status", new EqualCondition<>("banned"))))),
+                new FieldNameCondition<>("visits", new LessThanCondition<>(2L))));
+        for (double score : new double[]{0, 60.5, 61, Double.NaN}) {
+            for (String status : new String[]{"active", "banned", null}) {
+                for (int visits = 0; visits < 4; visits++) {
+                    Session session = new Session(score, status, visits);
+                    assertEquals(condition.evaluate(session), RuleTracer.trace(condition, session)
+                                                                        .getResult(), session.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void followsAdaptiveOrder() {
+        AndCondition<Session> condition = new AndCondition<>(List.of(new FieldNameCondition<>("visits", new GreaterThanCondition<>(-1)),
+                                                                     new FieldNameCondition<>("status", new EqualCondition<>("vip"))));
+        condition.setAdaptive(true);
+        Session session = new Session(0, "active", 1);
+        for (int i = 0; i < 200_000; i++) {
+            condition.evaluate(session);
+        }
+        Condition<Session> first = condition.evaluationOrder()
+                                            .get(0);
+        assertSame(condition.getConditions()
+                            .get(1), first);
+
+        Trace trace = RuleTracer.trace(condition, session);
+        assertEquals(condition.evaluate(session), trace.getResult());
+        assertSame(first, trace.node(1));
+        // 第一个子条件为 false，第二个子条件被短路
+        assertEquals(3, trace.size());
+    }
+
+    public record Session(double score, String status, int visits) {
+    }
+}
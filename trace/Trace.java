@@ -0,0 +1,237 @@
+package com.au92.common.util.rule.trace;
+
+import com.au92.common.util.json.JsonUtils;
+import com.au92.common.util.rule.Condition;
+import com.au92.common.util.rule.impl.AndCondition;
+import com.au92.common.util.rule.impl.FieldNameCondition;
+import com.au92.common.util.rule.impl.NotCondition;
+import com.au92.common.util.rule.impl.OrCondition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一次规则计算的决策路径，由 {@link RuleTracer#trace(Condition, Object)} 生成。
+ * <p>
+ * 按计算顺序（先序）记录每个被计算的节点：深度、节点、被计算的值（{@link FieldNameCondition} 为读取到的字段值）、结果，
+ * 以及 AND / OR 节点由哪个子节点短路、跳过了几个子节点。没有被计算的节点不出现在路径中。
+ * <p>
+ * 实例按线程复用，数据保存在可增长的数组中，记录时不为每个节点分配对象；只在当前线程下一次追踪之前有效，
+ * 需要保存时调用 {@link #entries()} 复制。
+ *
+ * @author p_x_c
+ */
+public final class Trace {
+    static final byte FALSE = 0;
+    static final byte TRUE = 1;
+    static final byte ERROR = 2;
+
+    private Condition<?>[] nodes = new Condition<?>[16];
+    private Object[] values = new Object[16];
+    private int[] depths = new int[16];
+    private byte[] outcomes = new byte[16];
+    /**
+     * 短路的子节点在路径中的下标，没有短路时为 -1
+     */
+    private int[] deciders = new int[16];
+    private int[] skipped = new int[16];
+    private int size;
+    private boolean result;
+    private RuntimeException error;
+    boolean active;
+
+    /**
+     * 计算结果，计算抛出异常时为 false
+     *
+     * @return 计算结果
+     */
+    public boolean getResult() {
+        return result;
+    }
+
+    /**
+     * 计算过程中抛出的异常，{@link Condition#evaluate(Object)} 会直接抛出该异常
+     *
+     * @return 异常，没有异常时为 null
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /**
+     * 被计算的节点数
+     *
+     * @return 节点数
+     */
+    public int size() {
+        return size;
+    }
+
+    public int depth(int index) {
+        return depths[index];
+    }
+
+    public Condition<?> node(int index) {
+        return nodes[index];
+    }
+
+    public Object value(int index) {
+        return values[index];
+    }
+
+    /**
+     * 节点的结果，抛出异常的节点为 null
+     */
+    public Boolean outcome(int index) {
+        return outcomes[index] == ERROR ? null : outcomes[index] == TRUE;
+    }
+
+    /**
+     * AND / OR 节点中决定结果的子节点在路径中的下标，没有短路时为 -1
+     */
+    public int decider(int index) {
+        return deciders[index];
+    }
+
+    /**
+     * AND / OR 节点因短路而没有计算的子节点数
+     */
+    public int skipped(int index) {
+        return skipped[index];
+    }
+
+    /**
+     * 复制为不可变的决策路径
+     *
+     * @return 按计算顺序排列的节点
+     */
+    public List<TraceEntry> entries() {
+        List<TraceEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new TraceEntry(depths[i], label(nodes[i]), values[i], outcome(i), deciders[i], skipped[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * 以缩进的树形文本输出，短路的节点标记为 "decided"
+     *
+     * @return 树形文本
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("result=")
+               .append(result);
+        if (error != null) {
+            builder.append(" error=")
+                   .append(error);
+        }
+        builder.append('\n');
+        boolean[] decisive = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (deciders[i] >= 0) {
+                decisive[deciders[i]] = true;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            builder.append("  ".repeat(depths[i]))
+                   .append(label(nodes[i]));
+            Class<?> type = nodes[i] == null ? null : nodes[i].getClass();
+            if (type != AndCondition.class && type != OrCondition.class && type != NotCondition.class) {
+                builder.append(" value=")
+                       .append(values[i]);
+            }
+            builder.append(" -> ")
+                   .append(outcomes[i] == ERROR ? "error" : outcomes[i] == TRUE ? "true" : "false");
+            if (decisive[i]) {
+                builder.append(" (decided)");
+            }
+            if (skipped[i] > 0) {
+                builder.append(" skipped=")
+                       .append(skipped[i]);
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    /**
+     * 清空路径并释放对事实对象的引用
+     */
+    public void clear() {
+        Arrays.fill(nodes, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        result = false;
+        error = null;
+    }
+
+    /**
+     * 追加一个节点，返回其下标
+     */
+    int enter(Condition<?> node, Object value, int depth) {
+        if (size == nodes.length) {
+            int length = size * 2;
+            nodes = Arrays.copyOf(nodes, length);
+            values = Arrays.copyOf(values, length);
+            depths = Arrays.copyOf(depths, length);
+            outcomes = Arrays.copyOf(outcomes, length);
+            deciders = Arrays.copyOf(deciders, length);
+            skipped = Arrays.copyOf(skipped, length);
+        }
+        nodes[size] = node;
+        values[size] = value;
+        depths[size] = depth;
+        outcomes[size] = ERROR;
+        deciders[size] = -1;
+        skipped[size] = 0;
+        return size++;
+    }
+
+    void exit(int index, boolean outcome) {
+        outcomes[index] = outcome ? TRUE : FALSE;
+    }
+
+    void value(int index, Object value) {
+        values[index] = value;
+    }
+
+    void decided(int index, int decider, int skippedCount) {
+        deciders[index] = decider;
+        skipped[index] = skippedCount;
+    }
+
+    void finish(boolean result, RuntimeException error) {
+        this.result = result;
+        this.error = error;
+    }
+
+    /**
+     * 组合节点使用类型名，fieldName 附带字段名，叶子节点使用其 JSON，无法序列化时使用类名
+     */
+    static String label(Condition<?> condition) {
+        if (condition == null) {
+            return "null";
+        }
+        Class<?> type = condition.getClass();
+        if (type == AndCondition.class) {
+            return "and";
+        } else if (type == OrCondition.class) {
+            return "or";
+        } else if (type == NotCondition.class) {
+            return "not";
+        } else if (type == FieldNameCondition.class) {
+            return "fieldName " + ((FieldNameCondition<?, ?>) condition).getFieldName();
+        }
+        try {
+            return JsonUtils.toJSONString(condition);
+        } catch (Exception e) {
+            return type.getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.au92.common.util.rule.trace;
+
+/**
+ * 决策路径中的一个节点
+ *
+ * @param depth   在规则树中的深度，根节点为 0
+ * @param label   节点描述
+ * @param value   被计算的值，fieldName 节点为读取到的字段值
+ * @param outcome 结果，抛出异常时为 null
+ * @param decider 短路的子节点在路径中的下标，没有短路时为 -1
+ * @param skipped 因短路而没有计算的子节点数
+ * @author p_x_c
+ */
+public record TraceEntry(int depth, String label, Object value, Boolean outcome, int decider, int skipped) {
+}